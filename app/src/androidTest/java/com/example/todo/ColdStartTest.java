@@ -0,0 +1,55 @@
+package com.example.todo;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Launches {@link MainActivity} and checks the startup pipeline recorded by {@link StartupTimeline}:
+ * both milestones and every phase are reached, and the milestones stay within a budget measured
+ * from the launch. Numbers go to logcat (tag Startup).
+ */
+@RunWith(AndroidJUnit4.class)
+public class ColdStartTest {
+    // Generous budgets from launch, meant to catch regressions such as database work moving back
+    // onto the main thread rather than to benchmark a particular device
+    private static final long FIRST_FRAME_BUDGET_MS = 1_500;
+    private static final long FULL_LIST_BUDGET_MS = 3_000;
+
+    @Test
+    public void launch_reachesFirstFrameAndFullListWithinBudget() {
+        TodoApplication application = (TodoApplication) InstrumentationRegistry.getInstrumentation()
+                .getTargetContext().getApplicationContext();
+        StartupTimeline timeline = application.getStartupTimeline();
+        // In an instrumented process, the activity starts well after the process itself
+        long launchedAt = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            long deadline = SystemClock.uptimeMillis() + 10_000;
+            while ((timeline.getFullListMillis() < 0 || timeline.getPhaseMillis(StartupTimeline.PHASE_MAINTENANCE) < 0)
+                    && SystemClock.uptimeMillis() < deadline) {
+                SystemClock.sleep(10);
+            }
+            Log.i("Startup", "launched at " + launchedAt + "ms, " + timeline.summary());
+
+            long firstFrame = timeline.getFirstFrameMillis() - launchedAt;
+            long fullList = timeline.getFullListMillis() - launchedAt;
+            assertTrue("no first frame", timeline.getFirstFrameMillis() >= 0);
+            assertTrue("no full list", timeline.getFullListMillis() >= 0);
+            assertTrue(timeline.getPhaseMillis(StartupTimeline.PHASE_INFLATE) >= 0);
+            assertTrue(timeline.getPhaseMillis(StartupTimeline.PHASE_HYDRATE) >= 0);
+            assertTrue(timeline.getPhaseMillis(StartupTimeline.PHASE_MAINTENANCE) >= 0);
+            assertTrue("first frame took " + firstFrame + " ms", firstFrame <= FIRST_FRAME_BUDGET_MS);
+            assertTrue("full list took " + fullList + " ms", fullList <= FULL_LIST_BUDGET_MS);
+        }
+    }
+}
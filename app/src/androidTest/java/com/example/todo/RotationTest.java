@@ -0,0 +1,94 @@
+package com.example.todo;
+
+import android.os.SystemClock;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recreates {@link MainActivity} as a rotation does and checks that the new instance is drawn from
+ * {@link TaskListViewModel} without a single repository operation, in both list modes, and that the
+ * previous instance can be garbage-collected.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RotationTest {
+    private static final int ROTATIONS = 3;
+    private static final long TIMEOUT_MS = 10_000;
+
+    @Test
+    public void rotation_runsNoQueries() {
+        TaskRepository repository = application().getRepository();
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            awaitStartup();
+            for (int i = 0; i < ROTATIONS; i++) {
+                long before = repository.getOperationCount();
+                scenario.recreate();
+                InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+                assertEquals("queries in rotation " + i, before, repository.getOperationCount());
+            }
+
+            // The future list is kept too: its pager lives in the view model
+            scenario.onActivity(activity -> activity.findViewById(R.id.switchTasksBtn).performClick());
+            awaitOperationsSettled(repository);
+            long before = repository.getOperationCount();
+            scenario.recreate();
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            assertEquals(before, repository.getOperationCount());
+        }
+    }
+
+    @Test
+    public void rotation_releasesThePreviousActivity() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            awaitStartup();
+            List<WeakReference<MainActivity>> previous = new ArrayList<>();
+            scenario.onActivity(activity -> previous.add(new WeakReference<>(activity)));
+            scenario.recreate();
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+            long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+            while (previous.get(0).get() != null && SystemClock.uptimeMillis() < deadline) {
+                Runtime.getRuntime().gc();
+                System.runFinalization();
+                SystemClock.sleep(100);
+            }
+            assertNull("the rotated-away activity is still reachable", previous.get(0).get());
+        }
+    }
+
+    private static TodoApplication application() {
+        return (TodoApplication) InstrumentationRegistry.getInstrumentation().getTargetContext().getApplicationContext();
+    }
+
+    // Waits for the initial load and the idle-time maintenance of the first instance
+    private static void awaitStartup() {
+        StartupTimeline timeline = application().getStartupTimeline();
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+        while ((timeline.getFullListMillis() < 0 || timeline.getPhaseMillis(StartupTimeline.PHASE_MAINTENANCE) < 0)
+                && SystemClock.uptimeMillis() < deadline) {
+            SystemClock.sleep(10);
+        }
+        awaitOperationsSettled(application().getRepository());
+    }
+
+    // Waits until no new repository operation has been submitted for a while
+    private static void awaitOperationsSettled(TaskRepository repository) {
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+        long count;
+        do {
+            count = repository.getOperationCount();
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            SystemClock.sleep(300);
+        } while (count != repository.getOperationCount() && SystemClock.uptimeMillis() < deadline);
+    }
+}
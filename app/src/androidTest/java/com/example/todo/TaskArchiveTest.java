@@ -0,0 +1,110 @@
+package com.example.todo;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Archives 200k stale tasks through {@link TaskRepository#archivePastTasks} while tasks keep being
+ * added, and checks that no add waits long behind the sweep, that every stale row lands in
+ * archived_tasks and that today's tasks are left alone. Latencies go to logcat (tag TaskArchive).
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskArchiveTest {
+    private static final String TAG = "TaskArchive";
+    private static final String DATABASE_NAME = "archive-test.db";
+    private static final int STALE_ROWS = 200_000;
+    private static final int TODAY_ROWS = 100;
+    private static final long TODAY = 21915; // 2030-01-01 as an epoch day
+    // Longest an add may wait behind the sweep: a few chunk budgets, with room for a slow device
+    private static final long MAX_WRITE_LATENCY_MS = 250;
+
+    private Context context;
+    private TaskDatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+        helper = new TaskDatabaseHelper(context, DATABASE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void archive200kStaleRows_withoutBlockingWrites() throws Exception {
+        seed();
+        TaskRepository repository = new TaskRepository(new SqliteTaskStore(helper), Runnable::run);
+
+        Future<Integer> sweep = repository.archivePastTasks(TODAY, null);
+        // Keep adding tasks while the sweep runs, as a user would, and time each one
+        List<Long> latencies = new ArrayList<>();
+        int added = 0;
+        while (!sweep.isDone()) {
+            long start = SystemClock.elapsedRealtime();
+            repository.addTask("added " + added, TODAY, null).get(5, TimeUnit.SECONDS);
+            latencies.add(SystemClock.elapsedRealtime() - start);
+            added++;
+            SystemClock.sleep(5);
+        }
+        assertEquals(STALE_ROWS, sweep.get().intValue());
+
+        long worst = 0;
+        for (long latency : latencies) worst = Math.max(worst, latency);
+        Log.i(TAG, added + " adds during the sweep, worst latency " + worst + " ms");
+        assertTrue("an add waited " + worst + " ms behind the sweep", worst <= MAX_WRITE_LATENCY_MS);
+
+        SQLiteDatabase db = helper.getReadableDatabase();
+        assertEquals(STALE_ROWS, DatabaseUtils.queryNumEntries(db, "archived_tasks"));
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, "tasks", "day < " + TODAY));
+        assertEquals(TODAY_ROWS + added, DatabaseUtils.queryNumEntries(db, "tasks", "day = " + TODAY));
+
+        // The archive stays queryable, latest first
+        List<Task> latest = repository.loadArchivedTasks(Long.MAX_VALUE, Long.MAX_VALUE, 10, null).get(5, TimeUnit.SECONDS);
+        assertEquals(10, latest.size());
+        assertEquals(TODAY - 1, latest.get(0).getDay());
+        repository.shutdown();
+    }
+
+    // Fills the tasks table with STALE_ROWS tasks spread over the previous two years, plus today's tasks
+    private void seed() {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement("INSERT INTO tasks(task, day) VALUES(?, ?)");
+        db.beginTransaction();
+        for (int i = 0; i < STALE_ROWS; i++) {
+            insert.bindString(1, "stale " + i);
+            insert.bindLong(2, TODAY - 1 - i % 730);
+            insert.executeInsert();
+        }
+        for (int i = 0; i < TODAY_ROWS; i++) {
+            insert.bindString(1, "today " + i);
+            insert.bindLong(2, TODAY);
+            insert.executeInsert();
+        }
+        db.setTransactionSuccessful();
+        db.endTransaction();
+        insert.close();
+    }
+}
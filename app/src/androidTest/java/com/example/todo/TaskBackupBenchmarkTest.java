@@ -0,0 +1,146 @@
+package com.example.todo;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Exports a 1M-task database to a backup file with {@link TaskBackup} and imports it into an empty
+ * one, measuring the throughput of both directions and the peak Java heap growth while they run, which
+ * must stay far below the size of the data. Importing the file a second time must add nothing.
+ * Timings are written to logcat (tag TaskBackupBenchmark).
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskBackupBenchmarkTest {
+    private static final String TAG = "TaskBackupBenchmark";
+    private static final String SOURCE_DATABASE = "backup-source.db";
+    private static final String TARGET_DATABASE = "backup-target.db";
+    private static final int DAYS = 1_000;
+    private static final int TASKS_PER_DAY = 1_000;
+    private static final long FIRST_DAY = 20089; // 2025-01-01
+    // Holding the tasks as objects would take well over 100 MiB; streaming only keeps a buffer and a batch
+    // alive, and the bound leaves room for the garbage the collector has not reclaimed yet
+    private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    private Context context;
+    private File file;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(SOURCE_DATABASE);
+        context.deleteDatabase(TARGET_DATABASE);
+        file = new File(context.getCacheDir(), "backup-benchmark.jsonl");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(SOURCE_DATABASE);
+        context.deleteDatabase(TARGET_DATABASE);
+        file.delete();
+    }
+
+    @Test
+    public void exportAndImport_millionTasks() throws IOException {
+        int total = DAYS * TASKS_PER_DAY;
+        SqliteTaskStore source = new SqliteTaskStore(new TaskDatabaseHelper(context, SOURCE_DATABASE));
+        for (int d = 0; d < DAYS; d++) {
+            List<String> tasks = new ArrayList<>(TASKS_PER_DAY);
+            for (int i = 0; i < TASKS_PER_DAY; i++) tasks.add("task " + d + "-" + i);
+            source.addTasks(tasks, FIRST_DAY + d);
+        }
+
+        HeapWatcher exportHeap = new HeapWatcher();
+        long start = SystemClock.elapsedRealtime();
+        long exported;
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            exported = TaskBackup.export(source, out);
+        }
+        long exportMs = SystemClock.elapsedRealtime() - start;
+        long exportGrowth = exportHeap.stop();
+        source.close();
+        assertEquals(total, exported);
+
+        SqliteTaskStore target = new SqliteTaskStore(new TaskDatabaseHelper(context, TARGET_DATABASE));
+        HeapWatcher importHeap = new HeapWatcher();
+        start = SystemClock.elapsedRealtime();
+        TaskBackup.Result result;
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            result = TaskBackup.importFrom(in, target);
+        }
+        long importMs = SystemClock.elapsedRealtime() - start;
+        long importGrowth = importHeap.stop();
+
+        Log.i(TAG, "export: " + total + " tasks, " + file.length() / 1024 + " KiB in " + exportMs + " ms ("
+                + total * 1000L / Math.max(1, exportMs) + " tasks/s), heap +" + exportGrowth / 1024 + " KiB");
+        Log.i(TAG, "import: " + total + " tasks in " + importMs + " ms ("
+                + total * 1000L / Math.max(1, importMs) + " tasks/s), heap +" + importGrowth / 1024 + " KiB");
+        assertEquals(total, result.getImported());
+        assertEquals(TASKS_PER_DAY, target.countTasks(FIRST_DAY + DAYS / 2));
+        assertEquals(TASKS_PER_DAY, target.loadStats(FIRST_DAY).getCreated());
+        assertTrue("export heap grew by " + exportGrowth + " bytes", exportGrowth < MAX_HEAP_GROWTH_BYTES);
+        assertTrue("import heap grew by " + importGrowth + " bytes", importGrowth < MAX_HEAP_GROWTH_BYTES);
+
+        // Restoring the same backup again is a no-op
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            result = TaskBackup.importFrom(in, target);
+        }
+        assertEquals(0, result.getImported());
+        assertEquals(total, result.getDuplicates());
+        target.close();
+    }
+
+    // Samples the used Java heap on a background thread and reports its peak above the starting point
+    private static class HeapWatcher {
+        private final Runtime runtime = Runtime.getRuntime();
+        private final long baseline;
+        private volatile long peak;
+        private volatile boolean running = true;
+        private final Thread thread;
+
+        HeapWatcher() {
+            runtime.gc();
+            baseline = used();
+            peak = baseline;
+            thread = new Thread(() -> {
+                while (running) {
+                    peak = Math.max(peak, used());
+                    SystemClock.sleep(5);
+                }
+            });
+            thread.start();
+        }
+
+        long stop() {
+            running = false;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return peak - baseline;
+        }
+
+        private long used() {
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.todo;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Before/after benchmark of adding a pasted checklist of N lines and then completing all of it.
+ * "Per row" reproduces what the screen did for each line and each tap: one transaction per task,
+ * followed by a reload of today's list and of the progress. "Batch" uses
+ * {@link SqliteTaskStore#addTasks} and {@link SqliteTaskStore#completeTasks}: one transaction per
+ * batch and a single refresh. Timings are written to logcat (tag TaskBatchBenchmark).
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskBatchBenchmarkTest {
+    private static final String TAG = "TaskBatchBenchmark";
+    private static final String DATABASE_NAME = "batch-benchmark.db";
+    private static final int N = 500;
+    private static final long DAY = 21915; // 2030-01-01 as an epoch day
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void perRow_vs_batch() {
+        long perRow = runPerRow();
+        context.deleteDatabase(DATABASE_NAME);
+        long batch = runBatch();
+
+        Log.i(TAG, "N=" + N + " adds+completes, per row: " + perRow + " ms");
+        Log.i(TAG, "N=" + N + " adds+completes, batch: " + batch + " ms");
+        assertTrue("expected batches to be at least 10x faster (" + batch + " ms vs " + perRow + " ms)",
+                batch * 10 <= perRow);
+    }
+
+    // One transaction per task, each followed by the list and progress reloads the screen used to do
+    private long runPerRow() {
+        SqliteTaskStore store = new SqliteTaskStore(new TaskDatabaseHelper(context, DATABASE_NAME));
+        long start = SystemClock.elapsedRealtime();
+        for (String task : checklist()) {
+            store.addTask(task, DAY);
+            store.loadTasks(DAY);
+            store.loadStats(DAY);
+        }
+        for (Task task : store.loadTasks(DAY)) {
+            store.completeTask(task.getId());
+            store.loadTasks(DAY);
+            store.loadStats(DAY);
+        }
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        assertEquals(N, store.loadStats(DAY).getCompleted());
+        store.close();
+        return elapsed;
+    }
+
+    // One transaction per batch and a single refresh after each
+    private long runBatch() {
+        SqliteTaskStore store = new SqliteTaskStore(new TaskDatabaseHelper(context, DATABASE_NAME));
+        long start = SystemClock.elapsedRealtime();
+        List<Long> ids = store.addTasks(checklist(), DAY);
+        store.loadTasks(DAY);
+        store.loadStats(DAY);
+        store.completeTasks(ids);
+        store.loadTasks(DAY);
+        store.loadStats(DAY);
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        DailyStats stats = store.loadStats(DAY);
+        assertEquals(N, stats.getCreated());
+        assertEquals(N, stats.getCompleted());
+        assertEquals(0, store.countTasks(DAY));
+        store.close();
+        return elapsed;
+    }
+
+    private static List<String> checklist() {
+        List<String> lines = new ArrayList<>(N);
+        for (int i = 0; i < N; i++) lines.add("item " + i);
+        return lines;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.todo;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Before/after microbenchmark of N inserts followed by N deletes.
+ * "Before" reproduces the old path: a connection opened and closed around every execSQL call
+ * without write-ahead logging. "After" goes through {@link SqliteTaskStore}, which keeps one
+ * WAL connection open and reuses compiled statements. Timings are written to logcat (tag TaskDbBenchmark).
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskDatabaseBenchmarkTest {
+    private static final String TAG = "TaskDbBenchmark";
+    private static final String DATABASE_NAME = "benchmark-tasks.db";
+    private static final int N = 1000;
+    private static final String DATE = "2030-01-01";
+    private static final long DAY = 21915; // 2030-01-01 as an epoch day
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void openPerStatement_vs_longLivedCompiledStatements() {
+        long before = runOpenPerStatement();
+        context.deleteDatabase(DATABASE_NAME);
+        long after = runLongLivedStore();
+
+        Log.i(TAG, "N=" + N + " inserts+deletes, open per statement: " + before + " ms");
+        Log.i(TAG, "N=" + N + " inserts+deletes, long-lived WAL connection + compiled statements: " + after + " ms");
+        assertTrue("expected the long-lived store to be faster (" + after + " ms vs " + before + " ms)", after < before);
+    }
+
+    // The pre-change path: getWritableDatabase()/execSQL/close() around every single statement
+    // on the original v1 table, which had no key and matched deletes on text and date
+    private long runOpenPerStatement() {
+        SQLiteOpenHelper helper = new SQLiteOpenHelper(context, DATABASE_NAME, null, 1) {
+            @Override
+            public void onCreate(SQLiteDatabase db) {
+                db.execSQL("CREATE TABLE IF NOT EXISTS tasks (task TEXT NOT NULL, taskDate DATE)");
+            }
+
+            @Override
+            public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            }
+        };
+        long start = SystemClock.elapsedRealtime();
+        for (int i = 0; i < N; i++) {
+            SQLiteDatabase db = helper.getWritableDatabase();
+            db.execSQL("INSERT INTO tasks(task,taskDate) VALUES(?,?)", new Object[]{"task " + i, DATE});
+            db.close();
+        }
+        for (int i = 0; i < N; i++) {
+            SQLiteDatabase db = helper.getWritableDatabase();
+            db.execSQL("DELETE FROM tasks WHERE task=(?) AND taskDate=(?)", new Object[]{"task " + i, DATE});
+            db.close();
+        }
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        SQLiteDatabase db = helper.getReadableDatabase();
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, "tasks"));
+        helper.close();
+        return elapsed;
+    }
+
+    // The current path through SqliteTaskStore (v2 schema, deletes by id)
+    private long runLongLivedStore() {
+        SqliteTaskStore store = new SqliteTaskStore(new TaskDatabaseHelper(context, DATABASE_NAME));
+        long[] ids = new long[N];
+        long start = SystemClock.elapsedRealtime();
+        for (int i = 0; i < N; i++) {
+            ids[i] = store.addTask("task " + i, DAY);
+        }
+        assertEquals(N, store.countTasks(DAY));
+        for (int i = 0; i < N; i++) {
+            store.completeTask(ids[i]);
+        }
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        assertEquals(0, store.countTasks(DAY));
+        store.close();
+        return elapsed;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.todo;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Upgrades a seeded 100k-row v1 database (text dates, no key) and checks that every row survives
+ * with its epoch day, in its original order, duplicates included, and is counted in daily_stats.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskDatabaseMigrationTest {
+    private static final String DATABASE_NAME = "migration-test.db";
+    private static final int ROWS = 100_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void upgradeFromV1_keepsEveryRow() {
+        seedV1Database();
+
+        TaskDatabaseHelper helper = new TaskDatabaseHelper(context, DATABASE_NAME);
+        SQLiteDatabase db = helper.getWritableDatabase();
+
+        assertEquals(TaskDatabaseHelper.DATABASE_VERSION, db.getVersion());
+        assertEquals(ROWS, DatabaseUtils.queryNumEntries(db, "tasks"));
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, "sqlite_master", "name='tasks_v1'"));
+        assertEquals(1, DatabaseUtils.queryNumEntries(db, "sqlite_master", "type='index' AND name='tasks_day_id'"));
+        assertEquals(2, DatabaseUtils.queryNumEntries(db, "sqlite_master",
+                "type='table' AND name IN ('recurrence_rules', 'recurrence_exceptions')"));
+        assertEquals(1, DatabaseUtils.queryNumEntries(db, "sqlite_master", "type='index' AND name='tasks_due_at'"));
+
+        // Rows come back in their v1 order with the converted day
+        Cursor cursor = db.rawQuery("SELECT task, day FROM tasks ORDER BY id", null);
+        int i = 0;
+        while (cursor.moveToNext()) {
+            assertEquals(taskText(i), cursor.getString(0));
+            assertEquals(dayOf(i).toEpochDay(), cursor.getLong(1));
+            i++;
+        }
+        cursor.close();
+        assertEquals(ROWS, i);
+
+        // Every migrated row is counted in the stats of its day
+        assertEquals(ROWS, DatabaseUtils.longForQuery(db, "SELECT SUM(created) FROM daily_stats", null));
+        // The two duplicates plus every 1500th row fall on the first day
+        assertEquals(2 + (ROWS - 1) / 1500, DatabaseUtils.longForQuery(db,
+                "SELECT created FROM daily_stats WHERE day = " + FIRST_DAY.toEpochDay(), null));
+
+        // Duplicates in v1 (same text, same date) become distinct rows that can be deleted one by one
+        assertEquals(2, DatabaseUtils.longForQuery(db,
+                "SELECT COUNT(*) FROM tasks WHERE task = 'duplicate' AND day = " + FIRST_DAY.toEpochDay(), null));
+        helper.close();
+    }
+
+    @Test
+    public void upgradeFromV1_resumesAnInterruptedMigration() {
+        seedV1Database();
+        // Simulate a process killed after the schema change and the first batch
+        SQLiteDatabase v1 = context.openOrCreateDatabase(DATABASE_NAME, Context.MODE_PRIVATE, null);
+        v1.beginTransaction();
+        // The schema change is exactly what the helper runs when upgrading from version 1
+        new TaskDatabaseHelper(context, DATABASE_NAME).onUpgrade(v1, 1, TaskDatabaseHelper.DATABASE_VERSION);
+        v1.execSQL("INSERT INTO tasks(task, day) SELECT task, CAST(julianday(taskDate) - 2440587.5 AS INTEGER) "
+                + "FROM tasks_v1 WHERE rowid <= " + TaskDatabaseHelper.MIGRATION_BATCH_SIZE + " ORDER BY rowid");
+        v1.execSQL("DELETE FROM tasks_v1 WHERE rowid <= " + TaskDatabaseHelper.MIGRATION_BATCH_SIZE);
+        v1.setVersion(TaskDatabaseHelper.DATABASE_VERSION);
+        v1.setTransactionSuccessful();
+        v1.endTransaction();
+        v1.close();
+
+        TaskDatabaseHelper helper = new TaskDatabaseHelper(context, DATABASE_NAME);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        assertEquals(ROWS, DatabaseUtils.queryNumEntries(db, "tasks"));
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, "sqlite_master", "name='tasks_v1'"));
+        assertEquals(taskText(ROWS - 1),
+                DatabaseUtils.stringForQuery(db, "SELECT task FROM tasks ORDER BY id DESC LIMIT 1", null));
+        assertEquals(ROWS, DatabaseUtils.longForQuery(db, "SELECT SUM(created) FROM daily_stats", null));
+        // Rows of both the first batch and the resumed ones are searchable
+        assertEquals(2, DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM tasks_fts WHERE tasks_fts MATCH 'duplicate'", null));
+        assertEquals(1, DatabaseUtils.longForQuery(db,
+                "SELECT COUNT(*) FROM tasks_fts WHERE tasks_fts MATCH '" + (ROWS - 1) + "'", null));
+        helper.close();
+    }
+
+    // Creates a version 1 database exactly as the original app did and fills it with ROWS tasks
+    private void seedV1Database() {
+        SQLiteDatabase db = context.openOrCreateDatabase(DATABASE_NAME, Context.MODE_PRIVATE, null);
+        db.execSQL("CREATE TABLE IF NOT EXISTS tasks (task TEXT NOT NULL, taskDate DATE)");
+        SQLiteStatement insert = db.compileStatement("INSERT INTO tasks(task,taskDate) VALUES(?,?)");
+        db.beginTransaction();
+        for (int i = 0; i < ROWS; i++) {
+            insert.bindString(1, taskText(i));
+            insert.bindString(2, dayOf(i).toString());
+            insert.executeInsert();
+        }
+        db.setTransactionSuccessful();
+        db.endTransaction();
+        insert.close();
+        db.setVersion(1);
+        db.close();
+    }
+
+    // Text of the i-th seeded task; the first two rows are identical on purpose
+    private static String taskText(int i) {
+        return i < 2 ? "duplicate" : "task " + i;
+    }
+
+    // Date of the i-th seeded task, spreading rows over a few years
+    private static LocalDate dayOf(int i) {
+        return i < 2 ? FIRST_DAY : FIRST_DAY.plusDays(i % 1500);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.todo;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Switching task lists on 500k tasks in 50 lists: today's tasks and the first future page of a list or
+ * a tag, read through the (list_id, day, id) index and the task_tags key, and the badge counts of every
+ * list, read from today's stats rows. Asserts a median under one frame (16 ms) for each and checks the
+ * counts against the lists' contents. Timings go to logcat (tag TaskListBenchmark).
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskListBenchmarkTest {
+    private static final String TAG = "TaskListBenchmark";
+    private static final String DATABASE_NAME = "list-benchmark.db";
+    private static final int LISTS = 50;
+    private static final int DAYS = 100;
+    // 100 tasks per list and day: 500k tasks
+    private static final int TASKS_PER_LIST_AND_DAY = 100;
+    private static final int TAGS = 10;
+    private static final long TODAY = 21915; // 2030-01-01 as an epoch day
+    private static final int PAGE = 50;
+    private static final int RUNS = 50;
+    private static final double FRAME_MS = 16;
+
+    private Context context;
+    private SqliteTaskStore store;
+    private final List<Long> listIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+        store = new SqliteTaskStore(new TaskDatabaseHelper(context, DATABASE_NAME));
+        seed();
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void switchingListsAndRefreshingCounts_underOneFrame() {
+        // Warm-up, so the first measurements do not include compiling the statements
+        for (long listId : listIds) switchTo(TaskFilter.list(listId));
+        store.loadLists(TODAY);
+
+        long[] switches = new long[RUNS];
+        long[] tagSwitches = new long[RUNS];
+        long[] counts = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            switchTo(TaskFilter.list(listIds.get(i % LISTS)));
+            switches[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            switchTo(TaskFilter.tag("tag" + i % TAGS));
+            tagSwitches[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            assertEquals(LISTS + 1, store.loadLists(TODAY).size());
+            counts[i] = System.nanoTime() - start;
+        }
+        assertUnderOneFrame("list switch (today + first future page)", switches);
+        assertUnderOneFrame("tag switch (today + first future page)", tagSwitches);
+        assertUnderOneFrame("badge counts of " + LISTS + " lists", counts);
+    }
+
+    @Test
+    public void badges_matchTheListsContents() {
+        long listId = listIds.get(7);
+        List<Task> today = store.loadTasks(TaskFilter.list(listId), TODAY);
+        assertEquals(TASKS_PER_LIST_AND_DAY, today.size());
+        List<Long> done = new ArrayList<>();
+        for (int i = 0; i < 30; i++) done.add(today.get(i).getId());
+        store.completeTasks(done);
+        store.cancelTask(today.get(30).getId());
+
+        TaskList badge = null;
+        for (TaskList list : store.loadLists(TODAY)) {
+            if (list.getId() == listId) badge = list;
+        }
+        assertNotNull(badge);
+        assertEquals(store.loadTasks(TaskFilter.list(listId), TODAY).size(), badge.getOpen());
+        assertEquals(30, badge.getDone());
+        // The day's counters over every list are unchanged by the split into lists
+        assertEquals(30, store.loadStats(TODAY).getCompleted());
+        assertEquals(LISTS * TASKS_PER_LIST_AND_DAY, store.loadStats(TODAY).getCreated());
+    }
+
+    @Test
+    public void filteredPages_onlyHoldTheirListOrTag() {
+        long listId = listIds.get(3);
+        for (Task task : store.loadTasksAfter(TaskFilter.list(listId), TODAY, Long.MAX_VALUE, PAGE)) {
+            assertTrue(task.getDay() > TODAY);
+            assertTrue(task.getText().startsWith("list 3 "));
+        }
+        List<Task> tagged = store.loadTasks(TaskFilter.tag("#Tag4"), TODAY);
+        assertEquals(LISTS * TASKS_PER_LIST_AND_DAY / TAGS, tagged.size());
+        for (Task task : tagged) assertTrue(task.getText().endsWith("#tag4"));
+    }
+
+    // What the screen reads when the user picks a list or tag: today's tasks and the first future page
+    private void switchTo(TaskFilter filter) {
+        store.loadTasks(filter, TODAY);
+        store.loadTasksAfter(filter, TODAY, Long.MAX_VALUE, PAGE);
+    }
+
+    private static void assertUnderOneFrame(String name, long[] timings) {
+        Arrays.sort(timings);
+        double median = timings[timings.length / 2] / 1e6;
+        double p95 = timings[timings.length * 95 / 100] / 1e6;
+        Log.i(TAG, name + ": median " + median + " ms, p95 " + p95 + " ms");
+        assertTrue(name + " median " + median + " ms", median < FRAME_MS);
+    }
+
+    // LISTS lists, each with TASKS_PER_LIST_AND_DAY tasks on every day of DAYS days centred on today;
+    // every task carries one of TAGS tags
+    private void seed() {
+        for (int l = 0; l < LISTS; l++) listIds.add(store.addList("list " + l));
+        long firstDay = TODAY - DAYS / 2;
+        for (int d = 0; d < DAYS; d++) {
+            for (int l = 0; l < LISTS; l++) {
+                List<String> tasks = new ArrayList<>(TASKS_PER_LIST_AND_DAY);
+                for (int i = 0; i < TASKS_PER_LIST_AND_DAY; i++) {
+                    tasks.add("list " + l + " task " + d + "-" + i + " #tag" + i % TAGS);
+                }
+                store.addTasks(tasks, firstDay + d, listIds.get(l), Reminder.NO_DUE);
+            }
+        }
+    }
+}
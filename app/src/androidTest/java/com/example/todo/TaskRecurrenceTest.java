@@ -0,0 +1,106 @@
+package com.example.todo;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recurring tasks on SQLite: a rule is one row whatever its length, completing or skipping an
+ * occurrence writes one exception row and updates the stats, and the first page of a 10-year daily
+ * rule is read as fast as a page of stored tasks. Timings go to logcat (tag TaskRecurrence).
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskRecurrenceTest {
+    private static final String TAG = "TaskRecurrence";
+    private static final String DATABASE_NAME = "recurrence-test.db";
+    private static final long TODAY = 21915; // 2030-01-01 as an epoch day
+    private static final int PAGE = 50;
+    private static final int RUNS = 50;
+
+    private Context context;
+    private TaskDatabaseHelper helper;
+    private SqliteTaskStore store;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+        helper = new TaskDatabaseHelper(context, DATABASE_NAME);
+        store = new SqliteTaskStore(helper);
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void occurrences_areExpandedNotStored() {
+        long rule = store.addRecurrences(List.of(new RecurrenceRule(0, "water plants", TODAY, RecurrenceRule.NO_END,
+                RecurrenceRule.Frequency.DAILY, 1, 0))).get(0);
+        long stored = store.addTask("call mom", TODAY);
+
+        List<Task> today = store.loadTasks(TODAY);
+        assertEquals(RecurrenceRule.occurrenceId(rule, TODAY), today.get(0).getId());
+        assertEquals(stored, today.get(1).getId());
+        assertEquals(2, store.countTasks(TODAY));
+
+        // Completing today's occurrence and skipping tomorrow's only writes exceptions
+        store.completeTask(today.get(0).getId());
+        store.cancelTask(RecurrenceRule.occurrenceId(rule, TODAY + 1));
+        assertEquals(1, store.loadTasks(TODAY).size());
+        assertEquals(0, store.countTasks(TODAY + 1));
+        assertEquals(RecurrenceRule.occurrenceId(rule, TODAY + 2), store.loadTasksAfter(TODAY, Long.MAX_VALUE, 1).get(0).getId());
+        assertEquals(1, DatabaseUtils.queryNumEntries(helper.getReadableDatabase(), "recurrence_rules"));
+        assertEquals(2, DatabaseUtils.queryNumEntries(helper.getReadableDatabase(), "recurrence_exceptions"));
+
+        // The occurrence counts as created and completed for today
+        DailyStats stats = store.loadStats(TODAY);
+        assertEquals(2, stats.getCreated());
+        assertEquals(1, stats.getCompleted());
+        assertEquals(50, stats.getCompletionPercent());
+
+        // Stopping the rule leaves today's list alone and empties the future
+        store.endRecurrence(rule, TODAY);
+        assertTrue(store.loadTasksAfter(TODAY, Long.MAX_VALUE, PAGE).isEmpty());
+    }
+
+    @Test
+    public void tenYearRule_pageCostsTheSameAsStoredTasks() {
+        store.addRecurrences(List.of(new RecurrenceRule(0, "stretch", TODAY - 5 * 365, TODAY + 5 * 365,
+                RecurrenceRule.Frequency.DAILY, 1, 0)));
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) texts.add("task " + i);
+        for (long day = TODAY + 1; day <= TODAY + 100; day++) store.addTasks(texts, day);
+
+        // Warm-up
+        store.loadTasksAfter(TODAY, Long.MAX_VALUE, PAGE);
+        long[] timings = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            List<Task> page = store.loadTasksAfter(TODAY + 30, Long.MAX_VALUE, PAGE);
+            timings[i] = System.nanoTime() - start;
+            assertEquals(PAGE, page.size());
+            assertEquals(RecurrenceRule.occurrenceId(1, TODAY + 31), page.get(0).getId());
+        }
+        Arrays.sort(timings);
+        double median = timings[RUNS / 2] / 1e6;
+        Log.i(TAG, "page of a 10-year daily rule: median " + median + " ms");
+        assertTrue("median " + median + " ms", median < 10);
+    }
+}
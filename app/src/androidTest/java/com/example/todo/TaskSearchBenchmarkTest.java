@@ -0,0 +1,144 @@
+package com.example.todo;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Search latency on 100k tasks: the first page of a prefix query through the FTS index, as typed by
+ * a user, against the LIKE '%x%' scan it replaces. Asserts a median under 10 ms for word-prefix
+ * queries and checks that cancellation stops a query. Timings go to logcat (tag TaskSearchBenchmark).
+ */
+@RunWith(AndroidJUnit4.class)
+public class TaskSearchBenchmarkTest {
+    private static final String TAG = "TaskSearchBenchmark";
+    private static final String DATABASE_NAME = "search-benchmark.db";
+    private static final int ROWS = 100_000;
+    private static final int PAGE = 50;
+    private static final int RUNS = 50;
+    private static final long TODAY = 21915; // 2030-01-01 as an epoch day
+    private static final String[] WORDS = {
+            "buy", "call", "email", "groceries", "milk", "bread", "dentist", "meeting", "report", "review",
+            "laundry", "garden", "invoice", "budget", "flight", "hotel", "birthday", "gift", "doctor", "gym",
+            "clean", "kitchen", "garage", "car", "insurance", "tax", "school", "homework", "project", "deadline"};
+
+    private Context context;
+    private TaskDatabaseHelper helper;
+    private SqliteTaskStore store;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+        helper = new TaskDatabaseHelper(context, DATABASE_NAME);
+        store = new SqliteTaskStore(helper);
+        seed();
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void prefixSearch_firstPageUnder10ms() {
+        // Queries as they are sent while typing: a word prefix, then a more specific second word
+        String[] typed = {"gro", "groceries", "groceries mil", "den", "dentist 12", "invoice 7"};
+        for (String text : typed) {
+            // Warm-up, so the first measurement does not include compiling the statement
+            store.searchTasks(TaskSearch.toMatchExpression(text), Long.MIN_VALUE, Long.MIN_VALUE, PAGE, new QueryCancellation());
+        }
+        for (String text : typed) {
+            String match = TaskSearch.toMatchExpression(text);
+            long[] timings = new long[RUNS];
+            int found = 0;
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                found = store.searchTasks(match, Long.MIN_VALUE, Long.MIN_VALUE, PAGE, new QueryCancellation()).size();
+                timings[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(timings);
+            double median = timings[RUNS / 2] / 1e6;
+            double p95 = timings[RUNS * 95 / 100] / 1e6;
+            Log.i(TAG, "\"" + text + "\" (" + match + "): " + found + " rows, median " + median + " ms, p95 " + p95 + " ms");
+            assertTrue("\"" + text + "\" found nothing", found > 0);
+            assertTrue("\"" + text + "\" median " + median + " ms", median < 10);
+        }
+        Log.i(TAG, "LIKE '%groceries%' scan: " + likeScanMillis("groceries") + " ms");
+    }
+
+    @Test
+    public void pages_areOrderedByDateWithoutGaps() {
+        String match = TaskSearch.toMatchExpression("groceries");
+        List<Task> all = new ArrayList<>();
+        long day = Long.MIN_VALUE;
+        long id = Long.MIN_VALUE;
+        while (true) {
+            List<Task> page = store.searchTasks(match, day, id, PAGE, new QueryCancellation());
+            all.addAll(page);
+            if (page.size() < PAGE) break;
+            day = page.get(page.size() - 1).getDay();
+            id = page.get(page.size() - 1).getId();
+        }
+        for (int i = 1; i < all.size(); i++) {
+            Task previous = all.get(i - 1);
+            Task task = all.get(i);
+            assertTrue(previous.getDay() < task.getDay() || (previous.getDay() == task.getDay() && previous.getId() < task.getId()));
+            assertTrue(task.getText().contains("groceries"));
+        }
+        assertEquals(likeCount("groceries"), all.size());
+    }
+
+    @Test
+    public void cancelledSearch_returnsNothing() {
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.cancel();
+
+        assertTrue(store.searchTasks("g*", Long.MIN_VALUE, Long.MIN_VALUE, PAGE, cancellation).isEmpty());
+    }
+
+    // ROWS tasks of three random words and a number, spread over the next year; the FTS index is filled by triggers
+    private void seed() {
+        Random random = new Random(42);
+        for (int batch = 0; batch < ROWS / 1000; batch++) {
+            List<String> tasks = new ArrayList<>(1000);
+            for (int i = 0; i < 1000; i++) {
+                tasks.add(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                        + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(100));
+            }
+            store.addTasks(tasks, TODAY + batch * 365L / (ROWS / 1000));
+        }
+    }
+
+    private long likeScanMillis(String word) {
+        long start = System.nanoTime();
+        likeCount(word);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private int likeCount(String word) {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM tasks WHERE task LIKE ?", new String[]{"%" + word + "%"});
+        cursor.moveToFirst();
+        int count = cursor.getInt(0);
+        cursor.close();
+        return count;
+    }
+}
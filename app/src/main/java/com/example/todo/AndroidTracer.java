@@ -0,0 +1,32 @@
+package com.example.todo;
+
+import android.os.Build;
+import android.os.Trace;
+
+// Emits StartupTimeline phases as android.os.Trace sections, visible in system traces and Perfetto.
+// Asynchronous sections need API 29; on older devices only their timing is recorded.
+class AndroidTracer implements StartupTimeline.Tracer {
+    @Override
+    public void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+
+    @Override
+    public void beginAsyncSection(String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(name, cookie);
+        }
+    }
+
+    @Override
+    public void endAsyncSection(String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(name, cookie);
+        }
+    }
+}
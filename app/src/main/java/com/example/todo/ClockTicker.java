@@ -0,0 +1,73 @@
+package com.example.todo;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Drives the date/time display: ticks once per wall-clock second, aligned to the second boundary,
+// and only reports the text when it actually changed. Each tick re-schedules the next one from the
+// current time, so the time spent formatting and drawing never accumulates as drift.
+// start()/stop() follow the screen's visibility (onStart/onStop); nothing runs while it is stopped.
+// The formatter and the text buffer are reused across ticks. Not thread-safe: used on the main thread.
+public class ClockTicker {
+    // Posts delayed work, normally a Handler on the main looper
+    public interface Scheduler {
+        void postDelayed(Runnable runnable, long delayMillis);
+
+        void cancel(Runnable runnable);
+    }
+
+    // Receives the formatted date/time whenever it changes
+    public interface Listener {
+        void onTimeTextChanged(String text);
+    }
+
+    private final Clock clock;
+    private final Scheduler scheduler;
+    private final DateTimeFormatter formatter;
+    private final Listener listener;
+    // Reused for every tick; only turned into a String when the text changed
+    private final StringBuilder buffer = new StringBuilder(32);
+    private final Runnable tick = this::tick;
+    // Last text reported to the listener
+    private String lastText;
+    private boolean running;
+
+    public ClockTicker(Clock clock, Scheduler scheduler, DateTimeFormatter formatter, Listener listener) {
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.formatter = formatter;
+        this.listener = listener;
+    }
+
+    // Shows the current time right away, then keeps ticking on each second boundary
+    public void start() {
+        if (running) return;
+        running = true;
+        tick();
+    }
+
+    // Cancels the pending tick; start() resumes from the current time
+    public void stop() {
+        running = false;
+        scheduler.cancel(tick);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void tick() {
+        if (!running) return;
+        Instant now = clock.instant();
+        buffer.setLength(0);
+        formatter.formatTo(LocalDateTime.ofInstant(now, clock.getZone()), buffer);
+        if (lastText == null || !lastText.contentEquals(buffer)) {
+            lastText = buffer.toString();
+            listener.onTimeTextChanged(lastText);
+        }
+        // Wake up exactly at the start of the next wall-clock second
+        scheduler.postDelayed(tick, 1000 - Math.floorMod(now.toEpochMilli(), 1000L));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.todo;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+// Keeps track of "today" (as an epoch day) for the screen and notices when the wall clock crosses midnight.
+// check() is cheap and is called on every clock tick and when the screen comes back to the foreground;
+// the listener runs once per change of day, including when the user moves the system date, or the time
+// zone if the clock follows it (SystemZoneClock; Clock.systemDefaultZone() keeps the zone it started in).
+// Not thread-safe: used on the main thread.
+public class DayRollover {
+    // Told when the current day changed since the previous check
+    public interface Listener {
+        void onDayChanged(long previousDay, long today);
+    }
+
+    private final Clock clock;
+    private final Listener listener;
+    // Day seen at the last check
+    private long today;
+
+    public DayRollover(Clock clock, Listener listener) {
+        this.clock = clock;
+        this.listener = listener;
+        this.today = LocalDate.now(clock).toEpochDay();
+    }
+
+    // The current day, as of the last check
+    public long getToday() {
+        return today;
+    }
+
+    // Re-reads the clock and notifies the listener if the day changed; returns whether it did
+    public boolean check() {
+        long now = LocalDate.now(clock).toEpochDay();
+        if (now == today) return false;
+        long previous = today;
+        today = now;
+        listener.onDayChanged(previous, now);
+        return true;
+    }
+}
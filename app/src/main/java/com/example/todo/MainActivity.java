@@ -1,237 +1,383 @@
 package com.example.todo;
+import android.Manifest;
 import android.app.DatePickerDialog;
-import android.graphics.Color;
+import android.app.TimePickerDialog;
+import android.content.pm.PackageManager;
 import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
-import android.os.SystemClock;
-import android.widget.ListView;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.text.format.DateFormat;
+import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.EditText;
 import android.widget.ProgressBar;
+import android.widget.Spinner;
 import android.widget.Switch;
 import android.widget.TextView;
 import androidx.activity.EdgeToEdge;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.view.ActionMode;
+import androidx.appcompat.widget.PopupMenu;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
-import android.content.Context;
-import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
-import android.widget.ArrayAdapter;
-import android.database.Cursor;
-import android.view.View;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.textfield.TextInputEditText;
 import android.widget.Toast;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Calendar;
-import java.util.GregorianCalendar;
-import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
-// Main Activity for the ToDo application, handles UI and database interactions
+// Main Activity for the ToDo application, handles UI and delegates database work to TaskRepository
 public class MainActivity extends AppCompatActivity {
-    // Database helper instance to manage SQLite operations
-    private TaskDatabaseHelper dbHelper;
+    // Repository running every database operation off the UI thread
+    private TaskRepository repository;
     // UI component for entering a new task description
     private TextInputEditText taskTextInput;
     // UI component to display the list of tasks
-    private ListView listView;
+    private RecyclerView taskList;
     // UI component to switch between today's tasks and future tasks
     private Switch switchTaskButton;
     //Progress bar to visualize the completion rate of today's tasks.
     private ProgressBar progressBar;
     //TextView to display the percentage of completed tasks for the day.
     private TextView displayPercentage;
-    // Static list to hold task strings for display
-    private static ArrayList<String> tasks;
-    // Static adapter to link the task list to the ListView
-    private static ArrayAdapter<String> adapter;
-    // Thread dedicated to continuously updating the date and time display
-    private static Thread datetimeThread;
-    // Stores the date selected for a new task (defaults to current date)
-    private static String taskdate;
-    // Flag to indicate which task list is currently displayed (true for today's tasks)
-    private static boolean onTodaysTasks;
-    //Counter for the total number of tasks scheduled for today at the start of the activity.
-    private static int todaysTasksCounter = 0;
-
-    // Method to continuously update the date/time on a TextView every second,
-    // and provide a task reminder every hour (3600 seconds).
-    private void showDateTime(TextView datetimeTextView) {
-        // Counter to track the number of seconds elapsed since the last hour marker (or start)
-        int seconds = 0;
-        // Infinite loop to keep the time updated
-        while (true) {
-            // Check if 3600 seconds (1 hour) have passed AND if there is at least one task in the list
-            if (seconds % 3600 == 0 && tasks.size() > 0){
-                // Reset the counter after the hour check
-                seconds = 0;
-                // Runnable to safely display the Toast notification on the main (UI) thread
-                runOnUiThread(() -> {
-                // Show a Toast reminding the user of the very first task in the currently loaded list (tasks.get(0))
-                    Toast.makeText(this, "remember you task is: \""+tasks.get(0)+"\"", Toast.LENGTH_SHORT).show();
-                });
-            }
-            // Increment the seconds counter for the next check
-            seconds++;
-
-            // Runnable to safely update the UI component from a background thread
-            runOnUiThread(() -> datetimeTextView.setText(
-            // Format the current date and time
-                    new SimpleDateFormat("MMM dd, yyyy hh:mm:ss a").format(new GregorianCalendar().getTime())
-            ));
-            // Pause the thread for 1 second (1000 milliseconds) before the next iteration
-            SystemClock.sleep(1000);
+    // Displayed list, view mode, new-task options and completion; kept across configuration changes
+    private TaskListViewModel model;
+    // Adapter binding the task list to the RecyclerView; applies each new list as a diff
+    private TaskAdapter adapter;
+    // Search-as-you-type over all tasks; while a query is active the list shows its results
+    private TaskSearch taskSearch;
+    // UI component for the search text
+    private TextInputEditText searchInput;
+    // UI component choosing the task list or tag shown, with each list's badge counts
+    private Spinner listSpinner;
+    // Labels of the spinner's entries, and the filter of each entry (null for the "New list" entry)
+    private ArrayAdapter<String> listAdapter;
+    private final List<TaskFilter> listFilters = new ArrayList<>();
+    // Pause in typing before a search runs, and results per page
+    private static final long SEARCH_DEBOUNCE_MS = 200;
+    private static final int SEARCH_PAGE_SIZE = 50;
+    // Delayed work on the main looper, shared by the clock and the search debounce
+    private ClockTicker.Scheduler mainScheduler;
+    // Contextual bar shown while rows are selected (null when not selecting)
+    private ActionMode selectionMode;
+    // Wall clock shared by the date/time display and the day tracking; follows time zone changes
+    private final Clock clock = new SystemZoneClock();
+    // Timeline of the cold start, shared with the application
+    private StartupTimeline startupTimeline;
+    // Preferences file and key holding the snapshot shown in the first frame of the next cold start
+    private static final String STARTUP_PREFS = "startup";
+    private static final String SNAPSHOT_KEY = "snapshot";
+    // Ticker updating the date and time display on each second while the activity is visible
+    private ClockTicker clockTicker;
+    // Tracks the current day and refreshes the screen when midnight passes
+    private DayRollover dayRollover;
+    // Format of the date and time display
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm:ss a");
+    // Document pickers for the backup file: where to export, and which file to import
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/x-ndjson"), this::exportTasks);
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::importTasks);
+    // Request code of the notification permission, asked for when the user first sets a reminder
+    private static final int REQUEST_NOTIFICATIONS = 1;
+
+    // Returns today's date as the epoch day stored in the database
+    private long today() {
+        return dayRollover.getToday();
+    }
+
+    // Called on the first tick after midnight (or after a change of the system date):
+    // new tasks default to the new day, and the list and progress are reloaded for it
+    private void onDayChanged(long previousDay, long today) {
+        if (model.getTaskDate() == previousDay) model.setTaskDate(today);
+        // Archive tasks whose date has now passed
+        repository.archivePastTasks(today, null);
+        if (model.isTodaysTasks()) {
+            loadTasks(null);
+        } else {
+            loadFutureTasks(); // The future list starts after the new day
         }
+        completionRate();
     }
 
-    // Method to add a new task (with its date) to the SQLite database
+    // Method to add the new task(s) (with their date) to the SQLite database
     private void addTask() {
-        String currentdate = new SimpleDateFormat("yyyy-MM-dd").format(new GregorianCalendar().getTime());
-        // 1. Retrieve the text input and convert it to a String
-        String task = taskTextInput.getText().toString();
-        // 2. Input Validation: Check if the task string is not empty
-        if (task.length() > 0){
-        // Get a writable database instance
-            SQLiteDatabase db = dbHelper.getWritableDatabase();
-            // Insert the task and its date into the 'tasks' table.
-            // Using '?' as placeholders prevents SQL injection.
-            db.execSQL("INSERT INTO tasks(task,taskDate) VALUES(?,?)", new Object[]{task,taskdate});
-            if (taskdate.equals(currentdate)) todaysTasksCounter++;
-            // Reset the task date back to the current date for the next new task default
-            taskdate = new SimpleDateFormat("yyyy-MM-dd").format(new GregorianCalendar().getTime());
-            taskTextInput.setText(""); // Clear the input field after successful addition
-            db.close(); // Close the database connection
-            // Reload the appropriate list of tasks based on the current view setting
-            if (onTodaysTasks){
-                loadTasks(); // Load today's tasks
-            }
-            else {
-                loadFutureTasks(); // Load future tasks
+        long currentdate = today();
+        long taskdate = model.getTaskDate();
+        // New tasks go to the list being shown; repeating tasks always belong to the default list
+        TaskFilter filter = model.getFilter();
+        long listId = filter.isList() ? filter.getListId() : TaskList.DEFAULT_ID;
+        RecurrenceRule.Frequency repeat = model.getRepeat();
+        // 1. Retrieve the text input and split it into tasks, one per non-blank line
+        List<String> newTasks = TaskLines.split(taskTextInput.getText().toString());
+        // 2. Input Validation: Check that there is at least one task
+        if (repeat != null && !newTasks.isEmpty()) {
+            // Repeating tasks are stored once each as a rule; their occurrences are computed when displayed
+            List<RecurrenceRule> rules = new ArrayList<>(newTasks.size());
+            for (String text : newTasks) {
+                rules.add(new RecurrenceRule(0, text, taskdate, RecurrenceRule.NO_END, repeat, 1,
+                        repeat == RecurrenceRule.Frequency.WEEKLY ? model.getRepeatWeekdays() : 0));
             }
+            repository.addRecurrences(rules, whileAlive(ids -> reloadTasks()));
+            model.setRepeat(null);
+        } else if (newTasks.size() == 1){
+            // Insert the task and count it in its day's stats on the writer thread, then reload the displayed list
+            repository.addTask(newTasks.get(0), taskdate, dueAt(), listId, whileAlive(result -> {
+                reloadTasks();
+                refreshTags();
+            }));
+        } else if (newTasks.size() > 1) {
+            // Bulk add of a pasted list: one transaction for all lines, then a single reload
+            repository.addTasks(newTasks, taskdate, dueAt(), listId, whileAlive(ids -> {
+                Toast.makeText(this, ids.size() + " tasks added", Toast.LENGTH_SHORT).show();
+                reloadTasks();
+                refreshTags();
+            }));
+        }
+        if (!newTasks.isEmpty()) {
+            // Reset the task date back to the current date for the next new task default, without a reminder
+            model.setTaskDate(currentdate);
+            model.setTaskDueTime(null);
+            taskTextInput.setText(""); // Clear the input field after successful addition
         }
     // If the task input is empty, nothing happens (task is not added).
     }
 
-    // Method to remove a specific task associated with the CURRENT date from the database
-    private void removeTask(String task) {
-        SQLiteDatabase db = dbHelper.getWritableDatabase();
-        // Get today's date for the WHERE clause
-        String currentdate = new SimpleDateFormat("yyyy-MM-dd").format(new GregorianCalendar().getTime());
-        // Execute DELETE query based on the task name and today's date
-        db.execSQL("DELETE FROM tasks WHERE task=(?) AND taskDate=(?)", new Object[]{task,currentdate});
-        db.close();
-    }
-
-    // Method to remove a future task from the database.
-    // The input string (taskAndDate) contains both the task name and its date, separated by ":\n".
-    private void removeFutureTask(String taskAndDate) {
-        // 1. Extract the Task Name: Get the substring from the start (index 0) up to the first colon (":").
-        String task = taskAndDate.substring(0,taskAndDate.indexOf(":"));
-        // 2. Extract the Task Date: Get the substring starting 2 characters after the colon (":")
-        // to account for the newline character ("\n") and include the date till the end of the string.
-        String date = taskAndDate.substring(taskAndDate.indexOf(":")+2,taskAndDate.length());
-        // 3. Get a writable instance of the SQLite database
-        SQLiteDatabase db = dbHelper.getWritableDatabase();
-        // 4. Execute the SQL DELETE query
-        // The task is deleted where both the parsed task name and the parsed date match the records.
-        db.execSQL("DELETE FROM tasks WHERE task=? And taskDate=(?)", new Object[]{task,date});
-        // 5. Close the database connection
-        db.close();
-    }
-
-    // Method to delete all tasks from the database whose scheduled date is in the past (before today)
-    private void removePastTask() {
-        // 1. Get a writable instance of the SQLite database
-        SQLiteDatabase db = dbHelper.getWritableDatabase();
-        // 2. Determine the current date in "dd-MM-yyyy" format
-        // This date serves as the cutoff point for defining "past" tasks.
-        String currentdate = new SimpleDateFormat("yyyy-MM-dd").format(new GregorianCalendar().getTime());
-        // 3. Execute the SQL DELETE command
-        // This query deletes all rows from the 'tasks' table where the 'taskDate' is strictly less than the 'currentdate'.
-        db.execSQL("DELETE FROM tasks WHERE taskDate<(?)", new Object[]{currentdate});
-        // 4. Close the database connection to release resources
-        db.close();
+    // Instant of the new task's reminder on its selected day, or Reminder.NO_DUE
+    private long dueAt() {
+        LocalTime taskDueTime = model.getTaskDueTime();
+        if (taskDueTime == null) return Reminder.NO_DUE;
+        return LocalDateTime.of(LocalDate.ofEpochDay(model.getTaskDate()), taskDueTime).atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    // Wraps a repository callback so it is dropped once this activity has been destroyed
+    private <T> TaskRepository.Callback<T> whileAlive(TaskRepository.Callback<T> callback) {
+        return result -> {
+            if (!isDestroyed()) callback.onResult(result);
+        };
+    }
+
+    // Reload the appropriate list of tasks based on the current view setting, then refresh the progress
+    private void reloadTasks() {
+        if (taskSearch.isActive()) {
+            taskSearch.refresh(); // Re-run the search, which is what the list shows
+        }
+        else if (model.isTodaysTasks()){
+            loadTasks(null); // Load today's tasks
+        }
+        else {
+            model.getFuturePager().refresh(); // Reload the loaded window of future tasks
+        }
+        completionRate();
     }
 
     // Method to handle removal of a task based on the currently displayed list type
-    private void removeSelectedListRow(String taskToDelete){
-        if (onTodaysTasks){
-            // Task is from today's list
-            Toast.makeText(this, "Great job, you've completd!: " + taskToDelete, Toast.LENGTH_SHORT).show();
-            removeTask(taskToDelete); // Remove from DB using current date
-            loadTasks(); // Reload today's tasks to update ListView
-            if (tasks.size() > 0){
-                Toast.makeText(this, "your next task is: " + tasks.get(0), Toast.LENGTH_SHORT).show();
-            }else {
-                Toast.makeText(this, "Good job, all tasks are completed. ", Toast.LENGTH_SHORT).show();
+    private void removeSelectedListRow(Task taskToDelete){
+        if (taskSearch.isActive()) {
+            // Task is a search result: completed if it is due today, cancelled otherwise
+            if (taskToDelete.getDay() == today()) {
+                Toast.makeText(this, "Great job, you've completd!: " + taskToDelete.getText(), Toast.LENGTH_SHORT).show();
+                repository.completeTask(taskToDelete, whileAlive(result -> reloadTasks()));
+            } else {
+                Toast.makeText(this, "the task has been cancelled.", Toast.LENGTH_SHORT).show();
+                repository.cancelTask(taskToDelete, whileAlive(result -> reloadTasks()));
             }
         }
+        else if (model.isTodaysTasks()){
+            // Task is from today's list
+            Toast.makeText(this, "Great job, you've completd!: " + taskToDelete.getText(), Toast.LENGTH_SHORT).show();
+            // Remove from DB as completed, then reload today's tasks to update the list
+            repository.completeTask(taskToDelete, whileAlive(result -> {
+                loadTasks(() -> {
+                    List<Task> tasks = model.getTasks();
+                    if (tasks.size() > 0){
+                        Toast.makeText(this, "your next task is: " + tasks.get(0).getText(), Toast.LENGTH_SHORT).show();
+                    }else {
+                        Toast.makeText(this, "Good job, all tasks are completed. ", Toast.LENGTH_SHORT).show();
+                    }
+                });
+                completionRate();
+            }));
+        }
+        else if (RecurrenceRule.isOccurrenceId(taskToDelete.getId())) {
+            // A future occurrence of a repeating task: skip just this one, or stop the repetition
+            new AlertDialog.Builder(this)
+                    .setTitle(taskToDelete.getText())
+                    .setItems(new CharSequence[]{"Skip this one", "Stop repeating"}, (dialog, which) -> {
+                        if (which == 0) {
+                            repository.cancelTask(taskToDelete, whileAlive(result -> reloadTasks()));
+                        } else {
+                            long ruleId = RecurrenceRule.ruleIdOf(taskToDelete.getId());
+                            repository.endRecurrence(ruleId, taskToDelete.getDay() - 1, whileAlive(result -> reloadTasks()));
+                        }
+                    })
+                    .show();
+        }
         else {
-            // Task is from future list (contains task name and date)
+            // Task is from future list
             Toast.makeText(this, "the task has been cancelled.", Toast.LENGTH_SHORT).show();
-            removeFutureTask(taskToDelete); // Remove from DB using parsed date
-            loadFutureTasks(); // Reload future tasks to update ListView
+            // Remove from DB as cancelled, then reload future tasks to update the list
+            repository.cancelTask(taskToDelete, whileAlive(result -> {
+                model.getFuturePager().refresh();
+                completionRate();
+            }));
         }
     }
 
-    // Method to load all tasks scheduled for the current day from the database and update the ListView
-    private void loadTasks() {
-        onTodaysTasks = true; // Set flag to indicate today's tasks are loaded
-        tasks = new ArrayList<>(); // Clear and re-initialize the task list
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-        // Get today's date for the query filter
-        String currentdate = new SimpleDateFormat("yyyy-MM-dd").format(new GregorianCalendar().getTime());
-        // Query the database for tasks matching today's date
-        Cursor cursor = db.rawQuery("SELECT * FROM tasks WHERE taskDate = ?", new String[]{currentdate});
-        while (cursor.moveToNext()) {
-            // Get the "task" column value (index 0) and add it to the list
-            tasks.add(cursor.getString(0));
-            // Original commented-out logic: tasks.add(cursor.getString(0)+":\n"+cursor.getString(1));
+    // Shows, updates or closes the contextual bar as rows are selected and unselected
+    private void onSelectionChanged(int selectedCount) {
+        if (selectedCount == 0) {
+            if (selectionMode != null) selectionMode.finish();
+            return;
         }
-        cursor.close();
-        db.close();
-        // Set up the ArrayAdapter with the current task list and attach it to the ListView
-        adapter = new ArrayAdapter<String>(this, android.R.layout.simple_list_item_1, tasks) {
-            @Override
-            public android.view.View getView(int position, android.view.View convertView, android.view.ViewGroup parent) {
-                View view = super.getView(position, convertView, parent);
-                TextView textView = view.findViewById(android.R.id.text1);
-                textView.setTextColor(Color.parseColor("#269FFF"));
-                textView.setTextSize(18);
-                return view;
-            }
-        };
-        listView.setAdapter(adapter);
+        if (selectionMode == null) {
+            selectionMode = startSupportActionMode(new ActionMode.Callback() {
+                @Override
+                public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+                    mode.getMenuInflater().inflate(R.menu.task_selection, menu);
+                    return true;
+                }
+
+                @Override
+                public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+                    return false;
+                }
+
+                @Override
+                public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+                    if (item.getItemId() == R.id.completeSelected) {
+                        finishSelectedTasks(true);
+                        return true;
+                    } else if (item.getItemId() == R.id.deleteSelected) {
+                        finishSelectedTasks(false);
+                        return true;
+                    }
+                    return false;
+                }
+
+                @Override
+                public void onDestroyActionMode(ActionMode mode) {
+                    selectionMode = null;
+                    adapter.clearSelection();
+                }
+            });
+        }
+        selectionMode.setTitle(selectedCount + " selected");
     }
 
-    // Method to load all tasks scheduled for a future date (after today) from the database
-    private void loadFutureTasks(){
-        onTodaysTasks = false; // Set flag to indicate future tasks are loaded
-        tasks = new ArrayList<>(); // Clear and re-initialize the task list
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-        // Get today's date for the query filter
-        String currentdate = new SimpleDateFormat("yyyy-MM-dd").format(new GregorianCalendar().getTime());
-        // Query the database for tasks with a date greater than today
-        Cursor cursor = db.rawQuery("SELECT * FROM tasks WHERE taskDate > ?", new String[]{currentdate});
-        while (cursor.moveToNext()) {
-            // Add both the task name (index 0) and the date (index 1) to the list, separated
-            tasks.add(cursor.getString(0) + ":\n" + cursor.getString(1));
+    // Completes (or deletes, counted as cancelled) every selected task in one transaction,
+    // then refreshes the list and the progress once for the whole batch
+    private void finishSelectedTasks(boolean completed) {
+        List<Task> selected = adapter.getSelectedTasks();
+        String message = selected.size() + (completed ? " tasks completed" : " tasks deleted");
+        TaskRepository.Callback<Void> onDone = whileAlive(result -> {
+            Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+            reloadTasks();
+        });
+        if (completed) {
+            repository.completeTasks(selected, onDone);
+        } else {
+            repository.cancelTasks(selected, onDone);
         }
-        cursor.close();
-        db.close();
-        // Set up the ArrayAdapter with the future task list and attach it to the ListView
-        adapter = new ArrayAdapter<String>(this, android.R.layout.simple_list_item_1, tasks) {
-            @Override
-            public android.view.View getView(int position, android.view.View convertView, android.view.ViewGroup parent) {
-                View view = super.getView(position, convertView, parent);
-                TextView textView = view.findViewById(android.R.id.text1);
-                textView.setTextColor(Color.parseColor("#269FFF"));
-                textView.setTextSize(18);
-                return view;
+        selectionMode.finish();
+    }
+
+    // Method to load all tasks scheduled for the current day from the database and update the list.
+    // onLoaded (may be null) runs on the UI thread once the new list is displayed.
+    private void loadTasks(Runnable onLoaded) {
+        model.setTodaysTasks(true); // Set flag to indicate today's tasks are loaded
+        // Query the database for tasks matching today's date, in the chosen list or tag
+        TaskFilter filter = model.getFilter();
+        repository.loadTasks(filter, today(), whileAlive(loaded -> {
+            // Ignore the result if the user switched to the future list or another filter in the meantime
+            if (!model.isTodaysTasks() || !filter.equals(model.getFilter())) return;
+            showTasks(loaded, onLoaded);
+        }));
+    }
+
+    // Method to show the tasks scheduled for a future date (after today).
+    // They are paged in windows as the user scrolls instead of being loaded all at once;
+    // each window arrives in onFutureWindow().
+    private void loadFutureTasks(){
+        model.setTodaysTasks(false); // Set flag to indicate future tasks are loaded
+        model.startFuturePager(today());
+    }
+
+    // Shows a new window of the future list, loaded by the pager kept in the view model
+    private void onFutureWindow(List<Task> window) {
+        // Ignore the result if the user switched back to today's list in the meantime
+        if (model.isTodaysTasks()) return;
+        showTasks(window, null);
+    }
+
+    // Forwards the visible rows of the future list to the pager so it can prefetch the next page
+    private void onTaskListScrolled() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) taskList.getLayoutManager();
+        if (taskSearch.isActive()) {
+            // Fetch the next page of results when the end of the loaded ones comes into view
+            if (layoutManager.findLastVisibleItemPosition()
+                    >= adapter.getItemCount() - TaskListViewModel.FUTURE_PREFETCH_DISTANCE) {
+                taskSearch.loadMore();
             }
-        };
-        listView.setAdapter(adapter);
+            return;
+        }
+        TaskPager futurePager = model.getFuturePager();
+        if (model.isTodaysTasks() || futurePager == null) return;
+        futurePager.onVisibleRangeChanged(layoutManager.findFirstVisibleItemPosition(),
+                layoutManager.findLastVisibleItemPosition());
+    }
+
+    // Hand the loaded list to the adapter, which diffs it against the displayed one off the main thread
+    // and only notifies the rows that changed. onShown (may be null) runs once the new list is displayed.
+    private void showTasks(List<Task> loaded, Runnable onShown) {
+        showTasks(loaded, true, onShown);
+    }
+
+    // fromDatabase is false for the startup snapshot and for a redraw of the retained list
+    private void showTasks(List<Task> loaded, boolean fromDatabase, Runnable onShown) {
+        // Search results stay on screen until the search is cleared
+        if (taskSearch.isActive()) return;
+        adapter.setShowDates(!model.isTodaysTasks());
+        adapter.submitList(loaded, () -> {
+            model.setTasks(loaded, fromDatabase);
+            if (onShown != null) onShown.run();
+        });
+    }
+
+    // Shows the search results, with their dates, in place of the regular list
+    private void showSearchResults(List<Task> results) {
+        adapter.setShowDates(true);
+        adapter.submitList(results, () -> model.setTasks(results, false));
     }
 
     // Method to show a DatePickerDialog for the user to select a date for a new task
@@ -244,105 +390,390 @@ public class MainActivity extends AppCompatActivity {
         // Create and configure the DatePickerDialog
         DatePickerDialog datePickerDialog = new DatePickerDialog(
                 this, (view, selectedYear, selectedMonth, selectedDay) -> {
-            // Format the selected day to be two digits
-            String stringSelectedDay = (selectedDay>9)?""+selectedDay:"0"+selectedDay;
-            // Format the selected month (Calendar month is 0-indexed) to be two digits
-            String stringSelectedMonth = ((selectedMonth+1)>9)?""+(selectedMonth+1):"0"+(selectedMonth+1);
-            // Construct the date string in "dd-MM-yyyy" format
-            String date =  selectedYear + "-" + stringSelectedMonth + "-" + stringSelectedDay;
-            taskdate = date; // Update the static task date variable
+            // Convert the selection (Calendar month is 0-indexed) to the stored epoch day
+            model.setTaskDate(LocalDate.of(selectedYear, selectedMonth + 1, selectedDay).toEpochDay());
         }
                 , year, month, day // Initial date values
         );
         datePickerDialog.show(); // Display the dialog
     }
 
-    // Calculates and updates the UI to show the completion percentage of today's tasks.
-    // It compares the initial count of today's tasks with the current count.
-    private void completionRate(){
-        String currentdate = new SimpleDateFormat("yyyy-MM-dd").format(new GregorianCalendar().getTime());
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT COUNT(task) FROM tasks WHERE taskDate = ?", new String[]{currentdate});
-        int undoneTasksCounter = 0;
-        if (cursor != null) {
-            if (cursor.moveToFirst()) {
-                undoneTasksCounter = cursor.getInt(0);
+    // Method to show a TimePickerDialog for the time of the new task's reminder, on its selected day
+    private void openReminderPicker() {
+        LocalTime now = LocalTime.now(clock);
+        new TimePickerDialog(this, (view, hour, minute) -> {
+            model.setTaskDueTime(LocalTime.of(hour, minute));
+            requestNotificationPermission();
+        }, now.getHour(), now.getMinute(), DateFormat.is24HourFormat(this)).show();
+    }
+
+    // Reminders are notifications, which need the user's permission from Android 13 on
+    private void requestNotificationPermission() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && checkSelfPermission(Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            requestPermissions(new String[]{Manifest.permission.POST_NOTIFICATIONS}, REQUEST_NOTIFICATIONS);
+        }
+    }
+
+    // Shows the choice of repetition for the next task, starting on its selected day
+    private void openRepeatPicker() {
+        LocalDate start = LocalDate.ofEpochDay(model.getTaskDate());
+        CharSequence[] choices = {"Does not repeat", "Every day", "Every week...",
+                "Every month on day " + start.getDayOfMonth()};
+        new AlertDialog.Builder(this)
+                .setTitle("Repeat")
+                .setItems(choices, (dialog, which) -> {
+                    if (which == 0) {
+                        model.setRepeat(null);
+                    } else if (which == 1) {
+                        model.setRepeat(RecurrenceRule.Frequency.DAILY);
+                    } else if (which == 2) {
+                        openWeekdayPicker();
+                    } else {
+                        model.setRepeat(RecurrenceRule.Frequency.MONTHLY);
+                    }
+                })
+                .show();
+    }
+
+    // Lets the user pick the days of a weekly repetition; the selected day's weekday is preselected
+    private void openWeekdayPicker() {
+        CharSequence[] names = new CharSequence[7];
+        boolean[] checked = new boolean[7];
+        int startBit = RecurrenceRule.weekdayBit(model.getTaskDate());
+        for (int i = 0; i < 7; i++) {
+            names[i] = DayOfWeek.of(i + 1).getDisplayName(TextStyle.FULL, Locale.getDefault());
+            checked[i] = (startBit & (1 << i)) != 0;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Repeat every week on")
+                .setMultiChoiceItems(names, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+                .setPositiveButton("OK", (dialog, which) -> {
+                    int weekdays = 0;
+                    for (int i = 0; i < 7; i++) if (checked[i]) weekdays |= 1 << i;
+                    model.setRepeat(RecurrenceRule.Frequency.WEEKLY);
+                    model.setRepeatWeekdays(weekdays);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // Shows the backup actions under the backup button
+    private void openBackupMenu(View anchor) {
+        PopupMenu menu = new PopupMenu(this, anchor);
+        menu.inflate(R.menu.backup);
+        menu.setOnMenuItemClickListener(item -> {
+            if (item.getItemId() == R.id.exportTasks) {
+                exportLauncher.launch("tasks-" + LocalDate.now(clock) + ".jsonl");
+                return true;
+            } else if (item.getItemId() == R.id.importTasks) {
+                // Document providers rarely know the JSON Lines type, so any file can be picked
+                importLauncher.launch(new String[]{"*/*"});
+                return true;
             }
-            cursor.close();
+            return false;
+        });
+        menu.show();
+    }
+
+    // Streams every task into the document the user created; uri is null if the picker was cancelled
+    private void exportTasks(Uri uri) {
+        if (uri == null) return;
+        WritableByteChannel channel;
+        try {
+            ParcelFileDescriptor file = getContentResolver().openFileDescriptor(uri, "wt");
+            if (file == null) throw new IOException("cannot open " + uri);
+            channel = new ParcelFileDescriptor.AutoCloseOutputStream(file).getChannel();
+        } catch (IOException e) {
+            Toast.makeText(this, "Export failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            return;
         }
-        db.close();
+        // The repository closes the channel, which closes the file, once the export is done
+        repository.exportTasks(channel,
+                whileAlive(count -> Toast.makeText(this, count + " tasks exported", Toast.LENGTH_SHORT).show()),
+                whileAlive(error -> Toast.makeText(this, "Export failed: " + error.getMessage(), Toast.LENGTH_LONG).show()));
+    }
 
-        double completionPercentage = (double) undoneTasksCounter/todaysTasksCounter ;
-        completionPercentage*=100.00;
-        if ((100.0-completionPercentage) > 0){
-            displayPercentage.setText((int) (100.00-completionPercentage)+"% of my today's tasks is done");
+    // Imports the tasks of the document the user picked, leaving out those already stored
+    private void importTasks(Uri uri) {
+        if (uri == null) return;
+        ReadableByteChannel channel;
+        try {
+            ParcelFileDescriptor file = getContentResolver().openFileDescriptor(uri, "r");
+            if (file == null) throw new IOException("cannot open " + uri);
+            channel = new ParcelFileDescriptor.AutoCloseInputStream(file).getChannel();
+        } catch (IOException e) {
+            Toast.makeText(this, "Import failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            return;
         }
-        progressBar.setMax(100);
-        progressBar.setProgress((int) (100.00-completionPercentage));
+        repository.importTasks(channel,
+                whileAlive(result -> {
+                    Toast.makeText(this, result.getImported() + " tasks imported, "
+                            + result.getDuplicates() + " already there", Toast.LENGTH_SHORT).show();
+                    reloadTasks();
+                    refreshTags();
+                }),
+                whileAlive(error -> {
+                    Toast.makeText(this, "Import failed: " + error.getMessage(), Toast.LENGTH_LONG).show();
+                    reloadTasks(); // Batches before the error were imported
+                }));
     }
 
-    // Nested Helper class to manage the SQLite database creation and versioning
-    private static class TaskDatabaseHelper extends SQLiteOpenHelper {
-    // Constructor for the database helper
-        public TaskDatabaseHelper(Context context) {
-            super(context, "taskstodo.db", null, 1); // Database name and version
+    // Updates the UI to show the completion percentage of today's tasks, and the lists' badges.
+    // Both read today's rows of daily_stats, which every add/complete/cancel keeps up to date.
+    private void completionRate(){
+        repository.loadStats(today(), whileAlive(stats -> showCompletion(stats.getCompletionPercent())));
+        refreshLists();
+    }
+
+    // Reloads the task lists with today's open and done counts, in one query whatever the number of lists
+    private void refreshLists() {
+        repository.loadLists(today(), whileAlive(lists -> {
+            model.setLists(lists);
+            showFilters();
+        }));
+    }
+
+    // Reloads the tags offered as filters, after tasks (and so tags) were added
+    private void refreshTags() {
+        repository.loadTags(whileAlive(tags -> {
+            model.setTags(tags);
+            showFilters();
+        }));
+    }
+
+    // Fills the spinner from the view model: all tasks, each list with its badge, each tag, then "New list"
+    private void showFilters() {
+        List<String> labels = new ArrayList<>();
+        listFilters.clear();
+        labels.add("All lists");
+        listFilters.add(TaskFilter.ALL);
+        if (model.getLists() != null) {
+            for (TaskList list : model.getLists()) {
+                labels.add(list.getName() + "  " + list.getOpen() + " open · " + list.getDone() + " done");
+                listFilters.add(TaskFilter.list(list.getId()));
+            }
+        }
+        if (model.getTags() != null) {
+            for (String tag : model.getTags()) {
+                labels.add("#" + tag);
+                listFilters.add(TaskFilter.tag(tag));
+            }
         }
+        labels.add("New list...");
+        listFilters.add(null);
+        listAdapter.clear();
+        listAdapter.addAll(labels);
+        int selected = listFilters.indexOf(model.getFilter());
+        listSpinner.setSelection(Math.max(0, selected));
+    }
 
-        @Override
-        // Called when the database is created for the first time
-        public void onCreate(SQLiteDatabase db) {
-            // SQL command to create the 'tasks' table with 'task' (text) and 'taskDate' (date) columns
-            db.execSQL("CREATE TABLE IF NOT EXISTS tasks (task TEXT NOT NULL, taskDate DATE)");
+    // Shows the tasks of the chosen list or tag, in the current view (today or future)
+    private void onFilterSelected(int position) {
+        TaskFilter filter = listFilters.get(position);
+        if (filter == null) {
+            // "New list" is an action, not a filter: keep showing the current one
+            listSpinner.setSelection(Math.max(0, listFilters.indexOf(model.getFilter())));
+            openNewListDialog();
+            return;
         }
+        // The spinner restoring its selection (after a rotation or a refresh) changes nothing
+        if (filter.equals(model.getFilter())) return;
+        selectFilter(filter);
+    }
 
-        @Override
-        // Called when the database needs to be upgraded (version change)
-        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Drop the existing table and recreate it, losing old data
-            db.execSQL("DROP TABLE IF EXISTS tasks");
-            onCreate(db);
+    // Switches the displayed list to the filter and reloads it
+    private void selectFilter(TaskFilter filter) {
+        model.setFilter(filter);
+        // A selection only makes sense within the list it was made in
+        if (selectionMode != null) selectionMode.finish();
+        // Leave search mode so the chosen list is shown
+        searchInput.setText("");
+        if (model.isTodaysTasks()) {
+            loadTasks(null);
+        } else {
+            loadFutureTasks();
         }
     }
 
+    // Asks for the name of a new task list, creates it and shows it
+    private void openNewListDialog() {
+        EditText nameInput = new EditText(this);
+        nameInput.setHint("work, home, errands...");
+        nameInput.setSingleLine();
+        new AlertDialog.Builder(this)
+                .setTitle("New list")
+                .setView(nameInput)
+                .setPositiveButton("Create", (dialog, which) -> {
+                    String name = nameInput.getText().toString().trim();
+                    if (name.isEmpty()) return;
+                    repository.addList(name, whileAlive(id -> {
+                        selectFilter(TaskFilter.list(id));
+                        refreshLists();
+                    }));
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // Shows the completion percentage in the text and the progress bar
+    private void showCompletion(int completionPercentage) {
+        model.setCompletionPercent(completionPercentage);
+        if (completionPercentage > 0){
+            displayPercentage.setText(completionPercentage+"% of my today's tasks is done");
+        } else {
+            displayPercentage.setText("");
+        }
+        progressBar.setMax(100);
+        progressBar.setProgress(completionPercentage);
+    }
+
+    // Shows today's list and progress as they were when the user last left the screen, if that was today,
+    // so the first frame does not wait for the database
+    private void showStartupSnapshot() {
+        String encoded = getSharedPreferences(STARTUP_PREFS, MODE_PRIVATE).getString(SNAPSHOT_KEY, null);
+        StartupSnapshot snapshot = StartupSnapshot.decode(encoded);
+        if (snapshot == null || snapshot.getDay() != today()) return;
+        model.setTodaysTasks(true);
+        showTasks(snapshot.getTasks(), false, null);
+        showCompletion(snapshot.getCompletionPercent());
+    }
+
+    // Saves what today's list currently shows for the next cold start; not while the list shows search
+    // results, which the model holds in place of today's tasks
+    private void saveStartupSnapshot() {
+        if (taskSearch.isActive() || !model.isTodaysTasks() || !model.getFilter().isAll()) return;
+        StartupSnapshot snapshot = new StartupSnapshot(today(), model.getCompletionPercent(), model.getTasks());
+        // apply() writes the file in the background
+        getSharedPreferences(STARTUP_PREFS, MODE_PRIVATE).edit().putString(SNAPSHOT_KEY, snapshot.encode()).apply();
+    }
+
+    // Records the first frame drawn by this activity in the startup timeline
+    private void watchFirstFrame(View root) {
+        root.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            @Override
+            public void onDraw() {
+                startupTimeline.markFirstFrame();
+                // Listeners cannot be removed from within onDraw()
+                root.post(() -> root.getViewTreeObserver().removeOnDrawListener(this));
+            }
+        });
+    }
+
     @Override
     // Called when the activity is first created
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        // Enable edge-to-edge display
-        EdgeToEdge.enable(this);
-        // Set the activity content from the layout XML
-        setContentView(R.layout.activity_main);
-        // Handle window insets (like system bars) for proper view padding
-        ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
-            Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
-            v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
-            return insets;
+        // Startup runs in stages: the first frame is drawn from a snapshot, today's tasks are
+        // loaded off the main thread, and maintenance waits until after the first frame
+        startupTimeline = ((TodoApplication) getApplication()).getStartupTimeline();
+        startupTimeline.phase(StartupTimeline.PHASE_INFLATE, () -> {
+            // Enable edge-to-edge display
+            EdgeToEdge.enable(this);
+            // Set the activity content from the layout XML
+            setContentView(R.layout.activity_main);
+            // Handle window insets (like system bars) for proper view padding
+            ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
+                Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
+                v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
+                return insets;
+            });
         });
+        watchFirstFrame(findViewById(R.id.main));
 
         displayPercentage = findViewById(R.id.displayPercentage);
         progressBar = findViewById(R.id.progressBar);
 
-        // Initialize taskdate to the current date in the required format
-        taskdate = new SimpleDateFormat("yyyy-MM-dd").format(new GregorianCalendar().getTime());
+        // The screen's state outlives this activity across configuration changes such as a rotation
+        model = new ViewModelProvider(this).get(TaskListViewModel.class);
+        // Set when a previous instance already loaded the list: it is redrawn without any query
+        boolean restored = model.isLoaded();
+
+        // Start tracking the current day, then initialize the new task's date to it
+        dayRollover = new DayRollover(clock, this::onDayChanged);
+        if (!restored) model.setTaskDate(today());
+
+        // Bind the RecyclerView component from the layout
+        taskList = findViewById(R.id.taskList);
+        // Tapping a row passes its task for removal; a long press starts multi-selection
+        adapter = new TaskAdapter(this::removeSelectedListRow, this::onSelectionChanged);
+        taskList.setAdapter(adapter);
+        // Page the future list in as the user nears either end of the loaded window
+        taskList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                onTaskListScrolled();
+            }
+        });
+
+        // Use the process-wide repository, which keeps the database connection open across activities
+        repository = ((TodoApplication) getApplication()).getRepository();
+
+        // Delayed work (clock ticks, search debounce) is posted to the main looper
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainScheduler = new ClockTicker.Scheduler() {
+            @Override
+            public void postDelayed(Runnable runnable, long delayMillis) {
+                mainHandler.postDelayed(runnable, delayMillis);
+            }
+
+            @Override
+            public void cancel(Runnable runnable) {
+                mainHandler.removeCallbacks(runnable);
+            }
+        };
+
+        // Search runs on the reader pool once typing pauses; a newer query cancels the one in flight
+        taskSearch = new TaskSearch(SEARCH_DEBOUNCE_MS, SEARCH_PAGE_SIZE, mainScheduler,
+                (match, afterDay, afterId, limit, cancellation, callback) ->
+                        repository.searchTasks(match, afterDay, afterId, limit, cancellation, whileAlive(callback)),
+                new TaskSearch.Listener() {
+                    @Override
+                    public void onResults(List<Task> results) {
+                        showSearchResults(results);
+                    }
+
+                    @Override
+                    public void onSearchEnded() {
+                        reloadTasks(); // Back to today's or the future list
+                    }
+                });
+        searchInput = findViewById(R.id.searchInput);
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence text, int start, int count, int after) {
+            }
 
-        // Bind the ListView component from the layout
-        listView = findViewById(R.id.listView);
-        // Set an item click listener on the ListView to handle task removal
-        listView.setOnItemClickListener((parent, view, position, id) -> {
-            // Get the task string at the clicked position and pass it for removal
-            removeSelectedListRow(tasks.get(position));
-            completionRate();
+            @Override
+            public void onTextChanged(CharSequence text, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable text) {
+                taskSearch.setQuery(text.toString());
+            }
         });
 
-        // Initialize the database helper
-        dbHelper = new TaskDatabaseHelper(this);
+        // The list spinner shows every task list with today's badge counts, the tags, and "New list"
+        listSpinner = findViewById(R.id.listSpinner);
+        listAdapter = new ArrayAdapter<>(this, R.layout.item_list_filter);
+        listSpinner.setAdapter(listAdapter);
+        listSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                onFilterSelected(position);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
 
         // Bind the task input field
         taskTextInput = findViewById(R.id.taskTextInput);
         // Set click listener for the "Add Task" button
         findViewById(R.id.addBtn).setOnClickListener(v -> {
             addTask(); // Call method to add the task
-            completionRate();
         });
 
         // Set click listener for the "Pick Date" button
@@ -350,68 +781,123 @@ public class MainActivity extends AppCompatActivity {
             openDatePicker(); // Call method to open the date picker dialog
         });
 
+        // Set click listener for the "Reminder" button
+        findViewById(R.id.remindBtn).setOnClickListener(v -> openReminderPicker());
+
+        // Set click listener for the "Repeat" button
+        findViewById(R.id.repeatBtn).setOnClickListener(v -> openRepeatPicker());
+
+        // Set click listener for the "Backup" button
+        findViewById(R.id.backupBtn).setOnClickListener(this::openBackupMenu);
+
         // Bind the task switch button
         switchTaskButton = findViewById(R.id.switchTasksBtn);
         // Set a listener for when the switch state changes
         switchTaskButton.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            switchTaskButton.setText(isChecked ? "Show today's tasks" : "Show future's tasks");
+            // The switch restoring its state after a rotation: the retained list already shows this mode
+            if (isChecked != model.isTodaysTasks()) return;
+            // A selection only makes sense within the list it was made in
+            if (selectionMode != null) selectionMode.finish();
+            // Leave search mode so the chosen list is shown
+            searchInput.setText("");
             if (isChecked) {
                 // If checked (ON state), show future tasks
                 //findViewById(R.id.main).setBackgroundResource(R.drawable.background2);
                 Toast.makeText(this, "future's tasks", Toast.LENGTH_SHORT).show();
-                switchTaskButton.setText("Show today's tasks");
                 loadFutureTasks();
             } else {
                 // If unchecked (OFF state), show today's tasks
                 //findViewById(R.id.main).setBackgroundResource(R.drawable.background1);
                 Toast.makeText(this, "today's tasks", Toast.LENGTH_SHORT).show();
-                switchTaskButton.setText("Show future's tasks");
-                loadTasks();
+                loadTasks(null);
             }
         });
 
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT COUNT(task) FROM tasks WHERE taskDate = ?", new String[]{taskdate});
-        if (cursor != null) {
-            if (cursor.moveToFirst()) {
-                todaysTasksCounter = cursor.getInt(0);
+        // Windows of the future list are loaded by the view model's pager and shown by the current activity
+        model.setWindowListener(this::onFutureWindow);
+
+        if (restored) {
+            // Configuration change: redraw the retained list, filters and progress, without touching the database
+            showTasks(model.getTasks(), false, null);
+            showFilters();
+            if (model.getLists() == null) refreshLists();
+            if (model.hasCompletionPercent()) {
+                showCompletion(model.getCompletionPercent());
+            } else {
+                completionRate(); // The stats had not arrived before the previous instance went away
             }
-            cursor.close();
+        } else {
+            loadInitialState(savedInstanceState == null);
         }
-        db.close();
 
-        // Initial load of today's tasks when the activity starts (since switch is off by default)
-        loadTasks();
-        removePastTask();
+        // Create the date/time ticker; it runs on the main looper between onStart and onStop
+        TextView datetimeTextView = findViewById(R.id.datTimeTextView);
+        clockTicker = new ClockTicker(clock, mainScheduler, DATE_TIME_FORMAT,
+                text -> {
+                    // Every tick also notices midnight passing while the screen is open
+                    dayRollover.check();
+                    datetimeTextView.setText(text);
+                });
+    }
+
+    // First load of the screen: the snapshot (on a cold start), today's stats and tasks,
+    // then the maintenance once the main thread is idle
+    private void loadInitialState(boolean coldStart) {
+        // On a cold start, draw the first frame from the last session's snapshot
+        if (coldStart) {
+            startupTimeline.phase(StartupTimeline.PHASE_SNAPSHOT, this::showStartupSnapshot);
+        }
+        // Show the initial completion rate and lists' badges from today's stats, and the tags
         completionRate();
+        refreshTags();
+        // Initial load of today's tasks when the activity starts (since switch is off by default);
+        // it replaces the snapshot row by row once it is displayed
+        StartupTimeline.Phase hydrate = startupTimeline.beginPhase(StartupTimeline.PHASE_HYDRATE);
+        loadTasks(() -> {
+            hydrate.end();
+            startupTimeline.markFullList();
+            reportFullyDrawn();
+            Log.i("Startup", startupTimeline.summary());
+        });
+        // Archive tasks whose date has passed once the main thread is idle, i.e. after the first frame,
+        // so the sweep never competes with the initial load
+        long sweepDay = today();
+        Looper.myQueue().addIdleHandler(() -> {
+            if (!isDestroyed()) {
+                StartupTimeline.Phase maintenance = startupTimeline.beginPhase(StartupTimeline.PHASE_MAINTENANCE);
+                repository.archivePastTasks(sweepDay, archived -> maintenance.end());
+                // Notify reminders missed while the alarm was cleared (e.g. by a force stop) and re-arm it
+                repository.fireReminders(null);
+            }
+            return false; // Run once
+        });
+    }
 
-        // Start a new background thread to run the date/time updater
-        datetimeThread = new Thread(){@Override public void run(){
-            showDateTime(findViewById(R.id.datTimeTextView));
-        }};
-        datetimeThread.start(); // Start the background thread
+    @Override
+    // Called when the activity becomes visible: resume the date/time display
+    protected void onStart() {
+        super.onStart();
+        clockTicker.start();
+    }
+
+    @Override
+    // Called when the activity is no longer visible: stop ticking until it comes back
+    protected void onStop() {
+        super.onStop();
+        clockTicker.stop();
+        saveStartupSnapshot();
     }
 
     @Override
     // Called when the activity is finishing (e.g., user presses back or system destroys it).
-    // This method is essential for cleaning up resources, particularly background threads.
     protected void onDestroy(){
         super.onDestroy(); // Always call the superclass implementation first
-        // Check if the background thread (used for date/time updates) was created and is currently running
-        if (datetimeThread != null && datetimeThread.isAlive()){
-            // 1. Request the thread to stop execution gracefully
-            // This sets the thread's interrupted status flag. The 'showDateTime' loop should check this flag.
-            datetimeThread.interrupt();
-            try {
-                // 2. Wait for the thread to finish executing (join) for up to 1 second (1000 ms)
-                // This ensures the main thread pauses briefly to let the background thread shut down cleanly.
-                datetimeThread.join(1000);
-            }catch (InterruptedException e){
-                // 3. If the main thread itself is interrupted while waiting for the background thread to join,
-                // re-interrupt the main thread to preserve the interrupted status.
-                Thread.currentThread().interrupt();
-            }
+        // The view model outlives a rotation; it must not keep this activity reachable
+        model.setWindowListener(null);
+        // Once the user leaves the app (not on rotation), let pending writes finish and close the database
+        if (isFinishing()) {
+            ((TodoApplication) getApplication()).shutdownRepository();
         }
-        // 4. Set the reference to null after shutdown or if it was never started
-        datetimeThread = null;
     }
 }
\ No newline at end of file
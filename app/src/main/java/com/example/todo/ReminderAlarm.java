@@ -0,0 +1,40 @@
+package com.example.todo;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+// The single AlarmManager alarm of ReminderScheduler. Arming again replaces it, since the
+// PendingIntent is always the same. The alarm wakes the device even in Doze. It is exact when the
+// user allows exact alarms, and close to the due time otherwise.
+class ReminderAlarm implements ReminderScheduler.AlarmArmer {
+    private final Context context;
+    private final AlarmManager alarmManager;
+
+    ReminderAlarm(Context context) {
+        this.context = context.getApplicationContext();
+        this.alarmManager = context.getSystemService(AlarmManager.class);
+    }
+
+    @Override
+    public void arm(long atMillis) {
+        PendingIntent intent = pendingIntent();
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, atMillis, intent);
+        } else {
+            alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, atMillis, intent);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        alarmManager.cancel(pendingIntent());
+    }
+
+    private PendingIntent pendingIntent() {
+        Intent intent = new Intent(context, ReminderReceiver.class).setAction(ReminderReceiver.ACTION_REMINDER_DUE);
+        return PendingIntent.getBroadcast(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.todo;
+
+import android.Manifest;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+
+// Shows a notification for each due reminder; tapping it opens the task list.
+// The channel is created with the first notification, so app startup pays nothing for it.
+class ReminderNotifier implements ReminderScheduler.Notifier {
+    private static final String CHANNEL_ID = "reminders";
+
+    private final Context context;
+    private boolean channelCreated;
+
+    ReminderNotifier(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public void notify(Reminder reminder) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            return; // The user declined notifications
+        }
+        createChannel();
+        PendingIntent open = PendingIntent.getActivity(context, 0,
+                new Intent(context, MainActivity.class).setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP),
+                PendingIntent.FLAG_IMMUTABLE);
+        NotificationCompat.Builder notification = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_lock_idle_alarm)
+                .setContentTitle("remember your task")
+                .setContentText(reminder.getText())
+                .setWhen(reminder.getDueAt())
+                .setShowWhen(true)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setCategory(NotificationCompat.CATEGORY_REMINDER)
+                .setContentIntent(open)
+                .setAutoCancel(true);
+        // One notification per task: a task notified again replaces its previous one
+        NotificationManagerCompat.from(context).notify(Long.hashCode(reminder.getTaskId()), notification.build());
+    }
+
+    private void createChannel() {
+        if (channelCreated) return;
+        NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Task reminders", NotificationManager.IMPORTANCE_HIGH);
+        context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        channelCreated = true;
+    }
+}
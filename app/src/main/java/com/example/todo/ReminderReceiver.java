@@ -0,0 +1,27 @@
+package com.example.todo;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import java.util.concurrent.RejectedExecutionException;
+
+// Woken by the reminder alarm, and by the broadcasts after which the alarm must be armed again:
+// boot (alarms do not survive it), an app update, a change of the system time, and the exact
+// alarm permission being granted. Each one notifies what came due and arms the next reminder.
+// The work runs on the repository's writer thread; goAsync() keeps the process alive meanwhile, so
+// the broadcast is finished however the work ends, including when the repository no longer accepts it.
+public class ReminderReceiver extends BroadcastReceiver {
+    static final String ACTION_REMINDER_DUE = "com.example.todo.action.REMINDER_DUE";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        PendingResult result = goAsync();
+        TodoApplication application = (TodoApplication) context.getApplicationContext();
+        try {
+            application.getRepository().fireReminders(result::finish);
+        } catch (RejectedExecutionException e) {
+            result.finish();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.todo;
+
+import java.time.Clock;
+import java.util.List;
+
+// Fires task reminders at their due time with a single OS alarm and no polling.
+// The due times live in a persistent index ordered by (due time, task id), so nothing is held in
+// memory between reminders: only the next due time is looked up, and one alarm is armed for it.
+// When the alarm goes off, every reminder due since the last firing is notified, the watermark
+// moves up to now, and the alarm is re-armed for the next one. Any change to due times (a task added,
+// rescheduled, completed or deleted) calls reschedule(), which re-arms only if the next due time moved;
+// a due time set at or before the watermark would never be reached by the alarm, so onDueSet() notifies
+// it right away. If the wall clock is moved back behind the watermark, the watermark follows it.
+// Reminders missed while the device was off fire on the next onAlarm() (e.g. after boot).
+// Not thread-safe: the app runs it on the repository's writer thread.
+public class ReminderScheduler {
+    // Persistent index of due times, normally the tasks table
+    public interface DueIndex {
+        // Up to limit reminders strictly after the (dueAt, taskId) key, ordered by due time, then task id
+        List<Reminder> loadRemindersAfter(long afterMillis, long afterId, int limit);
+    }
+
+    // The one OS alarm
+    public interface AlarmArmer {
+        // Arms the alarm for the given instant, replacing any armed one; a past instant fires right away
+        void arm(long atMillis);
+
+        void cancel();
+    }
+
+    public interface Notifier {
+        void notify(Reminder reminder);
+    }
+
+    // Persists the watermark: reminders due at or before it have been notified
+    public interface Watermark {
+        // Long.MIN_VALUE if never saved
+        long load();
+
+        void save(long millis);
+    }
+
+    // Reminders read per query while catching up
+    static final int BATCH_SIZE = 100;
+    // armedAt values: the alarm state is not known (e.g. a new process), or no alarm is armed
+    private static final long UNKNOWN = Long.MIN_VALUE;
+    private static final long NOT_ARMED = Long.MAX_VALUE;
+
+    private final Clock clock;
+    private final DueIndex index;
+    private final AlarmArmer armer;
+    private final Notifier notifier;
+    private final Watermark watermark;
+    private long firedUpTo = UNKNOWN;
+    private long armedAt = UNKNOWN;
+
+    public ReminderScheduler(Clock clock, DueIndex index, AlarmArmer armer, Notifier notifier, Watermark watermark) {
+        this.clock = clock;
+        this.index = index;
+        this.armer = armer;
+        this.notifier = notifier;
+        this.watermark = watermark;
+    }
+
+    // Arms the alarm for the next reminder not yet notified, or cancels it if there is none.
+    // Costs one indexed lookup; the alarm is only touched if its time changes.
+    public void reschedule() {
+        List<Reminder> next = index.loadRemindersAfter(firedUpTo(), Long.MAX_VALUE, 1);
+        long at = next.isEmpty() ? NOT_ARMED : next.get(0).getDueAt();
+        if (at == armedAt) return;
+        if (at == NOT_ARMED) {
+            armer.cancel();
+        } else {
+            armer.arm(at);
+        }
+        armedAt = at;
+    }
+
+    // Called after reminders were given a due time (a task added or rescheduled): those due at or before
+    // the watermark are notified now, since the alarm only covers later ones, then the alarm is re-armed
+    public void onDueSet(List<Reminder> reminders) {
+        long from = firedUpTo();
+        for (Reminder reminder : reminders) {
+            if (reminder.getDueAt() <= from) notifier.notify(reminder);
+        }
+        reschedule();
+    }
+
+    // Called when the alarm goes off, and after boot or a change of the system time:
+    // notifies every reminder due since the last call, then arms the alarm for the next one
+    public void onAlarm() {
+        long now = clock.millis();
+        long afterMillis = firedUpTo();
+        long afterId = Long.MAX_VALUE;
+        while (true) {
+            List<Reminder> page = index.loadRemindersAfter(afterMillis, afterId, BATCH_SIZE);
+            for (Reminder reminder : page) {
+                if (reminder.getDueAt() > now) break;
+                notifier.notify(reminder);
+                afterMillis = reminder.getDueAt();
+                afterId = reminder.getTaskId();
+            }
+            if (page.size() < BATCH_SIZE || page.get(page.size() - 1).getDueAt() > now) break;
+        }
+        firedUpTo = now;
+        watermark.save(now);
+        // The alarm that just fired is no longer armed
+        armedAt = UNKNOWN;
+        reschedule();
+    }
+
+    // The watermark, read once per process; a first run starts from now so past due times do not fire.
+    // If the clock was moved back behind it, it is brought back to now: reminders between the new time
+    // and the old watermark are then due again when their time comes.
+    private long firedUpTo() {
+        if (firedUpTo == UNKNOWN) firedUpTo = watermark.load();
+        long now = clock.millis();
+        if (firedUpTo == Long.MIN_VALUE || firedUpTo > now) {
+            firedUpTo = now;
+            watermark.save(firedUpTo);
+        }
+        return firedUpTo;
+    }
+}
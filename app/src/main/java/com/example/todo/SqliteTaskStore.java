@@ -0,0 +1,752 @@
+package com.example.todo;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// TaskStore backed by the SQLite database managed by TaskDatabaseHelper.
+// The connection is opened once and kept until close(); the hot INSERT/DELETE/COUNT statements
+// are compiled on first use and reused, so each call only binds arguments and steps the statement.
+// Every add, complete and cancel updates daily_stats in the same transaction as the task row;
+// the batch variants do a whole list in one transaction and update each day's stats once.
+// Every insert also links the task to the tags of its text, and the stats are kept per task list, so the
+// lists' badges are read from the day's stats rows and never count tasks.
+// Recurring tasks are kept in memory (there are few of them) and expanded by RecurrenceExpander for
+// the days each query covers; completing or skipping an occurrence only writes a recurrence_exceptions row.
+class SqliteTaskStore implements TaskStore {
+    // State of an occurrence in recurrence_exceptions
+    static final int OCCURRENCE_COMPLETED = 1;
+    static final int OCCURRENCE_SKIPPED = 2;
+
+    // Database helper instance to manage SQLite operations
+    private final TaskDatabaseHelper dbHelper;
+    // Connection shared by every call, opened lazily on the first (background) access
+    private SQLiteDatabase db;
+    // Compiled statements; insert, delete and the stats updates are only used from the single writer thread
+    private SQLiteStatement insertStatement;
+    private SQLiteStatement deleteStatement;
+    private SQLiteStatement tagStatement;
+    private SQLiteStatement taskTagStatement;
+    private SQLiteStatement statsRowStatement;
+    private SQLiteStatement createdStatement;
+    private SQLiteStatement completedStatement;
+    private SQLiteStatement cancelledStatement;
+    private SQLiteStatement exceptionStatement;
+    // The count statement is used from the reader pool, so access is guarded by its own lock
+    private SQLiteStatement countStatement;
+    private final Object countLock = new Object();
+    // Every recurring task, loaded on first use and reloaded after a rule changed; guarded by rulesLock,
+    // which is also held while loading so a reload can never install rules older than a commit
+    private List<RecurrenceRule> rules;
+    private final Object rulesLock = new Object();
+
+    SqliteTaskStore(TaskDatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    @Override
+    public long addTask(String task, long day) {
+        SQLiteDatabase db = prepareWrites();
+        db.beginTransaction();
+        try {
+            long id = insert(task, day, TaskList.DEFAULT_ID, Reminder.NO_DUE);
+            bumpStats(createdStatement, day, TaskList.DEFAULT_ID, 1);
+            db.setTransactionSuccessful();
+            return id;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @Override
+    public List<Long> addTasks(List<String> tasks, long day) {
+        return addTasks(tasks, day, TaskList.DEFAULT_ID, Reminder.NO_DUE);
+    }
+
+    @Override
+    public List<Long> addTasks(List<String> tasks, long day, long listId, long dueAt) {
+        List<Long> ids = new ArrayList<>(tasks.size());
+        SQLiteDatabase db = prepareWrites();
+        // One transaction, hence one commit, for the whole list
+        db.beginTransaction();
+        try {
+            for (String task : tasks) ids.add(insert(task, day, listId, dueAt));
+            bumpStats(createdStatement, day, listId, tasks.size());
+            db.setTransactionSuccessful();
+            return ids;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Inserts a task, with its reminder if dueAt is not Reminder.NO_DUE, and links it to its tags;
+    // inside the caller's transaction
+    private long insert(String task, long day, long listId, long dueAt) {
+        insertStatement.bindString(1, task);
+        insertStatement.bindLong(2, day);
+        insertStatement.bindLong(3, listId);
+        if (dueAt == Reminder.NO_DUE) {
+            insertStatement.bindNull(4);
+        } else {
+            insertStatement.bindLong(4, dueAt);
+        }
+        long id = insertStatement.executeInsert();
+        tag(id, task, day);
+        return id;
+    }
+
+    // Links a new task to the tags of its text, creating the tags that do not exist yet
+    private void tag(long id, String task, long day) {
+        for (String tag : TaskTags.parse(task)) {
+            tagStatement.bindString(1, tag);
+            tagStatement.executeInsert();
+            taskTagStatement.bindLong(1, day);
+            taskTagStatement.bindLong(2, id);
+            taskTagStatement.bindString(3, tag);
+            taskTagStatement.executeInsert();
+        }
+    }
+
+    @Override
+    public long addList(String name) {
+        SQLiteStatement insert = database().compileStatement("INSERT INTO lists(name) VALUES(?)");
+        try {
+            insert.bindString(1, name);
+            return insert.executeInsert();
+        } finally {
+            insert.close();
+        }
+    }
+
+    @Override
+    public List<TaskList> loadLists(long day) {
+        // One pass over the lists, each joined to its stats row of the day by a (day, list_id) key lookup
+        List<TaskList> lists = new ArrayList<>();
+        Cursor cursor = database().rawQuery("SELECT l.id, l.name, IFNULL(SUM(s.created), 0), "
+                        + "IFNULL(SUM(s.completed), 0), IFNULL(SUM(s.cancelled), 0) "
+                        + "FROM lists l LEFT JOIN daily_stats s ON s.day = ? AND s.list_id = l.id "
+                        + "GROUP BY l.id ORDER BY l.id",
+                new String[]{Long.toString(day)});
+        RecurrenceExpander expander = expander();
+        try {
+            while (cursor.moveToNext()) {
+                long id = cursor.getLong(0);
+                DailyStats stats = new DailyStats(day, cursor.getInt(2), cursor.getInt(3), cursor.getInt(4));
+                // Occurrences of recurring tasks belong to the default list
+                if (id == TaskList.DEFAULT_ID) stats = withOccurrences(stats, expander);
+                lists.add(new TaskList(id, cursor.getString(1), stats.getOpen(), stats.getCompleted()));
+            }
+        } finally {
+            cursor.close();
+        }
+        return lists;
+    }
+
+    @Override
+    public List<String> loadTags() {
+        // Tags whose last task is gone keep their row but are not listed
+        List<String> tags = new ArrayList<>();
+        Cursor cursor = database().rawQuery("SELECT name FROM tags t "
+                + "WHERE EXISTS (SELECT 1 FROM task_tags WHERE tag_id = t.id) ORDER BY name", null);
+        try {
+            while (cursor.moveToNext()) tags.add(cursor.getString(0));
+        } finally {
+            cursor.close();
+        }
+        return tags;
+    }
+
+    @Override
+    public List<Long> addRecurrences(List<RecurrenceRule> rules) {
+        List<Long> ids = new ArrayList<>(rules.size());
+        SQLiteDatabase db = database();
+        SQLiteStatement insert = db.compileStatement("INSERT INTO recurrence_rules"
+                + "(task, start_day, end_day, frequency, repeat_every, weekdays) VALUES(?, ?, ?, ?, ?, ?)");
+        db.beginTransaction();
+        try {
+            for (RecurrenceRule rule : rules) {
+                insert.bindString(1, rule.getText());
+                insert.bindLong(2, rule.getStartDay());
+                if (rule.getEndDay() == RecurrenceRule.NO_END) {
+                    insert.bindNull(3);
+                } else {
+                    insert.bindLong(3, rule.getEndDay());
+                }
+                insert.bindString(4, rule.getFrequency().name());
+                insert.bindLong(5, rule.getInterval());
+                insert.bindLong(6, rule.getWeekdays());
+                ids.add(insert.executeInsert());
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+        invalidateRules();
+        return ids;
+    }
+
+    @Override
+    public void endRecurrence(long ruleId, long lastDay) {
+        SQLiteDatabase db = database();
+        Object[] args = new Object[]{ruleId, lastDay};
+        db.beginTransaction();
+        try {
+            // Exceptions after the end can no longer be reached
+            db.execSQL("DELETE FROM recurrence_exceptions WHERE rule_id = ? AND day > ?", args);
+            db.execSQL("DELETE FROM recurrence_rules WHERE id = ? AND start_day > ?", args);
+            db.execSQL("UPDATE recurrence_rules SET end_day = ? WHERE id = ?", new Object[]{lastDay, ruleId});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        invalidateRules();
+    }
+
+    @Override
+    public void setDueAt(long id, long dueAt) {
+        if (RecurrenceRule.isOccurrenceId(id)) return;
+        SQLiteDatabase db = database();
+        if (dueAt == Reminder.NO_DUE) {
+            db.execSQL("UPDATE tasks SET due_at = NULL WHERE id = ?", new Object[]{id});
+        } else {
+            db.execSQL("UPDATE tasks SET due_at = ? WHERE id = ?", new Object[]{dueAt, id});
+        }
+    }
+
+    @Override
+    public List<Reminder> loadRemindersAfter(long afterMillis, long afterId, int limit) {
+        // A seek into the partial (due_at, id) index; tasks without a due time are not even in it
+        List<Reminder> reminders = new ArrayList<>();
+        Cursor cursor = database().rawQuery("SELECT id, task, due_at FROM tasks "
+                        + "WHERE due_at IS NOT NULL AND (due_at, id) > (?, ?) ORDER BY due_at, id LIMIT ?",
+                new String[]{Long.toString(afterMillis), Long.toString(afterId), Integer.toString(limit)});
+        try {
+            while (cursor.moveToNext()) {
+                reminders.add(new Reminder(cursor.getLong(0), cursor.getString(1), cursor.getLong(2)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return reminders;
+    }
+
+    @Override
+    public void exportTasks(TaskBackup.Writer writer) throws IOException {
+        // Rows go from the cursor window to the writer's buffer; the cursor only holds one window at a time.
+        // The list name is a primary key lookup per row, and is left out for the default list.
+        Cursor cursor = database().rawQuery("SELECT t.task, t.day, t.due_at, "
+                + "CASE WHEN t.list_id = " + TaskList.DEFAULT_ID + " THEN NULL ELSE l.name END "
+                + "FROM tasks t LEFT JOIN lists l ON l.id = t.list_id ORDER BY t.day, t.id", null);
+        try {
+            while (cursor.moveToNext()) {
+                writer.write(cursor.getString(0), cursor.getLong(1), cursor.isNull(2) ? Reminder.NO_DUE : cursor.getLong(2),
+                        cursor.isNull(3) ? null : cursor.getString(3));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public int importTasks(List<TaskBackup.Entry> entries) {
+        SQLiteDatabase db = prepareWrites();
+        SQLiteStatement insert = db.compileStatement("INSERT INTO tasks(task, day, due_at, list_id) VALUES(?, ?, ?, ?)");
+        db.beginTransaction();
+        try {
+            // Texts stored on each day of the batch, read once per day with a range scan of the (day, id)
+            // index, then kept up to date so duplicates within the file are caught too. A backup is written
+            // in day order, so a batch usually covers one or two days.
+            Map<Long, Set<String>> textsPerDay = new HashMap<>();
+            // Ids of the lists named in the batch, looked up (or created) once per name
+            Map<String, Long> listIds = new HashMap<>();
+            // Number of imported tasks per day and list, so each stats row is updated once
+            Map<Long, Map<Long, Integer>> importedPerDay = new HashMap<>();
+            int imported = 0;
+            for (TaskBackup.Entry entry : entries) {
+                Set<String> texts = textsPerDay.get(entry.getDay());
+                if (texts == null) {
+                    texts = loadTexts(entry.getDay());
+                    textsPerDay.put(entry.getDay(), texts);
+                }
+                if (!texts.add(entry.getText())) continue;
+                insert.bindString(1, entry.getText());
+                insert.bindLong(2, entry.getDay());
+                if (entry.getDueAt() == Reminder.NO_DUE) {
+                    insert.bindNull(3);
+                } else {
+                    insert.bindLong(3, entry.getDueAt());
+                }
+                long listId = listNamed(entry.getList(), listIds);
+                insert.bindLong(4, listId);
+                tag(insert.executeInsert(), entry.getText(), entry.getDay());
+                importedPerDay.computeIfAbsent(entry.getDay(), d -> new HashMap<>()).merge(listId, 1, Integer::sum);
+                imported++;
+            }
+            for (Map.Entry<Long, Map<Long, Integer>> day : importedPerDay.entrySet()) {
+                for (Map.Entry<Long, Integer> list : day.getValue().entrySet()) {
+                    bumpStats(createdStatement, day.getKey(), list.getKey(), list.getValue());
+                }
+            }
+            db.setTransactionSuccessful();
+            return imported;
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+    }
+
+    // Id of the first list with the name, created if there is none; the default list for null.
+    // Inside the import's transaction; ids already resolved in the batch are kept in known.
+    private long listNamed(String name, Map<String, Long> known) {
+        if (name == null) return TaskList.DEFAULT_ID;
+        Long id = known.get(name);
+        if (id != null) return id;
+        Cursor cursor = database().rawQuery("SELECT id FROM lists WHERE name = ? ORDER BY id LIMIT 1", new String[]{name});
+        try {
+            id = cursor.moveToFirst() ? cursor.getLong(0) : addList(name);
+        } finally {
+            cursor.close();
+        }
+        known.put(name, id);
+        return id;
+    }
+
+    // Texts of the tasks stored on a day
+    private Set<String> loadTexts(long day) {
+        Set<String> texts = new HashSet<>();
+        Cursor cursor = database().rawQuery("SELECT task FROM tasks WHERE day = ?", new String[]{Long.toString(day)});
+        try {
+            while (cursor.moveToNext()) texts.add(cursor.getString(0));
+        } finally {
+            cursor.close();
+        }
+        return texts;
+    }
+
+    @Override
+    public void completeTask(long id) {
+        finishTasks(Collections.singletonList(id), completedStatement, OCCURRENCE_COMPLETED);
+    }
+
+    @Override
+    public void cancelTask(long id) {
+        finishTasks(Collections.singletonList(id), cancelledStatement, OCCURRENCE_SKIPPED);
+    }
+
+    @Override
+    public void completeTasks(List<Long> ids) {
+        finishTasks(ids, completedStatement, OCCURRENCE_COMPLETED);
+    }
+
+    @Override
+    public void cancelTasks(List<Long> ids) {
+        finishTasks(ids, cancelledStatement, OCCURRENCE_SKIPPED);
+    }
+
+    // Deletes the tasks and increments the given counter of their days and lists, all in one transaction.
+    // Occurrences of recurring tasks get an exception row in the given state instead of a delete.
+    // Tasks that are already gone (e.g. tapped twice) are skipped.
+    private void finishTasks(List<Long> ids, SQLiteStatement counter, int occurrenceState) {
+        SQLiteDatabase db = prepareWrites();
+        db.beginTransaction();
+        try {
+            // Number of finished tasks per day and list, so each stats row is updated once
+            Map<Long, Map<Long, Integer>> finishedPerDay = new HashMap<>();
+            for (long id : ids) {
+                if (RecurrenceRule.isOccurrenceId(id)) {
+                    long day = RecurrenceRule.dayOf(id);
+                    exceptionStatement.bindLong(1, day);
+                    exceptionStatement.bindLong(2, RecurrenceRule.ruleIdOf(id));
+                    exceptionStatement.bindLong(3, occurrenceState);
+                    // No row is inserted if the occurrence was already completed or skipped
+                    if (exceptionStatement.executeUpdateDelete() > 0) count(finishedPerDay, day, TaskList.DEFAULT_ID);
+                    continue;
+                }
+                // One primary key lookup for both columns; the connection's statement cache keeps it compiled
+                long day;
+                long listId;
+                Cursor cursor = db.rawQuery("SELECT day, list_id FROM tasks WHERE id = ?",
+                        new String[]{Long.toString(id)});
+                try {
+                    if (!cursor.moveToFirst()) continue;
+                    day = cursor.getLong(0);
+                    listId = cursor.getLong(1);
+                } finally {
+                    cursor.close();
+                }
+                // Deleting by primary key removes exactly one row, even if other tasks share its text
+                deleteStatement.bindLong(1, id);
+                deleteStatement.executeUpdateDelete();
+                count(finishedPerDay, day, listId);
+            }
+            for (Map.Entry<Long, Map<Long, Integer>> day : finishedPerDay.entrySet()) {
+                for (Map.Entry<Long, Integer> list : day.getValue().entrySet()) {
+                    bumpStats(counter, day.getKey(), list.getKey(), list.getValue());
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Adds one to the count of (day, listId)
+    private static void count(Map<Long, Map<Long, Integer>> counts, long day, long listId) {
+        counts.computeIfAbsent(day, d -> new HashMap<>()).merge(listId, 1, Integer::sum);
+    }
+
+    // Makes sure the day has a stats row for the list, then adds amount to one of its counters
+    private void bumpStats(SQLiteStatement counter, long day, long listId, int amount) {
+        statsRowStatement.bindLong(1, day);
+        statsRowStatement.bindLong(2, listId);
+        statsRowStatement.executeInsert();
+        counter.bindLong(1, amount);
+        counter.bindLong(2, day);
+        counter.bindLong(3, listId);
+        counter.executeUpdateDelete();
+    }
+
+    // Compiles the writer's statements on first use and returns the connection
+    private SQLiteDatabase prepareWrites() {
+        SQLiteDatabase db = database();
+        if (insertStatement == null) {
+            insertStatement = db.compileStatement("INSERT INTO tasks(task, day, list_id, due_at) VALUES(?, ?, ?, ?)");
+            deleteStatement = db.compileStatement("DELETE FROM tasks WHERE id = ?");
+            tagStatement = db.compileStatement(TaskDatabaseHelper.INSERT_TAG);
+            taskTagStatement = db.compileStatement(TaskDatabaseHelper.INSERT_TASK_TAG);
+            statsRowStatement = db.compileStatement("INSERT OR IGNORE INTO daily_stats(day, list_id) VALUES(?, ?)");
+            createdStatement = db.compileStatement(
+                    "UPDATE daily_stats SET created = created + ? WHERE day = ? AND list_id = ?");
+            completedStatement = db.compileStatement(
+                    "UPDATE daily_stats SET completed = completed + ? WHERE day = ? AND list_id = ?");
+            cancelledStatement = db.compileStatement(
+                    "UPDATE daily_stats SET cancelled = cancelled + ? WHERE day = ? AND list_id = ?");
+            exceptionStatement = db.compileStatement(
+                    "INSERT OR IGNORE INTO recurrence_exceptions(day, rule_id, state) VALUES(?, ?, ?)");
+        }
+        return db;
+    }
+
+    @Override
+    public int archivePastTasks(long today, int limit) {
+        SQLiteDatabase db = database();
+        // Copy then delete the same oldest rows, walking the (day, id) index, so the write lock
+        // is only held for one chunk; a killed process simply leaves the rest for the next sweep
+        Object[] args = new Object[]{today, today, limit};
+        int moved;
+        db.beginTransaction();
+        try {
+            db.execSQL("INSERT INTO archived_tasks(task, day, archived_on) "
+                    + "SELECT task, day, ? FROM tasks WHERE day < ? ORDER BY day, id LIMIT ?", args);
+            SQLiteStatement delete = db.compileStatement("DELETE FROM tasks WHERE id IN "
+                    + "(SELECT id FROM tasks WHERE day < ? ORDER BY day, id LIMIT ?)");
+            try {
+                delete.bindLong(1, today);
+                delete.bindLong(2, limit);
+                moved = delete.executeUpdateDelete();
+            } finally {
+                delete.close();
+            }
+            if (moved < limit) {
+                // Occurrences are never archived: past exceptions and rules that have ended are dropped
+                db.execSQL("DELETE FROM recurrence_exceptions WHERE day < ?", new Object[]{today});
+                db.execSQL("DELETE FROM recurrence_rules WHERE end_day < ?", new Object[]{today});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        if (moved < limit) invalidateRules();
+        return moved;
+    }
+
+    @Override
+    public List<Task> loadArchivedTasks(long beforeDay, long beforeId, int limit) {
+        return query("SELECT id, task, day FROM archived_tasks WHERE (day, id) < (?, ?) ORDER BY day DESC, id DESC LIMIT ?",
+                Long.toString(beforeDay), Long.toString(beforeId), Integer.toString(limit));
+    }
+
+    @Override
+    public List<Task> loadTasks(long day) {
+        List<Task> stored = query("SELECT id, task, day FROM tasks WHERE day = ? ORDER BY id", Long.toString(day));
+        RecurrenceExpander expander = expander();
+        if (expander.isEmpty()) return stored;
+        List<Task> tasks = expander.onDay(day);
+        tasks.addAll(stored);
+        return tasks;
+    }
+
+    @Override
+    public List<Task> loadTasks(TaskFilter filter, long day) {
+        if (filter.isAll()) return loadTasks(day);
+        // A seek to (list_id, day) or (tag_id, day), then the day's rows in id order
+        List<Task> stored = filter.isList()
+                ? query("SELECT id, task, day FROM tasks WHERE list_id = ? AND day = ? ORDER BY id",
+                        Long.toString(filter.getListId()), Long.toString(day))
+                : query("SELECT t.id, t.task, t.day FROM task_tags g JOIN tasks t ON t.id = g.task_id "
+                                + "WHERE g.tag_id = (SELECT id FROM tags WHERE name = ?) AND g.day = ? ORDER BY g.task_id",
+                        filter.getTag(), Long.toString(day));
+        if (!filter.includesOccurrences()) return stored;
+        List<Task> tasks = expander().onDay(day);
+        tasks.addAll(stored);
+        return tasks;
+    }
+
+    @Override
+    public List<Task> loadTasksAfter(TaskFilter filter, long afterDay, long afterId, int limit) {
+        if (filter.isAll()) return loadTasksAfter(afterDay, afterId, limit);
+        // The same row-value seek as loadTasksAfter(), behind the list's or the tag's key
+        List<Task> stored = filter.isList()
+                ? query("SELECT id, task, day FROM tasks WHERE list_id = ? AND (day, id) > (?, ?) "
+                                + "ORDER BY day, id LIMIT ?",
+                        Long.toString(filter.getListId()), Long.toString(afterDay), Long.toString(afterId),
+                        Integer.toString(limit))
+                : query("SELECT t.id, t.task, t.day FROM task_tags g JOIN tasks t ON t.id = g.task_id "
+                                + "WHERE g.tag_id = (SELECT id FROM tags WHERE name = ?) AND (g.day, g.task_id) > (?, ?) "
+                                + "ORDER BY g.day, g.task_id LIMIT ?",
+                        filter.getTag(), Long.toString(afterDay), Long.toString(afterId), Integer.toString(limit));
+        return filter.includesOccurrences() ? expander().after(stored, afterDay, afterId, limit) : stored;
+    }
+
+    @Override
+    public List<Task> loadTasksBefore(TaskFilter filter, long today, long beforeDay, long beforeId, int limit) {
+        if (filter.isAll()) return loadTasksBefore(today, beforeDay, beforeId, limit);
+        List<Task> page = filter.isList()
+                ? query("SELECT id, task, day FROM tasks WHERE list_id = ? AND (day, id) < (?, ?) AND day > ? "
+                                + "ORDER BY day DESC, id DESC LIMIT ?",
+                        Long.toString(filter.getListId()), Long.toString(beforeDay), Long.toString(beforeId),
+                        Long.toString(today), Integer.toString(limit))
+                : query("SELECT t.id, t.task, t.day FROM task_tags g JOIN tasks t ON t.id = g.task_id "
+                                + "WHERE g.tag_id = (SELECT id FROM tags WHERE name = ?) AND (g.day, g.task_id) < (?, ?) "
+                                + "AND g.day > ? ORDER BY g.day DESC, g.task_id DESC LIMIT ?",
+                        filter.getTag(), Long.toString(beforeDay), Long.toString(beforeId),
+                        Long.toString(today), Integer.toString(limit));
+        Collections.reverse(page);
+        return filter.includesOccurrences() ? expander().before(page, today, beforeDay, beforeId, limit) : page;
+    }
+
+    @Override
+    public List<Task> loadTasksAfter(long afterDay, long afterId, int limit) {
+        // The row-value comparison is a single seek into the (day, id) index, whatever the page depth
+        List<Task> stored = query("SELECT id, task, day FROM tasks WHERE (day, id) > (?, ?) ORDER BY day, id LIMIT ?",
+                Long.toString(afterDay), Long.toString(afterId), Integer.toString(limit));
+        return expander().after(stored, afterDay, afterId, limit);
+    }
+
+    @Override
+    public List<Task> loadTasksBefore(long today, long beforeDay, long beforeId, int limit) {
+        // Walk the index backwards from the key, then restore ascending order
+        List<Task> page = query("SELECT id, task, day FROM tasks WHERE (day, id) < (?, ?) AND day > ? "
+                        + "ORDER BY day DESC, id DESC LIMIT ?",
+                Long.toString(beforeDay), Long.toString(beforeId), Long.toString(today), Integer.toString(limit));
+        Collections.reverse(page);
+        return expander().before(page, today, beforeDay, beforeId, limit);
+    }
+
+    @Override
+    public List<Task> searchTasks(String match, long afterDay, long afterId, int limit, QueryCancellation cancellation) {
+        CancellationSignal signal = new CancellationSignal();
+        cancellation.setOnCancelListener(signal::cancel);
+        try {
+            // The full-text index yields the matching ids; the (day, id) key pages them by date
+            return query(signal, "SELECT id, task, day FROM tasks "
+                            + "WHERE id IN (SELECT docid FROM tasks_fts WHERE tasks_fts MATCH ?) AND (day, id) > (?, ?) "
+                            + "ORDER BY day, id LIMIT ?",
+                    match, Long.toString(afterDay), Long.toString(afterId), Integer.toString(limit));
+        } catch (OperationCanceledException e) {
+            return new ArrayList<>();
+        } finally {
+            cancellation.setOnCancelListener(null);
+        }
+    }
+
+    @Override
+    public int countTasks(long day) {
+        int stored;
+        synchronized (countLock) {
+            if (countStatement == null) {
+                countStatement = database().compileStatement("SELECT COUNT(*) FROM tasks WHERE day = ?");
+            }
+            countStatement.bindLong(1, day);
+            stored = (int) countStatement.simpleQueryForLong();
+        }
+        RecurrenceExpander expander = expander();
+        return expander.isEmpty() ? stored : stored + expander.onDay(day).size();
+    }
+
+    @Override
+    public DailyStats loadStats(long day) {
+        // Range scan of the day's rows, one per task list, whatever the number of tasks
+        List<DailyStats> stats = queryStats("SELECT day, SUM(created), SUM(completed), SUM(cancelled) FROM daily_stats "
+                + "WHERE day = ? GROUP BY day", Long.toString(day));
+        DailyStats row = stats.isEmpty() ? new DailyStats(day, 0, 0, 0) : stats.get(0);
+        return withOccurrences(row, expander());
+    }
+
+    @Override
+    public List<DailyStats> loadStatsBetween(long fromDay, long toDay) {
+        List<DailyStats> rows = queryStats("SELECT day, SUM(created), SUM(completed), SUM(cancelled) FROM daily_stats "
+                        + "WHERE day BETWEEN ? AND ? GROUP BY day ORDER BY day", Long.toString(fromDay), Long.toString(toDay));
+        RecurrenceExpander expander = expander();
+        if (expander.isEmpty()) return rows;
+        // Days with occurrences but no stats row yet get one too
+        List<DailyStats> stats = new ArrayList<>();
+        int next = 0;
+        for (long day = fromDay; day <= toDay; day++) {
+            DailyStats row = next < rows.size() && rows.get(next).getDay() == day
+                    ? rows.get(next++) : new DailyStats(day, 0, 0, 0);
+            row = withOccurrences(row, expander);
+            if (row.getCreated() > 0 || row.getCompleted() > 0 || row.getCancelled() > 0) stats.add(row);
+        }
+        return stats;
+    }
+
+    // Counts the occurrences scheduled on the stats' day as created, since they have no row of their own
+    private static DailyStats withOccurrences(DailyStats stats, RecurrenceExpander expander) {
+        int scheduled = expander.countScheduled(stats.getDay());
+        if (scheduled == 0) return stats;
+        return new DailyStats(stats.getDay(), stats.getCreated() + scheduled, stats.getCompleted(), stats.getCancelled());
+    }
+
+    // Expands the current recurring tasks, reading exceptions for the days it covers
+    private RecurrenceExpander expander() {
+        return new RecurrenceExpander(rules(), this::loadExceptions);
+    }
+
+    // The recurring tasks, loaded once and kept until a rule changes
+    private List<RecurrenceRule> rules() {
+        synchronized (rulesLock) {
+            if (rules == null) {
+                List<RecurrenceRule> loaded = new ArrayList<>();
+                Cursor cursor = database().rawQuery("SELECT id, task, start_day, end_day, frequency, repeat_every, weekdays "
+                        + "FROM recurrence_rules", null);
+                try {
+                    while (cursor.moveToNext()) {
+                        loaded.add(new RecurrenceRule(cursor.getLong(0), cursor.getString(1), cursor.getLong(2),
+                                cursor.isNull(3) ? RecurrenceRule.NO_END : cursor.getLong(3),
+                                RecurrenceRule.Frequency.valueOf(cursor.getString(4)), cursor.getInt(5), cursor.getInt(6)));
+                    }
+                } finally {
+                    cursor.close();
+                }
+                rules = Collections.unmodifiableList(loaded);
+            }
+            return rules;
+        }
+    }
+
+    // Called after a change to recurrence_rules has been committed
+    private void invalidateRules() {
+        synchronized (rulesLock) {
+            rules = null;
+        }
+    }
+
+    // Occurrence ids completed or skipped in [fromDay, toDay], one range scan of the (day, rule_id) key
+    private Set<Long> loadExceptions(long fromDay, long toDay) {
+        Set<Long> ids = new HashSet<>();
+        Cursor cursor = database().rawQuery("SELECT rule_id, day FROM recurrence_exceptions WHERE day BETWEEN ? AND ?",
+                new String[]{Long.toString(fromDay), Long.toString(toDay)});
+        try {
+            while (cursor.moveToNext()) {
+                ids.add(RecurrenceRule.occurrenceId(cursor.getLong(0), cursor.getLong(1)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return ids;
+    }
+
+    @Override
+    public synchronized void close() {
+        closeStatement(insertStatement);
+        closeStatement(deleteStatement);
+        closeStatement(tagStatement);
+        closeStatement(taskTagStatement);
+        closeStatement(statsRowStatement);
+        closeStatement(createdStatement);
+        closeStatement(completedStatement);
+        closeStatement(cancelledStatement);
+        closeStatement(exceptionStatement);
+        synchronized (countLock) {
+            closeStatement(countStatement);
+            countStatement = null;
+        }
+        insertStatement = null;
+        deleteStatement = null;
+        tagStatement = null;
+        taskTagStatement = null;
+        statsRowStatement = null;
+        createdStatement = null;
+        completedStatement = null;
+        cancelledStatement = null;
+        exceptionStatement = null;
+        if (db != null) {
+            db.releaseReference();
+            db = null;
+        }
+        dbHelper.close();
+    }
+
+    // Returns the shared connection, opening it on first use.
+    // The store holds its own reference, so a previous store closing the helper cannot close it underneath us.
+    private synchronized SQLiteDatabase database() {
+        if (db == null) {
+            db = dbHelper.getWritableDatabase();
+            db.acquireReference();
+        }
+        return db;
+    }
+
+    // Releases a compiled statement if it was ever created
+    private static void closeStatement(SQLiteStatement statement) {
+        if (statement != null) {
+            statement.close();
+        }
+    }
+
+    // Runs a task query and maps every row to a Task
+    private List<Task> query(String sql, String... args) {
+        return query(null, sql, args);
+    }
+
+    // Same, stopping with an OperationCanceledException if the signal (may be null) is cancelled
+    private List<Task> query(CancellationSignal signal, String sql, String... args) {
+        List<Task> result = new ArrayList<>();
+        Cursor cursor = database().rawQuery(sql, args, signal);
+        try {
+            while (cursor.moveToNext()) {
+                result.add(new Task(cursor.getLong(0), cursor.getString(1), cursor.getLong(2)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return result;
+    }
+
+    // Runs a stats query and maps every row to DailyStats
+    private List<DailyStats> queryStats(String sql, String... args) {
+        List<DailyStats> result = new ArrayList<>();
+        Cursor cursor = database().rawQuery(sql, args);
+        try {
+            while (cursor.moveToNext()) {
+                result.add(new DailyStats(cursor.getLong(0), cursor.getInt(1), cursor.getInt(2), cursor.getInt(3)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return result;
+    }
+}
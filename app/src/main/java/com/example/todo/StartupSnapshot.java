@@ -0,0 +1,94 @@
+package com.example.todo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// What the screen showed when the user last left it: the first of today's tasks and the progress.
+// It is saved as a small string when the screen stops and read back at the next cold start, so the
+// first frame can be drawn before the database is even opened. The database list replaces it as
+// soon as it is loaded; a snapshot from another day is ignored.
+public final class StartupSnapshot {
+    // Enough rows to fill the screen; the rest arrives with the database list
+    static final int MAX_TASKS = 30;
+    private static final String VERSION = "1";
+
+    private final long day;
+    private final int completionPercent;
+    private final List<Task> tasks;
+
+    public StartupSnapshot(long day, int completionPercent, List<Task> tasks) {
+        this.day = day;
+        this.completionPercent = completionPercent;
+        this.tasks = new ArrayList<>(tasks.subList(0, Math.min(tasks.size(), MAX_TASKS)));
+    }
+
+    public long getDay() {
+        return day;
+    }
+
+    public int getCompletionPercent() {
+        return completionPercent;
+    }
+
+    public List<Task> getTasks() {
+        return Collections.unmodifiableList(tasks);
+    }
+
+    // One line per field, then one "id<TAB>text" line per task; text is escaped so it stays on its line
+    public String encode() {
+        StringBuilder out = new StringBuilder(64 + tasks.size() * 32);
+        out.append(VERSION).append('\n').append(day).append('\n').append(completionPercent).append('\n');
+        for (Task task : tasks) {
+            out.append(task.getId()).append('\t');
+            escape(task.getText(), out);
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    // Returns null when there is nothing usable to decode (no snapshot, older format, corrupted data)
+    public static StartupSnapshot decode(String encoded) {
+        if (encoded == null) return null;
+        String[] lines = encoded.split("\n", -1);
+        if (lines.length < 4 || !VERSION.equals(lines[0])) return null;
+        try {
+            long day = Long.parseLong(lines[1]);
+            int completionPercent = Integer.parseInt(lines[2]);
+            List<Task> tasks = new ArrayList<>();
+            // The encoding ends with a newline, so the last element is empty
+            for (int i = 3; i < lines.length - 1; i++) {
+                int tab = lines[i].indexOf('\t');
+                if (tab < 0) return null;
+                tasks.add(new Task(Long.parseLong(lines[i].substring(0, tab)), unescape(lines[i].substring(tab + 1)), day));
+            }
+            return new StartupSnapshot(day, completionPercent, tasks);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void escape(String text, StringBuilder out) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') out.append("\\\\");
+            else if (c == '\n') out.append("\\n");
+            else if (c == '\t') out.append("\\t");
+            else out.append(c);
+        }
+    }
+
+    private static String unescape(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                out.append(next == 'n' ? '\n' : next == 't' ? '\t' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
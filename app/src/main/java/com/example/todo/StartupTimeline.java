@@ -0,0 +1,135 @@
+package com.example.todo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Timing of the app's cold start, split into named phases and two milestones:
+//   first frame: the screen is drawn, from the snapshot of the last session when there is one
+//   full list:   today's tasks loaded from the database are displayed
+// Every phase is also emitted as a trace section through the Tracer (android.os.Trace in the app),
+// so the same names show up in system traces. Times are in milliseconds since the process started.
+// Only the first occurrence of each phase and milestone is kept, so later activity re-creations
+// (e.g. a rotation) do not overwrite the cold-start numbers. Thread-safe.
+public class StartupTimeline {
+    // Inflating the layout and binding the views
+    public static final String PHASE_INFLATE = "startup:inflate";
+    // Reading the last session's snapshot and showing it
+    public static final String PHASE_SNAPSHOT = "startup:snapshot";
+    // Loading today's tasks from the database, off the main thread, until they are displayed
+    public static final String PHASE_HYDRATE = "startup:hydrate";
+    // Deferred work started after the first frame (archival of past tasks)
+    public static final String PHASE_MAINTENANCE = "startup:maintenance";
+
+    // Emits named trace sections. Synchronous sections must begin and end on the same thread;
+    // asynchronous ones are matched by name and cookie and may end on another thread.
+    public interface Tracer {
+        void beginSection(String name);
+
+        void endSection();
+
+        void beginAsyncSection(String name, int cookie);
+
+        void endAsyncSection(String name, int cookie);
+    }
+
+    // Handle of a running asynchronous phase
+    public final class Phase {
+        private final String name;
+        private final long start;
+        private final int cookie;
+        private boolean ended;
+
+        private Phase(String name, long start, int cookie) {
+            this.name = name;
+            this.start = start;
+            this.cookie = cookie;
+        }
+
+        // Ends the phase and records its duration; further calls do nothing
+        public void end() {
+            synchronized (StartupTimeline.this) {
+                if (ended) return;
+                ended = true;
+            }
+            tracer.endAsyncSection(name, cookie);
+            record(name, clock.getAsLong() - start);
+        }
+    }
+
+    private final LongSupplier clock;
+    private final long processStart;
+    private final Tracer tracer;
+    // Duration of each recorded phase, in the order they ended
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private long firstFrame = -1;
+    private long fullList = -1;
+    private int nextCookie;
+
+    // clock returns the current time in milliseconds on the same time base as processStart
+    public StartupTimeline(LongSupplier clock, long processStart, Tracer tracer) {
+        this.clock = clock;
+        this.processStart = processStart;
+        this.tracer = tracer;
+    }
+
+    // Runs work on the calling thread inside a trace section and records its duration
+    public void phase(String name, Runnable work) {
+        long start = clock.getAsLong();
+        tracer.beginSection(name);
+        try {
+            work.run();
+        } finally {
+            tracer.endSection();
+            record(name, clock.getAsLong() - start);
+        }
+    }
+
+    // Starts a phase that ends later, possibly on another thread
+    public Phase beginPhase(String name) {
+        int cookie;
+        synchronized (this) {
+            cookie = nextCookie++;
+        }
+        tracer.beginAsyncSection(name, cookie);
+        return new Phase(name, clock.getAsLong(), cookie);
+    }
+
+    public synchronized void markFirstFrame() {
+        if (firstFrame < 0) firstFrame = clock.getAsLong() - processStart;
+    }
+
+    public synchronized void markFullList() {
+        if (fullList < 0) fullList = clock.getAsLong() - processStart;
+    }
+
+    // Time to first frame, or -1 if not drawn yet
+    public synchronized long getFirstFrameMillis() {
+        return firstFrame;
+    }
+
+    // Time until the database-backed list was displayed, or -1 if not yet
+    public synchronized long getFullListMillis() {
+        return fullList;
+    }
+
+    // Duration of a recorded phase, or -1 if it has not ended yet
+    public synchronized long getPhaseMillis(String name) {
+        Long duration = phases.get(name);
+        return duration == null ? -1 : duration;
+    }
+
+    // One-line summary for logs, e.g. "firstFrame=312ms fullList=420ms startup:inflate=85ms ..."
+    public synchronized String summary() {
+        StringBuilder summary = new StringBuilder()
+                .append("firstFrame=").append(firstFrame).append("ms fullList=").append(fullList).append("ms");
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            summary.append(' ').append(phase.getKey()).append('=').append(phase.getValue()).append("ms");
+        }
+        return summary.toString();
+    }
+
+    private synchronized void record(String name, long duration) {
+        phases.putIfAbsent(name, duration);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.todo;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+// System clock in the device's current time zone. Clock.systemDefaultZone() fixes the zone when it is
+// created; this one reads ZoneId.systemDefault() on every use, which Android updates when the user
+// changes the time zone, so a long-lived screen sees the new local date and time.
+public final class SystemZoneClock extends Clock {
+    @Override
+    public ZoneId getZone() {
+        return ZoneId.systemDefault();
+    }
+
+    // A clock in a given zone no longer follows the system's
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return Clock.system(zone);
+    }
+
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.todo;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// RecyclerView adapter for the task list.
+// Rows are keyed by the task's row id; each new list is diffed against the current one on a
+// background thread and only the inserted, removed or changed rows are rebound.
+// Row styling lives in item_task.xml, so it is resolved once per inflated view, not per bind.
+// A long press starts multi-selection: taps then toggle rows instead of removing them, and
+// selection changes only rebind the "activated" state of the affected rows.
+class TaskAdapter extends ListAdapter<Task, TaskAdapter.TaskViewHolder> {
+    // Receives the task whose row was tapped
+    interface OnTaskClickListener {
+        void onTaskClick(Task task);
+    }
+
+    // Told how many rows are selected whenever the selection changes (0 ends multi-selection)
+    interface OnSelectionChangedListener {
+        void onSelectionChanged(int selectedCount);
+    }
+
+    // Payload for rebinding only the selection state of a row
+    private static final Object SELECTION_PAYLOAD = new Object();
+
+    // Two tasks are the same row when they share an id, and unchanged when text and day match
+    private static final DiffUtil.ItemCallback<Task> DIFF_CALLBACK = new DiffUtil.ItemCallback<Task>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Task oldItem, @NonNull Task newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Task oldItem, @NonNull Task newItem) {
+            return oldItem.getDay() == newItem.getDay() && oldItem.getText().equals(newItem.getText());
+        }
+    };
+
+    private final OnTaskClickListener listener;
+    private final OnSelectionChangedListener selectionListener;
+    // Whether rows show the scheduled date under the task (future list) or the task only (today's list)
+    private boolean showDates;
+    // Ids of the selected rows; non-empty while multi-selecting
+    private final Set<Long> selectedIds = new HashSet<>();
+
+    TaskAdapter(OnTaskClickListener listener, OnSelectionChangedListener selectionListener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+        this.selectionListener = selectionListener;
+        setHasStableIds(true);
+    }
+
+    // Whether the list is in multi-select mode
+    boolean isSelecting() {
+        return !selectedIds.isEmpty();
+    }
+
+    // Selected tasks, in list order
+    List<Task> getSelectedTasks() {
+        List<Task> selected = new ArrayList<>(selectedIds.size());
+        for (Task task : getCurrentList()) {
+            if (selectedIds.contains(task.getId())) selected.add(task);
+        }
+        return selected;
+    }
+
+    // Leaves multi-select mode, un-highlighting the selected rows
+    void clearSelection() {
+        if (selectedIds.isEmpty()) return;
+        selectedIds.clear();
+        notifyItemRangeChanged(0, getItemCount(), SELECTION_PAYLOAD);
+        selectionListener.onSelectionChanged(0);
+    }
+
+    // Selects or unselects the row at the given position
+    private void toggleSelection(int position) {
+        long id = getItem(position).getId();
+        if (!selectedIds.remove(id)) selectedIds.add(id);
+        notifyItemChanged(position, SELECTION_PAYLOAD);
+        selectionListener.onSelectionChanged(selectedIds.size());
+    }
+
+    // Switches between today's (task only) and the future (task and date) row format. The diff only
+    // compares tasks, so rows it keeps would show the old format: every bound row is rebound instead.
+    void setShowDates(boolean showDates) {
+        if (this.showDates == showDates) return;
+        this.showDates = showDates;
+        notifyItemRangeChanged(0, getItemCount());
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
+    @NonNull
+    @Override
+    public TaskViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_task, parent, false);
+        return new TaskViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position) {
+        Task task = getItem(position);
+        holder.text.setText(showDates ? task.getText() + ":\n" + LocalDate.ofEpochDay(task.getDay()) : task.getText());
+        holder.itemView.setActivated(selectedIds.contains(task.getId()));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull TaskViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(SELECTION_PAYLOAD)) {
+            // Only the highlight changed: leave the text alone
+            holder.itemView.setActivated(selectedIds.contains(getItem(position).getId()));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    // Holds the row's TextView and forwards taps to the listener, or to the selection while selecting
+    class TaskViewHolder extends RecyclerView.ViewHolder {
+        final TextView text;
+
+        TaskViewHolder(@NonNull View itemView) {
+            super(itemView);
+            text = itemView.findViewById(R.id.taskText);
+            itemView.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) return;
+                if (isSelecting()) {
+                    toggleSelection(position);
+                } else {
+                    listener.onTaskClick(getItem(position));
+                }
+            });
+            itemView.setOnLongClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) return false;
+                toggleSelection(position);
+                return true;
+            });
+        }
+    }
+}
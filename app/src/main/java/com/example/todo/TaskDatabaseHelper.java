@@ -0,0 +1,267 @@
+package com.example.todo;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+// Helper class to manage the SQLite database creation and versioning.
+// A single instance is shared by the whole process so its connection stays open between statements.
+//
+// Schema history:
+//   v1: tasks(task TEXT NOT NULL, taskDate DATE) with "yyyy-MM-dd" strings, no key, no index
+//   v2: tasks(id INTEGER PRIMARY KEY, task TEXT NOT NULL, day INTEGER NOT NULL) with epoch days
+//       and an index on (day, id)
+//   v3: daily_stats(day INTEGER PRIMARY KEY, created, completed, cancelled), kept up to date in the
+//       same transaction as every add, complete and cancel
+//   v4: archived_tasks(id, task, day, archived_on): tasks whose day has passed, moved there in chunks
+//   v5: tasks_fts, an FTS4 full-text index over tasks.task kept in sync by triggers
+//   v6: recurrence_rules (one row per repeating task) and recurrence_exceptions (one row per
+//       occurrence completed or skipped); occurrences themselves are never stored
+//   v7: tasks.due_at, the optional instant a task is due, with a partial index over the tasks that have one
+//   v8: lists (task lists) and tasks.list_id with an index on (list_id, day, id); daily_stats keyed by
+//       (day, list_id); tags and task_tags(tag_id, day, task_id), filled from the #words of each task
+class TaskDatabaseHelper extends SQLiteOpenHelper {
+    // Name of the database file
+    static final String DATABASE_NAME = "taskstodo.db";
+    // Current schema version
+    static final int DATABASE_VERSION = 8;
+    // Number of v1 rows copied per migration transaction
+    static final int MIGRATION_BATCH_SIZE = 5000;
+    // Statements tagging a task with one of its tags (see TaskTags): the tag's row is created if needed
+    // (bound to the tag), then linked to the task (bound to the task's day, its id and the tag)
+    static final String INSERT_TAG = "INSERT OR IGNORE INTO tags(name) VALUES(?)";
+    static final String INSERT_TASK_TAG =
+            "INSERT OR IGNORE INTO task_tags(tag_id, day, task_id) SELECT id, ?, ? FROM tags WHERE name = ?";
+    // Process-wide instance, created on first use
+    private static TaskDatabaseHelper instance;
+
+    // Returns the process-wide helper, bound to the application context so no Activity is retained
+    static synchronized TaskDatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new TaskDatabaseHelper(context.getApplicationContext(), DATABASE_NAME);
+        }
+        return instance;
+    }
+
+    // Constructor for the database helper; tests and benchmarks use their own database name
+    TaskDatabaseHelper(Context context, String name) {
+        super(context, name, null, DATABASE_VERSION); // Database name and version
+        // Write-ahead logging lets the reader pool query while the writer thread commits
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    // Called when the database is created for the first time
+    public void onCreate(SQLiteDatabase db) {
+        // 'id' aliases the rowid, so lookups and deletes by id are direct b-tree seeks
+        db.execSQL("CREATE TABLE IF NOT EXISTS tasks (id INTEGER PRIMARY KEY, task TEXT NOT NULL, day INTEGER NOT NULL, "
+                + "due_at INTEGER, list_id INTEGER NOT NULL DEFAULT " + TaskList.DEFAULT_ID + ")");
+        // Serves "day = ?", "day > ?" and "day < ?" as range scans, already ordered by (day, id),
+        // and answers COUNT(*) per day from the index alone
+        db.execSQL("CREATE INDEX IF NOT EXISTS tasks_day_id ON tasks(day, id)");
+        createDueIndex(db);
+        createLists(db);
+        createTags(db);
+        createDailyStats(db);
+        createArchivedTasks(db);
+        createTaskSearch(db);
+        createRecurrence(db);
+    }
+
+    // Orders the tasks that have a reminder by due time, so the next one is a single seek.
+    // Partial: tasks without a due time (most of them) are not in it and cost nothing to maintain.
+    private static void createDueIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS tasks_due_at ON tasks(due_at, id) WHERE due_at IS NOT NULL");
+    }
+
+    // Task lists; the default one always exists and holds every task added without a list.
+    // The (list_id, day, id) index serves a list's day and its future pages with the same seeks as
+    // tasks_day_id does for all tasks.
+    private static void createLists(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS lists (id INTEGER PRIMARY KEY, name TEXT NOT NULL)");
+        db.execSQL("INSERT OR IGNORE INTO lists(id, name) VALUES(?, ?)",
+                new Object[]{TaskList.DEFAULT_ID, TaskList.DEFAULT_NAME});
+        db.execSQL("CREATE INDEX IF NOT EXISTS tasks_list_day_id ON tasks(list_id, day, id)");
+    }
+
+    // Tags and the tasks carrying them. task_tags repeats the task's day so that a tag's tasks on a day, or
+    // after a (day, id) key, are one range scan of its key; the task_id index and the trigger drop a
+    // task's links with the task, whatever deletes it.
+    private static void createTags(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS tags (id INTEGER PRIMARY KEY, name TEXT NOT NULL UNIQUE)");
+        db.execSQL("CREATE TABLE IF NOT EXISTS task_tags (tag_id INTEGER NOT NULL, day INTEGER NOT NULL, "
+                + "task_id INTEGER NOT NULL, PRIMARY KEY (tag_id, day, task_id)) WITHOUT ROWID");
+        db.execSQL("CREATE INDEX IF NOT EXISTS task_tags_task_id ON task_tags(task_id)");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS task_tags_after_delete AFTER DELETE ON tasks BEGIN "
+                + "DELETE FROM task_tags WHERE task_id = old.id; END");
+    }
+
+    // Per-day counters of each task list: tasks scheduled for the day, completed and cancelled.
+    // Keyed by day first, so a day's counters over every list are one range scan.
+    private static void createDailyStats(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS daily_stats (day INTEGER NOT NULL, "
+                + "list_id INTEGER NOT NULL DEFAULT " + TaskList.DEFAULT_ID + ", "
+                + "created INTEGER NOT NULL DEFAULT 0, completed INTEGER NOT NULL DEFAULT 0, "
+                + "cancelled INTEGER NOT NULL DEFAULT 0, PRIMARY KEY (day, list_id)) WITHOUT ROWID");
+    }
+
+    // Past tasks, kept for history instead of being deleted; archived_on is the epoch day of the sweep.
+    // Ids are the archive's own, since a task id may be reused once the task left the tasks table.
+    private static void createArchivedTasks(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS archived_tasks (id INTEGER PRIMARY KEY, task TEXT NOT NULL, "
+                + "day INTEGER NOT NULL, archived_on INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS archived_tasks_day_id ON archived_tasks(day, id)");
+    }
+
+    // Full-text index over the task text. It stores no copy of the text (content="tasks") and its docid
+    // is the task id; prefix indexes make 2- and 3-character prefix queries as cheap as whole words.
+    // Triggers keep it in sync with every insert, update and delete on tasks, whatever the code path.
+    private static void createTaskSearch(SQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS tasks_fts USING fts4(content=\"tasks\", task, prefix=\"2,3\")");
+        // The old text must still be in tasks when it is removed from the index, hence BEFORE
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS tasks_fts_before_delete BEFORE DELETE ON tasks BEGIN "
+                + "DELETE FROM tasks_fts WHERE docid = old.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS tasks_fts_before_update BEFORE UPDATE OF task ON tasks BEGIN "
+                + "DELETE FROM tasks_fts WHERE docid = old.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS tasks_fts_after_update AFTER UPDATE OF task ON tasks BEGIN "
+                + "INSERT INTO tasks_fts(docid, task) VALUES(new.id, new.task); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS tasks_fts_after_insert AFTER INSERT ON tasks BEGIN "
+                + "INSERT INTO tasks_fts(docid, task) VALUES(new.id, new.task); END");
+    }
+
+    // Repeating tasks. frequency is a RecurrenceRule.Frequency name, end_day is NULL for a rule that
+    // never ends, and weekdays is the bit mask of a weekly rule (bit 0 for Monday).
+    // Exceptions are keyed by day first, so the exceptions of a displayed window are one range scan.
+    private static void createRecurrence(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS recurrence_rules (id INTEGER PRIMARY KEY, task TEXT NOT NULL, "
+                + "start_day INTEGER NOT NULL, end_day INTEGER, frequency TEXT NOT NULL, "
+                + "repeat_every INTEGER NOT NULL DEFAULT 1, weekdays INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE TABLE IF NOT EXISTS recurrence_exceptions (day INTEGER NOT NULL, rule_id INTEGER NOT NULL, "
+                + "state INTEGER NOT NULL, PRIMARY KEY (day, rule_id)) WITHOUT ROWID");
+    }
+
+    // Counts the existing tasks of each day as "created"; completions and cancellations before v3 are unknown
+    private static void seedDailyStats(SQLiteDatabase db) {
+        db.execSQL("INSERT OR REPLACE INTO daily_stats(day, created) SELECT day, COUNT(*) FROM tasks GROUP BY day");
+    }
+
+    // Links the existing tasks to the tags of their text; only the tasks containing a '#' are parsed
+    private static void tagExistingTasks(SQLiteDatabase db) {
+        SQLiteStatement insertTag = db.compileStatement(INSERT_TAG);
+        SQLiteStatement insertTaskTag = db.compileStatement(INSERT_TASK_TAG);
+        Cursor cursor = db.rawQuery("SELECT id, task, day FROM tasks WHERE instr(task, '#') > 0", null);
+        try {
+            while (cursor.moveToNext()) {
+                for (String tag : TaskTags.parse(cursor.getString(1))) {
+                    insertTag.bindString(1, tag);
+                    insertTag.executeInsert();
+                    insertTaskTag.bindLong(1, cursor.getLong(2));
+                    insertTaskTag.bindLong(2, cursor.getLong(0));
+                    insertTaskTag.bindString(3, tag);
+                    insertTaskTag.executeInsert();
+                }
+            }
+        } finally {
+            cursor.close();
+            insertTag.close();
+            insertTaskTag.close();
+        }
+    }
+
+    @Override
+    // Called when the database needs to be upgraded (version change).
+    // Runs inside a single transaction, so it only reshapes the schema; the v1 rows are moved
+    // afterwards in onOpen() in short batched transactions.
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            // Keep the v1 rows aside and create the v2 table next to them
+            db.execSQL("ALTER TABLE tasks RENAME TO tasks_v1");
+            onCreate(db);
+        }
+        if (oldVersion < 3) {
+            createDailyStats(db);
+            seedDailyStats(db);
+        }
+        if (oldVersion < 4) {
+            createArchivedTasks(db);
+        }
+        if (oldVersion < 5) {
+            createTaskSearch(db);
+            // Index the tasks that already exist
+            db.execSQL("INSERT INTO tasks_fts(tasks_fts) VALUES('rebuild')");
+        }
+        if (oldVersion < 6) {
+            createRecurrence(db);
+        }
+        if (oldVersion < 7) {
+            // A v1 database already got the current tasks table from onCreate() above
+            if (oldVersion >= 2) db.execSQL("ALTER TABLE tasks ADD COLUMN due_at INTEGER");
+            createDueIndex(db);
+        }
+        if (oldVersion < 8) {
+            // Likewise for list_id and the (day, list_id) key of daily_stats
+            if (oldVersion >= 2) {
+                db.execSQL("ALTER TABLE tasks ADD COLUMN list_id INTEGER NOT NULL DEFAULT " + TaskList.DEFAULT_ID);
+                // The key of daily_stats changes, so the table is rebuilt; every counter so far is the default list's
+                db.execSQL("ALTER TABLE daily_stats RENAME TO daily_stats_v7");
+                createDailyStats(db);
+                db.execSQL("INSERT INTO daily_stats(day, list_id, created, completed, cancelled) "
+                        + "SELECT day, " + TaskList.DEFAULT_ID + ", created, completed, cancelled FROM daily_stats_v7");
+                db.execSQL("DROP TABLE daily_stats_v7");
+            }
+            createLists(db);
+            createTags(db);
+            tagExistingTasks(db);
+        }
+    }
+
+    @Override
+    // Called every time the database is opened, after any upgrade has been committed
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        if (!db.isReadOnly()) {
+            migrateV1Rows(db);
+        }
+    }
+
+    // Copies the rows left in 'tasks_v1' into 'tasks', converting "yyyy-MM-dd" strings to epoch days.
+    // Each batch is inserted and removed from tasks_v1 in the same transaction, so an interrupted
+    // migration resumes where it stopped the next time the database is opened.
+    private void migrateV1Rows(SQLiteDatabase db) {
+        if (DatabaseUtils.queryNumEntries(db, "sqlite_master", "type='table' AND name='tasks_v1'") == 0) {
+            return;
+        }
+        // Walk the old rowids in order so the new ids keep the original insertion order
+        long lastRowId = DatabaseUtils.longForQuery(db, "SELECT IFNULL(MAX(rowid), 0) FROM tasks_v1", null);
+        long from = DatabaseUtils.longForQuery(db, "SELECT IFNULL(MIN(rowid), 0) FROM tasks_v1", null);
+        while (from <= lastRowId) {
+            long to = from + MIGRATION_BATCH_SIZE - 1;
+            Object[] range = new Object[]{from, to};
+            db.beginTransaction();
+            try {
+                // julianday() parses "yyyy-MM-dd"; rows without a valid date are kept and moved to today
+                db.execSQL("INSERT INTO tasks(task, day) "
+                        + "SELECT task, CAST(IFNULL(julianday(taskDate), julianday(date('now', 'localtime'))) - 2440587.5 AS INTEGER) "
+                        + "FROM tasks_v1 WHERE rowid BETWEEN ? AND ? ORDER BY rowid", range);
+                db.execSQL("DELETE FROM tasks_v1 WHERE rowid BETWEEN ? AND ?", range);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            from = to + 1;
+        }
+        // The stats were seeded while the rows were still in tasks_v1: count them now, atomically with the drop
+        db.beginTransaction();
+        try {
+            seedDailyStats(db);
+            tagExistingTasks(db);
+            db.execSQL("DROP TABLE tasks_v1");
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.todo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns the text of the task input into tasks: one task per non-blank line, trimmed.
+// A pasted checklist therefore becomes a bulk add, while a single line stays a single task.
+// Common list markers ("- ", "* ", "[ ] ") at the start of a line are dropped.
+public final class TaskLines {
+    // Checked in order, so "- [ ] " wins over "- "; \u2022 is the bullet character
+    private static final String[] MARKERS = {"- [ ] ", "[ ] ", "- ", "* ", "\u2022 "};
+
+    private TaskLines() {
+    }
+
+    public static List<String> split(String input) {
+        List<String> tasks = new ArrayList<>();
+        for (String line : input.split("\\R")) {
+            String task = stripMarker(line.trim());
+            if (!task.isEmpty()) tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static String stripMarker(String line) {
+        for (String marker : MARKERS) {
+            if (line.startsWith(marker)) return line.substring(marker.length()).trim();
+        }
+        return line;
+    }
+}
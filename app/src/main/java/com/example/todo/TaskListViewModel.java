@@ -0,0 +1,194 @@
+package com.example.todo;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// State of the task screen that survives configuration changes: the displayed list, the view mode and
+// filter, the task lists and tags to choose from, the day and options of the next task, and today's
+// completion. A recreated MainActivity redraws from it instead of querying the database again. It never
+// holds the activity: the future list's pager loads through the repository and hands its windows to
+// whichever activity is currently attached.
+public class TaskListViewModel extends AndroidViewModel {
+    // Paging parameters for the future list: rows per page, pages kept in memory,
+    // and how close to the edge of the window the next page is requested
+    static final int FUTURE_PAGE_SIZE = 50;
+    static final int FUTURE_MAX_PAGES = 4;
+    static final int FUTURE_PREFETCH_DISTANCE = 15;
+    // Completion percentage before today's stats have been read
+    private static final int UNKNOWN = -1;
+
+    private final TaskRepository repository;
+    // Tasks currently displayed
+    private List<Task> tasks = new ArrayList<>();
+    // Whether tasks came from the database (not only from the startup snapshot)
+    private boolean loaded;
+    // Which task list is displayed (true for today's tasks)
+    private boolean todaysTasks = true;
+    // Task list or tag the displayed tasks are restricted to
+    private TaskFilter filter = TaskFilter.ALL;
+    // Task lists with today's badge counts, and tags in use; null until first loaded
+    private List<TaskList> lists;
+    private List<String> tags;
+    // Day (epoch day) selected for a new task; set to today when the screen is first created
+    private long taskDate;
+    // Time of day the next task's reminder is due, null for no reminder
+    private LocalTime taskDueTime;
+    // How the next task repeats, null when it happens once
+    private RecurrenceRule.Frequency repeat;
+    // Days of the week of a weekly repeat (see RecurrenceRule.getWeekdays())
+    private int repeatWeekdays;
+    // Last completion percentage shown, or UNKNOWN
+    private int completionPercent = UNKNOWN;
+    // Bounded, keyset-paginated window over the future tasks (set while the future list is shown)
+    private TaskPager futurePager;
+    // Receives the future list's windows; set by the attached activity, null between activities
+    private TaskPager.Listener windowListener;
+    // Set once the screen is gone for good; pages still in flight are then dropped
+    private boolean cleared;
+
+    public TaskListViewModel(@NonNull Application application) {
+        super(application);
+        repository = ((TodoApplication) application).getRepository();
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    // Records the displayed list; fromDatabase is false for the startup snapshot and search results
+    public void setTasks(List<Task> tasks, boolean fromDatabase) {
+        this.tasks = tasks;
+        if (fromDatabase) loaded = true;
+    }
+
+    // Whether a previous activity already loaded the list, so a recreated one can redraw without queries
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean isTodaysTasks() {
+        return todaysTasks;
+    }
+
+    public void setTodaysTasks(boolean todaysTasks) {
+        this.todaysTasks = todaysTasks;
+    }
+
+    public TaskFilter getFilter() {
+        return filter;
+    }
+
+    public void setFilter(TaskFilter filter) {
+        this.filter = filter;
+    }
+
+    public List<TaskList> getLists() {
+        return lists;
+    }
+
+    public void setLists(List<TaskList> lists) {
+        this.lists = lists;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public long getTaskDate() {
+        return taskDate;
+    }
+
+    public void setTaskDate(long taskDate) {
+        this.taskDate = taskDate;
+    }
+
+    public LocalTime getTaskDueTime() {
+        return taskDueTime;
+    }
+
+    public void setTaskDueTime(LocalTime taskDueTime) {
+        this.taskDueTime = taskDueTime;
+    }
+
+    public RecurrenceRule.Frequency getRepeat() {
+        return repeat;
+    }
+
+    public void setRepeat(RecurrenceRule.Frequency repeat) {
+        this.repeat = repeat;
+    }
+
+    public int getRepeatWeekdays() {
+        return repeatWeekdays;
+    }
+
+    public void setRepeatWeekdays(int repeatWeekdays) {
+        this.repeatWeekdays = repeatWeekdays;
+    }
+
+    public boolean hasCompletionPercent() {
+        return completionPercent != UNKNOWN;
+    }
+
+    public int getCompletionPercent() {
+        return Math.max(0, completionPercent);
+    }
+
+    public void setCompletionPercent(int completionPercent) {
+        this.completionPercent = completionPercent;
+    }
+
+    // The future list's pager, or null before the future list was first shown
+    public TaskPager getFuturePager() {
+        return futurePager;
+    }
+
+    // Attaches the activity's handler of the future list's windows; null detaches it
+    public void setWindowListener(TaskPager.Listener windowListener) {
+        this.windowListener = windowListener;
+    }
+
+    // Starts a new window over the tasks after today that pass the current filter, replacing the previous one
+    public void startFuturePager(long today) {
+        TaskFilter filter = this.filter;
+        futurePager = new TaskPager(today, FUTURE_PAGE_SIZE, FUTURE_MAX_PAGES, FUTURE_PREFETCH_DISTANCE,
+                new TaskPager.PageLoader() {
+                    @Override
+                    public void loadAfter(long day, long id, int limit, TaskRepository.Callback<List<Task>> callback) {
+                        repository.loadTasksAfter(filter, day, id, limit, whileActive(callback));
+                    }
+
+                    @Override
+                    public void loadBefore(long day, long id, int limit, TaskRepository.Callback<List<Task>> callback) {
+                        repository.loadTasksBefore(filter, today, day, id, limit, whileActive(callback));
+                    }
+                },
+                window -> {
+                    if (windowListener != null) windowListener.onWindowChanged(window);
+                });
+        futurePager.start();
+    }
+
+    @Override
+    protected void onCleared() {
+        cleared = true;
+        windowListener = null;
+    }
+
+    // Wraps a repository callback so it is dropped once the screen is gone
+    private <T> TaskRepository.Callback<T> whileActive(TaskRepository.Callback<T> callback) {
+        return result -> {
+            if (!cleared) callback.onResult(result);
+        };
+    }
+}
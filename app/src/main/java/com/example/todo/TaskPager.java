@@ -0,0 +1,156 @@
+package com.example.todo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Keeps a bounded, scrolling window over the future tasks (day > today), ordered by (day, id).
+// Pages are fetched with keyset pagination: each request starts strictly after (or before) the
+// (day, id) key of the last (or first) task already loaded, so a page costs the same index seek
+// no matter how deep into the list the user has scrolled. The window holds at most
+// maxPages * pageSize tasks; pages scrolled far out of view are dropped and fetched again
+// if the user scrolls back. Not thread-safe: it is driven from the main thread.
+public class TaskPager {
+    // Fetches pages asynchronously and reports them through the callback (on the main thread in the app)
+    public interface PageLoader {
+        // Up to limit tasks strictly after (day, id), ascending
+        void loadAfter(long day, long id, int limit, TaskRepository.Callback<List<Task>> callback);
+
+        // Up to limit tasks strictly before (day, id) but after today, ascending
+        void loadBefore(long day, long id, int limit, TaskRepository.Callback<List<Task>> callback);
+    }
+
+    // Receives an immutable snapshot of the window each time it changes
+    public interface Listener {
+        void onWindowChanged(List<Task> window);
+    }
+
+    private final long today;
+    private final int pageSize;
+    private final int maxPages;
+    private final int prefetchDistance;
+    private final PageLoader loader;
+    private final Listener listener;
+
+    // Currently loaded tasks, contiguous in (day, id) order
+    private final ArrayList<Task> window = new ArrayList<>();
+    // Whether the window starts at the first future task / ends at the last one
+    private boolean atStart = true;
+    private boolean atEnd = false;
+    // Whether a page request is in flight; only one runs at a time
+    private boolean loading;
+    // Incremented by refresh() so that answers to older requests are ignored
+    private int generation;
+
+    public TaskPager(long today, int pageSize, int maxPages, int prefetchDistance,
+                     PageLoader loader, Listener listener) {
+        this.today = today;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.prefetchDistance = prefetchDistance;
+        this.loader = loader;
+        this.listener = listener;
+    }
+
+    // Loads the first page
+    public void start() {
+        atStart = true;
+        atEnd = false;
+        window.clear();
+        loadNext();
+    }
+
+    // Reloads the window in place (after an add or delete), keeping the user's scroll region
+    public void refresh() {
+        generation++;
+        loading = false;
+        if (window.isEmpty() || atStart) {
+            int limit = Math.max(window.size(), pageSize);
+            window.clear();
+            atStart = true;
+            request(true, today, Long.MAX_VALUE, limit);
+        } else {
+            // (day, id) >= first key, expressed as "after (day, id - 1)" since ids are integers
+            Task first = window.get(0);
+            int limit = window.size();
+            window.clear();
+            request(true, first.getDay(), first.getId() - 1, limit);
+        }
+    }
+
+    // Called when the visible rows change; prefetches in the direction the user is scrolling
+    public void onVisibleRangeChanged(int firstVisible, int lastVisible) {
+        if (loading) return;
+        if (!atEnd && lastVisible >= window.size() - prefetchDistance) {
+            loadNext();
+        } else if (!atStart && firstVisible <= prefetchDistance) {
+            loadPrevious();
+        }
+    }
+
+    // Snapshot of the loaded tasks
+    public List<Task> getWindow() {
+        return Collections.unmodifiableList(new ArrayList<>(window));
+    }
+
+    // Maximum number of tasks the window ever holds
+    public int getCapacity() {
+        return pageSize * maxPages;
+    }
+
+    private void loadNext() {
+        if (window.isEmpty()) {
+            request(true, today, Long.MAX_VALUE, pageSize);
+        } else {
+            Task last = window.get(window.size() - 1);
+            request(true, last.getDay(), last.getId(), pageSize);
+        }
+    }
+
+    private void loadPrevious() {
+        Task first = window.get(0);
+        request(false, first.getDay(), first.getId(), pageSize);
+    }
+
+    private void request(boolean forward, long day, long id, int limit) {
+        loading = true;
+        int requestGeneration = generation;
+        TaskRepository.Callback<List<Task>> callback = page -> {
+            if (requestGeneration != generation) return;
+            loading = false;
+            if (forward) {
+                appendPage(page, limit);
+            } else {
+                prependPage(page, limit);
+            }
+            listener.onWindowChanged(getWindow());
+        };
+        if (forward) {
+            loader.loadAfter(day, id, limit, callback);
+        } else {
+            loader.loadBefore(day, id, limit, callback);
+        }
+    }
+
+    private void appendPage(List<Task> page, int limit) {
+        window.addAll(page);
+        atEnd = page.size() < limit;
+        // Drop the oldest rows to keep the window bounded
+        int overflow = window.size() - getCapacity();
+        if (overflow > 0) {
+            window.subList(0, overflow).clear();
+            atStart = false;
+        }
+    }
+
+    private void prependPage(List<Task> page, int limit) {
+        window.addAll(0, page);
+        atStart = page.size() < limit;
+        // Drop the rows furthest ahead to keep the window bounded
+        int overflow = window.size() - getCapacity();
+        if (overflow > 0) {
+            window.subList(window.size() - overflow, window.size()).clear();
+            atEnd = false;
+        }
+    }
+}
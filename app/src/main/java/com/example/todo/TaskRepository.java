@@ -0,0 +1,410 @@
+package com.example.todo;
+
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Asynchronous front of the TaskStore: keeps every database call off the calling (UI) thread.
+// Writes run one at a time, in submission order, on a single writer thread;
+// reads run concurrently on a small reader pool. Results are returned as Futures
+// and, when a callback is given, delivered on the callback executor (the main thread in the app).
+public class TaskRepository {
+    // Number of threads serving read queries
+    private static final int READER_THREADS = 2;
+    // Target duration of one archival chunk, i.e. the longest a user write waits behind the sweep
+    private static final long ARCHIVE_CHUNK_BUDGET_MS = 16;
+
+    // Receives the result of an asynchronous operation on the callback executor
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    // Blocking store performing the actual I/O
+    private final TaskStore store;
+    // Serialized executor for every mutation, so writes never race each other
+    private final ExecutorService writeExecutor;
+    // Pool for queries, which may run concurrently with each other and with writes
+    private final ExecutorService readExecutor;
+    // Executor on which callbacks are delivered
+    private final Executor callbackExecutor;
+    // Set once the store is closed; only accessed on the writer thread
+    private boolean storeClosed;
+    // Keeps the reminder alarm on the next due task; null when reminders are not used. Only run on the writer thread.
+    private ReminderScheduler reminders;
+    // Number of operations submitted so far, so tests can check that a screen did not hit the store
+    private final AtomicLong operationCount = new AtomicLong();
+
+    public TaskRepository(TaskStore store, Executor callbackExecutor) {
+        this(store,
+                Executors.newSingleThreadExecutor(threadFactory("task-writer")),
+                Executors.newFixedThreadPool(READER_THREADS, threadFactory("task-reader")),
+                callbackExecutor);
+    }
+
+    TaskRepository(TaskStore store, ExecutorService writeExecutor, ExecutorService readExecutor,
+                   Executor callbackExecutor) {
+        this.store = store;
+        this.writeExecutor = writeExecutor;
+        this.readExecutor = readExecutor;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    // Sets the scheduler re-armed by every write that may move the next reminder; call before any write
+    public void setReminderScheduler(ReminderScheduler reminders) {
+        this.reminders = reminders;
+    }
+
+    // Insert a new task scheduled for the given day; the callback receives its id
+    public Future<Long> addTask(String task, long day, Callback<Long> callback) {
+        return addTask(task, day, Reminder.NO_DUE, callback);
+    }
+
+    // Insert a new task with a reminder at dueAt (epoch milliseconds, or Reminder.NO_DUE)
+    public Future<Long> addTask(String task, long day, long dueAt, Callback<Long> callback) {
+        return addTask(task, day, dueAt, TaskList.DEFAULT_ID, callback);
+    }
+
+    // Insert a new task into the given task list, with a reminder at dueAt (or Reminder.NO_DUE)
+    public Future<Long> addTask(String task, long day, long dueAt, long listId, Callback<Long> callback) {
+        return submit(writeExecutor, () -> {
+            // The reminder is written by the insert itself, in the same transaction
+            long id = listId == TaskList.DEFAULT_ID && dueAt == Reminder.NO_DUE ? store.addTask(task, day)
+                    : store.addTasks(Collections.singletonList(task), day, listId, dueAt).get(0);
+            if (dueAt != Reminder.NO_DUE) dueTimesSet(Collections.singletonList(new Reminder(id, task, dueAt)));
+            return id;
+        }, callback);
+    }
+
+    // Insert every task of the list for the given day in one transaction; the callback receives their ids
+    public Future<List<Long>> addTasks(List<String> tasks, long day, Callback<List<Long>> callback) {
+        return addTasks(tasks, day, Reminder.NO_DUE, callback);
+    }
+
+    // Insert every task of the list for the given day, each with a reminder at dueAt (or Reminder.NO_DUE)
+    public Future<List<Long>> addTasks(List<String> tasks, long day, long dueAt, Callback<List<Long>> callback) {
+        return addTasks(tasks, day, dueAt, TaskList.DEFAULT_ID, callback);
+    }
+
+    // Same, into the given task list
+    public Future<List<Long>> addTasks(List<String> tasks, long day, long dueAt, long listId,
+                                       Callback<List<Long>> callback) {
+        return submit(writeExecutor, () -> {
+            List<Long> ids = store.addTasks(tasks, day, listId, dueAt);
+            if (dueAt != Reminder.NO_DUE) {
+                List<Reminder> added = new ArrayList<>(ids.size());
+                for (int i = 0; i < ids.size(); i++) added.add(new Reminder(ids.get(i), tasks.get(i), dueAt));
+                dueTimesSet(added);
+            }
+            return ids;
+        }, callback);
+    }
+
+    // Create a task list; the callback receives its id
+    public Future<Long> addList(String name, Callback<Long> callback) {
+        return submit(writeExecutor, () -> store.addList(name), callback);
+    }
+
+    // Set or clear (Reminder.NO_DUE) the reminder of a task
+    public Future<Void> setDueAt(Task task, long dueAt, Callback<Void> callback) {
+        return submit(writeExecutor, () -> {
+            store.setDueAt(task.getId(), dueAt);
+            // Occurrences of recurring tasks have no stored reminder
+            if (dueAt == Reminder.NO_DUE || RecurrenceRule.isOccurrenceId(task.getId())) {
+                rescheduleReminders();
+            } else {
+                dueTimesSet(Collections.singletonList(new Reminder(task.getId(), task.getText(), dueAt)));
+            }
+            return null;
+        }, callback);
+    }
+
+    // Notify the reminders that came due and arm the alarm for the next one; called when the alarm
+    // goes off, after boot, and when the app starts in case its alarm was cleared. whenDone, if any, runs
+    // on the writer thread once the work is over, whether or not it succeeded.
+    public Future<Void> fireReminders(Runnable whenDone) {
+        return submit(writeExecutor, () -> {
+            try {
+                if (reminders != null && !storeClosed) reminders.onAlarm();
+                return null;
+            } finally {
+                if (whenDone != null) whenDone.run();
+            }
+        }, null);
+    }
+
+    // Store repeating tasks in one transaction; the callback receives their rule ids
+    public Future<List<Long>> addRecurrences(List<RecurrenceRule> rules, Callback<List<Long>> callback) {
+        List<RecurrenceRule> copy = new ArrayList<>(rules);
+        return submit(writeExecutor, () -> store.addRecurrences(copy), callback);
+    }
+
+    // Stop a repeating task after lastDay
+    public Future<Void> endRecurrence(long ruleId, long lastDay, Callback<Void> callback) {
+        return submit(writeExecutor, () -> {
+            store.endRecurrence(ruleId, lastDay);
+            return null;
+        }, callback);
+    }
+
+    // Delete a single task, counting it as completed
+    public Future<Void> completeTask(Task task, Callback<Void> callback) {
+        return submit(writeExecutor, () -> {
+            store.completeTask(task.getId());
+            rescheduleReminders();
+            return null;
+        }, callback);
+    }
+
+    // Delete a single task, counting it as cancelled
+    public Future<Void> cancelTask(Task task, Callback<Void> callback) {
+        return submit(writeExecutor, () -> {
+            store.cancelTask(task.getId());
+            rescheduleReminders();
+            return null;
+        }, callback);
+    }
+
+    // Delete the given tasks in one transaction, counting them as completed
+    public Future<Void> completeTasks(List<Task> tasks, Callback<Void> callback) {
+        List<Long> ids = idsOf(tasks);
+        return submit(writeExecutor, () -> {
+            store.completeTasks(ids);
+            rescheduleReminders();
+            return null;
+        }, callback);
+    }
+
+    // Delete the given tasks in one transaction, counting them as cancelled
+    public Future<Void> cancelTasks(List<Task> tasks, Callback<Void> callback) {
+        List<Long> ids = idsOf(tasks);
+        return submit(writeExecutor, () -> {
+            store.cancelTasks(ids);
+            rescheduleReminders();
+            return null;
+        }, callback);
+    }
+
+    // Move every task scheduled before today into the archive, in the background.
+    // Each chunk is a separate job on the writer thread, so writes submitted meanwhile run between
+    // chunks instead of waiting for the whole sweep. The callback receives the number of archived tasks.
+    // If the repository is shut down mid-sweep, it stops after the current chunk; the rest is left
+    // for the next sweep.
+    public Future<Integer> archivePastTasks(long today, Callback<Integer> callback) {
+        operationCount.incrementAndGet();
+        ArchiveSweep sweep = new ArchiveSweep(store, today,
+                TimeUnit.MILLISECONDS.toNanos(ARCHIVE_CHUNK_BUDGET_MS), System::nanoTime);
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Runnable chunk = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // A chunk queued behind shutdown() must not touch the closed store
+                    if (!storeClosed && sweep.runChunk()) {
+                        // Queue the next chunk behind whatever was submitted during this one
+                        writeExecutor.execute(this);
+                        return;
+                    }
+                } catch (RejectedExecutionException e) {
+                    // Shut down between the check and the submission: stop here
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                result.complete(sweep.getArchivedCount());
+                if (callback != null) {
+                    callbackExecutor.execute(() -> callback.onResult(sweep.getArchivedCount()));
+                }
+            }
+        };
+        writeExecutor.execute(chunk);
+        return result;
+    }
+
+    // Load one page of archived tasks preceding the (day, id) key, most recent first
+    public Future<List<Task>> loadArchivedTasks(long beforeDay, long beforeId, int limit,
+                                                Callback<List<Task>> callback) {
+        return submit(readExecutor, () -> store.loadArchivedTasks(beforeDay, beforeId, limit), callback);
+    }
+
+    // Load the tasks scheduled on the given day
+    public Future<List<Task>> loadTasks(long day, Callback<List<Task>> callback) {
+        return submit(readExecutor, () -> store.loadTasks(day), callback);
+    }
+
+    // Load the tasks scheduled on the given day that pass the filter
+    public Future<List<Task>> loadTasks(TaskFilter filter, long day, Callback<List<Task>> callback) {
+        return submit(readExecutor, () -> store.loadTasks(filter, day), callback);
+    }
+
+    // Load one page of tasks following the (day, id) key
+    public Future<List<Task>> loadTasksAfter(long afterDay, long afterId, int limit, Callback<List<Task>> callback) {
+        return loadTasksAfter(TaskFilter.ALL, afterDay, afterId, limit, callback);
+    }
+
+    // Same, keeping only the tasks that pass the filter
+    public Future<List<Task>> loadTasksAfter(TaskFilter filter, long afterDay, long afterId, int limit,
+                                             Callback<List<Task>> callback) {
+        return submit(readExecutor, () -> store.loadTasksAfter(filter, afterDay, afterId, limit), callback);
+    }
+
+    // Load one page of future tasks preceding the (day, id) key
+    public Future<List<Task>> loadTasksBefore(long today, long beforeDay, long beforeId, int limit,
+                                              Callback<List<Task>> callback) {
+        return loadTasksBefore(TaskFilter.ALL, today, beforeDay, beforeId, limit, callback);
+    }
+
+    // Same, keeping only the tasks that pass the filter
+    public Future<List<Task>> loadTasksBefore(TaskFilter filter, long today, long beforeDay, long beforeId, int limit,
+                                              Callback<List<Task>> callback) {
+        return submit(readExecutor, () -> store.loadTasksBefore(filter, today, beforeDay, beforeId, limit), callback);
+    }
+
+    // Load one page of tasks matching a full-text expression, ordered by date. Once the cancellation
+    // is cancelled the query stops and the callback is not called.
+    public Future<List<Task>> searchTasks(String match, long afterDay, long afterId, int limit,
+                                          QueryCancellation cancellation, Callback<List<Task>> callback) {
+        return submit(readExecutor, () -> store.searchTasks(match, afterDay, afterId, limit, cancellation),
+                callback == null ? null : result -> {
+                    if (!cancellation.isCanceled()) callback.onResult(result);
+                });
+    }
+
+    // Count the tasks scheduled on the given day
+    public Future<Integer> countTasks(long day, Callback<Integer> callback) {
+        return submit(readExecutor, () -> store.countTasks(day), callback);
+    }
+
+    // Load the completion counters of the given day
+    public Future<DailyStats> loadStats(long day, Callback<DailyStats> callback) {
+        return submit(readExecutor, () -> store.loadStats(day), callback);
+    }
+
+    // Load every task list with its open and done counts on the given day, for the lists' badges
+    public Future<List<TaskList>> loadLists(long day, Callback<List<TaskList>> callback) {
+        return submit(readExecutor, () -> store.loadLists(day), callback);
+    }
+
+    // Load the tags of the stored tasks, in alphabetical order
+    public Future<List<String>> loadTags(Callback<List<String>> callback) {
+        return submit(readExecutor, store::loadTags, callback);
+    }
+
+    // Load the counters of every day in [fromDay, toDay] that has any, e.g. for a history chart
+    public Future<List<DailyStats>> loadStatsBetween(long fromDay, long toDay, Callback<List<DailyStats>> callback) {
+        return submit(readExecutor, () -> store.loadStatsBetween(fromDay, toDay), callback);
+    }
+
+    // Stream every stored task to the channel as a backup file (see TaskBackup), then close the channel.
+    // The callback receives the number of tasks written; onFailure receives the error if writing or
+    // reading the store failed.
+    public Future<Long> exportTasks(WritableByteChannel out, Callback<Long> callback,
+                                    Callback<Exception> onFailure) {
+        return submit(readExecutor, () -> {
+            try (WritableByteChannel channel = out) {
+                return TaskBackup.export(store, channel);
+            } catch (Exception e) {
+                deliverFailure(onFailure, e);
+                throw e;
+            }
+        }, callback);
+    }
+
+    // Import the tasks of a backup file from the channel, skipping those already stored, then close the channel.
+    // Runs on the writer thread in batched transactions; a malformed file keeps the batches before the error.
+    // The callback receives the counts; onFailure receives the error if reading, parsing or storing failed.
+    public Future<TaskBackup.Result> importTasks(ReadableByteChannel in, Callback<TaskBackup.Result> callback,
+                                                 Callback<Exception> onFailure) {
+        return submit(writeExecutor, () -> {
+            try (ReadableByteChannel channel = in) {
+                return TaskBackup.importFrom(channel, store);
+            } catch (Exception e) {
+                deliverFailure(onFailure, e);
+                throw e;
+            } finally {
+                // Imported tasks may carry due times
+                rescheduleReminders();
+            }
+        }, callback);
+    }
+
+    // Number of operations submitted since the repository was created, whether or not they completed
+    public long getOperationCount() {
+        return operationCount.get();
+    }
+
+    // Stop accepting work. Already submitted writes still complete, then the store is closed
+    // on the writer thread once in-flight reads are done; the caller never blocks. Safe to call twice.
+    public void shutdown() {
+        if (writeExecutor.isShutdown()) return;
+        readExecutor.shutdown();
+        writeExecutor.execute(() -> {
+            try {
+                readExecutor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            storeClosed = true;
+            store.close();
+        });
+        writeExecutor.shutdown();
+    }
+
+    // Re-arms the reminder alarm after a write that may have changed the next due task; on the writer thread
+    private void rescheduleReminders() {
+        if (reminders != null) reminders.reschedule();
+    }
+
+    // Re-arms the alarm after tasks were given a due time, notifying those already past; on the writer thread
+    private void dueTimesSet(List<Reminder> added) {
+        if (reminders != null) reminders.onDueSet(added);
+    }
+
+    // Hands an I/O or store error to the failure callback, if any, on the callback executor
+    private void deliverFailure(Callback<Exception> onFailure, Exception error) {
+        if (onFailure != null) {
+            callbackExecutor.execute(() -> onFailure.onResult(error));
+        }
+    }
+
+    // Runs the work on the given executor and hands its result to the callback, if any
+    private <T> Future<T> submit(ExecutorService executor, Callable<T> work, Callback<T> callback) {
+        operationCount.incrementAndGet();
+        return executor.submit(() -> {
+            T result = work.call();
+            if (callback != null) {
+                callbackExecutor.execute(() -> callback.onResult(result));
+            }
+            return result;
+        });
+    }
+
+    // Copies the ids on the calling thread, so the caller may reuse its list
+    private static List<Long> idsOf(List<Task> tasks) {
+        List<Long> ids = new ArrayList<>(tasks.size());
+        for (Task task : tasks) ids.add(task.getId());
+        return ids;
+    }
+
+    // Creates named daemon threads so they are easy to spot in traces and never keep the process alive
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
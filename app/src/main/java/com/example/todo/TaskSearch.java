@@ -0,0 +1,124 @@
+package com.example.todo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Search-as-you-type over the tasks. Each change of the query text restarts a short debounce delay,
+// so a query only runs once the user pauses typing; the query in flight, if any, is cancelled right
+// away. Results come in pages ordered by date and keyed by (day, id); loadMore() appends the next one.
+// Every word typed is matched as a prefix, so "gro mil" finds "Buy groceries and milk".
+// Not thread-safe: used on the main thread, with search callbacks delivered there too.
+public class TaskSearch {
+    // Runs one page of a full-text query, normally TaskRepository.searchTasks
+    public interface Searcher {
+        void search(String match, long afterDay, long afterId, int limit, QueryCancellation cancellation,
+                    TaskRepository.Callback<List<Task>> callback);
+    }
+
+    public interface Listener {
+        // The results of the current query changed (first page, or one more page appended)
+        void onResults(List<Task> results);
+
+        // The query was cleared: the regular list should be shown again
+        void onSearchEnded();
+    }
+
+    private final long debounceMillis;
+    private final int pageSize;
+    private final ClockTicker.Scheduler scheduler;
+    private final Searcher searcher;
+    private final Listener listener;
+    private final Runnable runQuery = this::runQuery;
+    // Match expression of the current query, null when not searching
+    private String match;
+    // Results of the current query loaded so far
+    private List<Task> results = new ArrayList<>();
+    // Cancellation of the page in flight, null when none
+    private QueryCancellation inFlight;
+    // Whether the last page was shorter than pageSize, i.e. there is nothing more to load
+    private boolean exhausted;
+
+    public TaskSearch(long debounceMillis, int pageSize, ClockTicker.Scheduler scheduler, Searcher searcher,
+                      Listener listener) {
+        this.debounceMillis = debounceMillis;
+        this.pageSize = pageSize;
+        this.scheduler = scheduler;
+        this.searcher = searcher;
+        this.listener = listener;
+    }
+
+    // Turns typed text into an FTS match expression: every word, lower-cased and stripped of
+    // punctuation, becomes a prefix term, and all of them must match. Returns null if no word is left.
+    public static String toMatchExpression(String text) {
+        StringBuilder match = new StringBuilder();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append(word).append('*');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    // Whether a query is active (the list shows search results)
+    public boolean isActive() {
+        return match != null;
+    }
+
+    // Called on every change of the search text
+    public void setQuery(String text) {
+        String newMatch = toMatchExpression(text);
+        if (newMatch == null ? match == null : newMatch.equals(match)) return;
+        cancelInFlight();
+        scheduler.cancel(runQuery);
+        boolean wasActive = match != null;
+        match = newMatch;
+        if (match == null) {
+            results = new ArrayList<>();
+            if (wasActive) listener.onSearchEnded();
+            return;
+        }
+        scheduler.postDelayed(runQuery, debounceMillis);
+    }
+
+    // Runs the current query again from the first page, e.g. after a task was added or removed
+    public void refresh() {
+        if (match == null) return;
+        cancelInFlight();
+        scheduler.cancel(runQuery);
+        runQuery();
+    }
+
+    // Loads the next page of results, unless one is already loading or there is none
+    public void loadMore() {
+        if (match == null || inFlight != null || exhausted || results.isEmpty()) return;
+        Task last = results.get(results.size() - 1);
+        requestPage(last.getDay(), last.getId());
+    }
+
+    private void runQuery() {
+        results = new ArrayList<>();
+        exhausted = false;
+        requestPage(Long.MIN_VALUE, Long.MIN_VALUE);
+    }
+
+    private void requestPage(long afterDay, long afterId) {
+        QueryCancellation cancellation = new QueryCancellation();
+        inFlight = cancellation;
+        searcher.search(match, afterDay, afterId, pageSize, cancellation, page -> {
+            // A newer query or page replaced this one meanwhile
+            if (cancellation.isCanceled() || cancellation != inFlight) return;
+            inFlight = null;
+            results.addAll(page);
+            exhausted = page.size() < pageSize;
+            listener.onResults(new ArrayList<>(results));
+        });
+    }
+
+    private void cancelInFlight() {
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.todo;
+
+import android.app.Application;
+import android.content.SharedPreferences;
+import android.os.Process;
+import android.os.SystemClock;
+
+import androidx.core.content.ContextCompat;
+
+import java.time.Clock;
+
+// Application class owning the process-wide TaskRepository, so the database connection,
+// its compiled statements and the worker threads outlive individual Activity instances.
+// It also holds the timeline of the process's cold start, and wires the reminder scheduler to the repository.
+public class TodoApplication extends Application {
+    // Maximum number of tasks kept by the in-memory day cache before far-future days are evicted
+    private static final int TASK_CACHE_SIZE = 5000;
+    // Preferences file and key holding the reminder watermark (see ReminderScheduler.Watermark)
+    private static final String REMINDER_PREFS = "reminders";
+    private static final String FIRED_UP_TO_KEY = "fired_up_to";
+    // Shared repository, created on first use and released by shutdownRepository()
+    private TaskRepository repository;
+    // Phases and milestones of this process's cold start
+    private StartupTimeline startupTimeline;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Measured from the process start, on the uptime clock the platform uses for it
+        startupTimeline = new StartupTimeline(SystemClock::uptimeMillis, Process.getStartUptimeMillis(), new AndroidTracer());
+    }
+
+    public StartupTimeline getStartupTimeline() {
+        return startupTimeline;
+    }
+
+    // Returns the shared repository, (re)opening it if it was shut down
+    public synchronized TaskRepository getRepository() {
+        if (repository == null) {
+            // Reads are served from the day cache when possible; every write goes through it to SQLite
+            TaskStore store = new CachingTaskStore(new SqliteTaskStore(TaskDatabaseHelper.getInstance(this)), TASK_CACHE_SIZE);
+            repository = new TaskRepository(store, ContextCompat.getMainExecutor(this));
+            // Reminders read the due-time index through the same store and arm one AlarmManager alarm
+            repository.setReminderScheduler(new ReminderScheduler(Clock.systemUTC(), store::loadRemindersAfter,
+                    new ReminderAlarm(this), new ReminderNotifier(this), reminderWatermark()));
+        }
+        return repository;
+    }
+
+    // Watermark in a preferences file; commit() rather than apply() so a reminder is never notified twice
+    private ReminderScheduler.Watermark reminderWatermark() {
+        SharedPreferences preferences = getSharedPreferences(REMINDER_PREFS, MODE_PRIVATE);
+        return new ReminderScheduler.Watermark() {
+            @Override
+            public long load() {
+                return preferences.getLong(FIRED_UP_TO_KEY, Long.MIN_VALUE);
+            }
+
+            @Override
+            public void save(long millis) {
+                preferences.edit().putLong(FIRED_UP_TO_KEY, millis).commit();
+            }
+        };
+    }
+
+    // Drains pending writes and closes the connection; called when the last screen finishes
+    public synchronized void shutdownRepository() {
+        if (repository != null) {
+            repository.shutdown();
+            repository = null;
+        }
+    }
+
+    @Override
+    // Only invoked on emulated processes, but keeps shutdown symmetric with creation there
+    public void onTerminate() {
+        shutdownRepository();
+        super.onTerminate();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.todo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ClockTicker}, driven by a fake clock and a manual scheduler.
+ */
+public class ClockTickerTest {
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss", Locale.US);
+
+    private FakeClock clock;
+    private ManualScheduler scheduler;
+    private List<String> shown;
+    private ClockTicker ticker;
+
+    @Before
+    public void setUp() {
+        clock = new FakeClock(Instant.parse("2025-01-01T10:00:00.250Z"));
+        scheduler = new ManualScheduler();
+        shown = new ArrayList<>();
+        ticker = new ClockTicker(clock, scheduler, FORMAT, shown::add);
+    }
+
+    @Test
+    public void start_showsTimeAndAlignsToNextSecond() {
+        ticker.start();
+
+        assertEquals(List.of("10:00:00"), shown);
+        assertEquals(750, scheduler.delay);
+    }
+
+    @Test
+    public void tick_compensatesForLateWakeUps() {
+        ticker.start();
+        // The tick runs 40ms late, after the work of the previous one
+        clock.advance(750 + 40);
+        scheduler.runPending();
+
+        assertEquals(List.of("10:00:00", "10:00:01"), shown);
+        assertEquals(960, scheduler.delay);
+    }
+
+    @Test
+    public void tick_onlyRedrawsWhenTextChanges() {
+        ticker.start();
+        // A spurious early wake-up within the same second must not redraw
+        clock.advance(100);
+        scheduler.runPending();
+
+        assertEquals(1, shown.size());
+    }
+
+    @Test
+    public void stop_cancelsPendingTickAndStartResumes() {
+        ticker.start();
+        ticker.stop();
+
+        assertNull(scheduler.pending);
+        assertFalse(ticker.isRunning());
+
+        clock.advance(5_000);
+        ticker.start();
+        assertEquals(List.of("10:00:00", "10:00:05"), shown);
+    }
+
+    @Test
+    public void ticks_overAnHourNeverDrift() {
+        ticker.start();
+        for (int i = 0; i < 3600; i++) {
+            // Every tick arrives a random-ish few ms after its due time
+            clock.advance(scheduler.delay + (i % 7));
+            scheduler.runPending();
+        }
+        assertEquals(3601, shown.size());
+        assertEquals("11:00:00", shown.get(shown.size() - 1));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.todo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link DayRollover} and {@link DailyStats}, driven by a fake clock:
+ * the day changes exactly at local midnight, once, and the completion percentage never divides by zero.
+ */
+public class DayRolloverTest {
+    private static final ZoneId PARIS = ZoneId.of("Europe/Paris");
+
+    private FakeClock clock;
+    private List<long[]> changes;
+    private DayRollover rollover;
+
+    @Before
+    public void setUp() {
+        // 23:59:58 in Paris on 2025-01-01, while it is still 22:59:58 in UTC
+        clock = new FakeClock(Instant.parse("2025-01-01T22:59:58Z"), PARIS);
+        changes = new ArrayList<>();
+        rollover = new DayRollover(clock, (previous, today) -> changes.add(new long[]{previous, today}));
+    }
+
+    @Test
+    public void today_isTheLocalDate() {
+        assertEquals(LocalDate.of(2025, 1, 1).toEpochDay(), rollover.getToday());
+    }
+
+    @Test
+    public void check_firesOnceAtLocalMidnight() {
+        clock.advance(1_000);
+        assertFalse(rollover.check());
+
+        clock.advance(1_000);
+        assertTrue(rollover.check());
+        assertFalse(rollover.check());
+
+        long jan1 = LocalDate.of(2025, 1, 1).toEpochDay();
+        assertEquals(1, changes.size());
+        assertArrayEquals(new long[]{jan1, jan1 + 1}, changes.get(0));
+        assertEquals(jan1 + 1, rollover.getToday());
+    }
+
+    @Test
+    public void check_followsTheClockBackwards() {
+        // The user moves the system date back a day
+        clock.set(Instant.parse("2024-12-31T12:00:00Z"));
+
+        assertTrue(rollover.check());
+        assertEquals(LocalDate.of(2024, 12, 31).toEpochDay(), rollover.getToday());
+    }
+
+    @Test
+    public void check_afterSeveralDaysInTheBackground_firesOnce() {
+        clock.advance(3 * 24 * 3600 * 1000L);
+
+        assertTrue(rollover.check());
+        assertEquals(1, changes.size());
+        assertEquals(LocalDate.of(2025, 1, 4).toEpochDay(), changes.get(0)[1]);
+    }
+
+    @Test
+    public void check_seesATimeZoneChangeWithTheSystemZoneClock() {
+        TimeZone original = TimeZone.getDefault();
+        try {
+            // 14 hours ahead of UTC it is always a later date than 12 hours behind
+            TimeZone.setDefault(TimeZone.getTimeZone("Etc/GMT+12"));
+            DayRollover system = new DayRollover(new SystemZoneClock(),
+                    (previous, today) -> changes.add(new long[]{previous, today}));
+            long before = system.getToday();
+
+            // The user moves to another time zone while the screen is open
+            TimeZone.setDefault(TimeZone.getTimeZone("Etc/GMT-14"));
+            assertTrue(system.check());
+            assertTrue(system.getToday() > before);
+            assertEquals(1, changes.size());
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+
+    @Test
+    public void completionPercent_isZeroWithoutTasks() {
+        assertEquals(0, new DailyStats(0, 0, 0, 0).getCompletionPercent());
+        // Every task of the day was cancelled
+        assertEquals(0, new DailyStats(0, 2, 0, 2).getCompletionPercent());
+    }
+
+    @Test
+    public void completionPercent_ignoresCancelledTasks() {
+        assertEquals(50, new DailyStats(0, 5, 2, 1).getCompletionPercent());
+        assertEquals(100, new DailyStats(0, 3, 3, 0).getCompletionPercent());
+        assertEquals(2, new DailyStats(0, 5, 2, 1).getOpen());
+    }
+}
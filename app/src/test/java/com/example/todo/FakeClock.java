@@ -0,0 +1,46 @@
+package com.example.todo;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock whose time only moves when the test says so. Shared by the tests of clock-driven classes.
+ */
+class FakeClock extends Clock {
+    private Instant now;
+    private final ZoneId zone;
+
+    FakeClock(Instant now) {
+        this(now, ZoneOffset.UTC);
+    }
+
+    FakeClock(Instant now, ZoneId zone) {
+        this.now = now;
+        this.zone = zone;
+    }
+
+    void advance(long millis) {
+        now = now.plusMillis(millis);
+    }
+
+    void set(Instant instant) {
+        now = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new FakeClock(now, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.todo;
+
+/**
+ * Scheduler holding at most one pending runnable, run on demand. Shared by the tests of scheduled classes.
+ */
+class ManualScheduler implements ClockTicker.Scheduler {
+    Runnable pending;
+    long delay;
+
+    @Override
+    public void postDelayed(Runnable runnable, long delayMillis) {
+        pending = runnable;
+        delay = delayMillis;
+    }
+
+    @Override
+    public void cancel(Runnable runnable) {
+        if (pending == runnable) pending = null;
+    }
+
+    void runPending() {
+        Runnable runnable = pending;
+        pending = null;
+        runnable.run();
+    }
+}
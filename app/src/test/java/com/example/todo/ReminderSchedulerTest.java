@@ -0,0 +1,244 @@
+package com.example.todo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ReminderScheduler} with a fake clock: each reminder fires once, at
+ * its due time, through a single alarm that is only touched when the next due time moves.
+ */
+public class ReminderSchedulerTest {
+    private static final long START = Instant.parse("2025-01-01T08:00:00Z").toEpochMilli();
+    private static final long MINUTE = 60_000;
+
+    private FakeClock clock;
+    private DueTimes index;
+    private Alarm alarm;
+    private List<Reminder> notified;
+    private long savedWatermark;
+    private ReminderScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        clock = new FakeClock(Instant.ofEpochMilli(START));
+        index = new DueTimes();
+        alarm = new Alarm();
+        notified = new ArrayList<>();
+        savedWatermark = Long.MIN_VALUE;
+        scheduler = newScheduler();
+    }
+
+    @Test
+    public void thousandsOfTasks_eachFireOnceAtTheirDueTime() {
+        Random random = new Random(3);
+        int tasks = 5_000;
+        for (long id = 1; id <= tasks; id++) {
+            // Spread over a week, many of them sharing a due minute
+            index.put(id, START + (1 + random.nextInt(7 * 24 * 60)) * MINUTE);
+        }
+        scheduler.reschedule();
+
+        int wakeUps = 0;
+        long previousDue = Long.MIN_VALUE;
+        while (alarm.armedAt != null) {
+            clock.set(Instant.ofEpochMilli(alarm.armedAt));
+            int before = notified.size();
+            scheduler.onAlarm();
+            wakeUps++;
+            // Every wake-up has work to do, and reminders come out in due order, never early
+            assertTrue(notified.size() > before);
+            for (Reminder reminder : notified.subList(before, notified.size())) {
+                assertEquals(clock.millis(), reminder.getDueAt());
+                assertTrue(reminder.getDueAt() >= previousDue);
+                previousDue = reminder.getDueAt();
+            }
+        }
+        assertEquals(tasks, notified.size());
+        assertEquals(index.distinctDueTimes(), wakeUps);
+        // The first arm, then one after every wake-up but the last: no polling
+        assertEquals(wakeUps, alarm.arms);
+    }
+
+    @Test
+    public void reschedule_onlyTouchesTheAlarmWhenTheNextDueTimeMoves() {
+        index.put(1, START + 30 * MINUTE);
+        index.put(2, START + 60 * MINUTE);
+        scheduler.reschedule();
+        assertEquals(START + 30 * MINUTE, alarm.armedAt.longValue());
+
+        // A later task does not change the next reminder
+        index.put(3, START + 90 * MINUTE);
+        scheduler.reschedule();
+        assertEquals(1, alarm.arms);
+
+        // An earlier one does, and so does completing it
+        index.put(4, START + 10 * MINUTE);
+        scheduler.reschedule();
+        assertEquals(START + 10 * MINUTE, alarm.armedAt.longValue());
+        index.remove(4);
+        scheduler.reschedule();
+        assertEquals(START + 30 * MINUTE, alarm.armedAt.longValue());
+        assertEquals(3, alarm.arms);
+
+        // Nothing left: the alarm is cancelled
+        index.remove(1);
+        index.remove(2);
+        index.remove(3);
+        scheduler.reschedule();
+        assertNull(alarm.armedAt);
+    }
+
+    @Test
+    public void missedReminders_fireOnceAfterARestart() {
+        index.put(1, START + 10 * MINUTE);
+        index.put(2, START + 20 * MINUTE);
+        index.put(3, START + 120 * MINUTE);
+        scheduler.reschedule();
+
+        // The device was off for an hour: a new process is woken by the boot broadcast
+        clock.advance(60 * MINUTE);
+        scheduler = newScheduler();
+        scheduler.onAlarm();
+        assertEquals(List.of(1L, 2L), notifiedIds());
+        assertEquals(START + 120 * MINUTE, alarm.armedAt.longValue());
+
+        // Another restart does not repeat them
+        scheduler = newScheduler();
+        scheduler.onAlarm();
+        assertEquals(List.of(1L, 2L), notifiedIds());
+    }
+
+    @Test
+    public void firstRun_ignoresDueTimesAlreadyPast() {
+        index.put(1, START - MINUTE);
+        index.put(2, START + MINUTE);
+
+        scheduler.onAlarm();
+
+        assertTrue(notified.isEmpty());
+        assertEquals(START + MINUTE, alarm.armedAt.longValue());
+    }
+
+    @Test
+    public void clockMovedBack_remindersFireAtTheirNewTime() {
+        index.put(1, START + 30 * MINUTE);
+        scheduler.reschedule();
+        clock.advance(60 * MINUTE);
+        scheduler.onAlarm();
+        assertEquals(List.of(1L), notifiedIds());
+
+        // The user sets the clock back an hour; the same reminder is due again only when its time comes
+        clock.advance(-60 * MINUTE);
+        scheduler.onAlarm();
+        assertEquals(START + 30 * MINUTE, alarm.armedAt.longValue());
+        assertEquals(List.of(1L), notifiedIds());
+    }
+
+    @Test
+    public void dueTimeAtOrBeforeTheWatermark_isNotifiedWhenSet() {
+        index.put(1, START + 10 * MINUTE);
+        scheduler.reschedule();
+        clock.advance(10 * MINUTE);
+        scheduler.onAlarm();
+        clock.advance(10 * MINUTE);
+
+        // A time that has just passed, after the last firing: the alarm is armed for it and fires right away
+        index.put(2, START + 15 * MINUTE);
+        scheduler.onDueSet(List.of(new Reminder(2, "task 2", START + 15 * MINUTE)));
+        assertEquals(List.of(1L), notifiedIds());
+        assertEquals(START + 15 * MINUTE, alarm.armedAt.longValue());
+        // A time the alarm already went past: notified now instead of never
+        index.put(3, START + 5 * MINUTE);
+        scheduler.onDueSet(List.of(new Reminder(3, "task 3", START + 5 * MINUTE)));
+        assertEquals(List.of(1L, 3L), notifiedIds());
+    }
+
+    @Test
+    public void clockMovedBack_rewindsTheWatermarkBeforeTheNextAlarm() {
+        clock.advance(60 * MINUTE);
+        scheduler.onAlarm();
+
+        // The clock goes back an hour and a task is set for half an hour from the new time
+        clock.advance(-60 * MINUTE);
+        index.put(1, START + 30 * MINUTE);
+        scheduler.onDueSet(List.of(new Reminder(1, "task 1", START + 30 * MINUTE)));
+        assertTrue(notified.isEmpty());
+        assertEquals(START + 30 * MINUTE, alarm.armedAt.longValue());
+        assertEquals(START, savedWatermark);
+    }
+
+    private ReminderScheduler newScheduler() {
+        return new ReminderScheduler(clock, index, alarm, notified::add, new ReminderScheduler.Watermark() {
+            @Override
+            public long load() {
+                return savedWatermark;
+            }
+
+            @Override
+            public void save(long millis) {
+                savedWatermark = millis;
+            }
+        });
+    }
+
+    private List<Long> notifiedIds() {
+        List<Long> ids = new ArrayList<>();
+        for (Reminder reminder : notified) ids.add(reminder.getTaskId());
+        return ids;
+    }
+
+    // Due-time index kept in a sorted set, like the partial index on tasks(due_at, id)
+    private static class DueTimes implements ReminderScheduler.DueIndex {
+        private final NavigableSet<Reminder> reminders = new TreeSet<>(
+                Comparator.comparingLong(Reminder::getDueAt).thenComparingLong(Reminder::getTaskId));
+
+        void put(long id, long dueAt) {
+            reminders.add(new Reminder(id, "task " + id, dueAt));
+        }
+
+        void remove(long id) {
+            reminders.removeIf(reminder -> reminder.getTaskId() == id);
+        }
+
+        long distinctDueTimes() {
+            return reminders.stream().mapToLong(Reminder::getDueAt).distinct().count();
+        }
+
+        @Override
+        public List<Reminder> loadRemindersAfter(long afterMillis, long afterId, int limit) {
+            List<Reminder> page = new ArrayList<>();
+            for (Reminder reminder : reminders.tailSet(new Reminder(afterId, null, afterMillis), false)) {
+                if (page.size() == limit) break;
+                page.add(reminder);
+            }
+            return page;
+        }
+    }
+
+    // The single OS alarm
+    private static class Alarm implements ReminderScheduler.AlarmArmer {
+        Long armedAt;
+        int arms;
+
+        @Override
+        public void arm(long atMillis) {
+            armedAt = atMillis;
+            arms++;
+        }
+
+        @Override
+        public void cancel() {
+            armedAt = null;
+        }
+    }
+}
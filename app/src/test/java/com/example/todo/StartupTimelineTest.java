@@ -0,0 +1,110 @@
+package com.example.todo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link StartupTimeline} and {@link StartupSnapshot}: phases are traced and timed,
+ * only the cold start is kept, and the snapshot survives a round trip.
+ */
+public class StartupTimelineTest {
+    private static final long PROCESS_START = 1_000;
+
+    private long now;
+    private List<String> trace;
+    private StartupTimeline timeline;
+
+    @Before
+    public void setUp() {
+        now = PROCESS_START;
+        trace = new ArrayList<>();
+        timeline = new StartupTimeline(() -> now, PROCESS_START, new StartupTimeline.Tracer() {
+            @Override
+            public void beginSection(String name) {
+                trace.add("begin " + name);
+            }
+
+            @Override
+            public void endSection() {
+                trace.add("end");
+            }
+
+            @Override
+            public void beginAsyncSection(String name, int cookie) {
+                trace.add("beginAsync " + name + " " + cookie);
+            }
+
+            @Override
+            public void endAsyncSection(String name, int cookie) {
+                trace.add("endAsync " + name + " " + cookie);
+            }
+        });
+    }
+
+    @Test
+    public void phases_areTracedAndTimed() {
+        now += 40; // Application and activity creation
+        timeline.phase(StartupTimeline.PHASE_INFLATE, () -> now += 60);
+        StartupTimeline.Phase hydrate = timeline.beginPhase(StartupTimeline.PHASE_HYDRATE);
+        now += 20;
+        timeline.markFirstFrame();
+        now += 80;
+        hydrate.end();
+        hydrate.end();
+        timeline.markFullList();
+
+        assertEquals(60, timeline.getPhaseMillis(StartupTimeline.PHASE_INFLATE));
+        assertEquals(100, timeline.getPhaseMillis(StartupTimeline.PHASE_HYDRATE));
+        assertEquals(-1, timeline.getPhaseMillis(StartupTimeline.PHASE_MAINTENANCE));
+        assertEquals(120, timeline.getFirstFrameMillis());
+        assertEquals(200, timeline.getFullListMillis());
+        assertEquals(List.of("begin startup:inflate", "end",
+                "beginAsync startup:hydrate 0", "endAsync startup:hydrate 0"), trace);
+        assertEquals("firstFrame=120ms fullList=200ms startup:inflate=60ms startup:hydrate=100ms", timeline.summary());
+    }
+
+    @Test
+    public void laterRecreations_doNotOverwriteTheColdStart() {
+        now += 100;
+        timeline.phase(StartupTimeline.PHASE_INFLATE, () -> now += 10);
+        timeline.markFirstFrame();
+        // A rotation inflates and draws again
+        now += 5_000;
+        timeline.phase(StartupTimeline.PHASE_INFLATE, () -> now += 30);
+        timeline.markFirstFrame();
+
+        assertEquals(10, timeline.getPhaseMillis(StartupTimeline.PHASE_INFLATE));
+        assertEquals(110, timeline.getFirstFrameMillis());
+    }
+
+    @Test
+    public void snapshot_roundTrips() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Task(7, "plain", 20089));
+        tasks.add(new Task(9, "tab\there, back\\slash and\nnewline", 20089));
+        StartupSnapshot decoded = StartupSnapshot.decode(new StartupSnapshot(20089, 42, tasks).encode());
+
+        assertEquals(20089, decoded.getDay());
+        assertEquals(42, decoded.getCompletionPercent());
+        assertEquals(2, decoded.getTasks().size());
+        assertEquals(9, decoded.getTasks().get(1).getId());
+        assertEquals(tasks.get(1).getText(), decoded.getTasks().get(1).getText());
+    }
+
+    @Test
+    public void snapshot_keepsOnlyAScreenfulAndRejectsGarbage() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) tasks.add(new Task(i, "task " + i, 20089));
+
+        assertEquals(StartupSnapshot.MAX_TASKS, new StartupSnapshot(20089, 0, tasks).getTasks().size());
+        assertNull(StartupSnapshot.decode(null));
+        assertNull(StartupSnapshot.decode("0\n20089\n0\n"));
+        assertNull(StartupSnapshot.decode("1\nnot a day\n0\n"));
+        assertNotNull(StartupSnapshot.decode("1\n20089\n0\n"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.todo;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TaskLines}: pasted checklists become one task per non-blank line.
+ */
+public class TaskLinesTest {
+    @Test
+    public void singleLine_isOneTask() {
+        assertEquals(List.of("buy milk"), TaskLines.split("  buy milk "));
+    }
+
+    @Test
+    public void blankLinesAndMarkers_areDropped() {
+        String pasted = "- eggs\r\n\n* flour\n   \n[ ] sugar\n- [ ] butter\nplain line\n";
+
+        assertEquals(List.of("eggs", "flour", "sugar", "butter", "plain line"), TaskLines.split(pasted));
+    }
+
+    @Test
+    public void emptyInput_hasNoTask() {
+        assertTrue(TaskLines.split("").isEmpty());
+        assertTrue(TaskLines.split("\n \n").isEmpty());
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.todo;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TaskPager}: keyset pages are contiguous, the window stays bounded
+ * and the memory needed to open and scroll the future list, read from a real {@link InMemoryTaskStore},
+ * does not grow with the table size.
+ */
+public class TaskPagerTest {
+    private static final long TODAY = 20089;
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_PAGES = 4;
+    private static final int PREFETCH = 15;
+
+    @Test
+    public void scrollingForward_visitsEveryTaskOnceInOrder() {
+        TaskPager pager = newPager(new SyntheticTasks(1_000), window -> { });
+        pager.start();
+
+        long lastSeen = 0;
+        for (int i = 0; i < 1_000; i++) {
+            List<Task> window = pager.getWindow();
+            // Every task beyond the ones already seen must follow them without a gap
+            for (Task task : window) {
+                if (task.getId() > lastSeen) {
+                    assertEquals(lastSeen + 1, task.getId());
+                    lastSeen = task.getId();
+                }
+            }
+            int last = window.size() - 1;
+            pager.onVisibleRangeChanged(Math.max(0, last - 10), last);
+        }
+        assertEquals(1_000, lastSeen);
+    }
+
+    @Test
+    public void window_neverExceedsCapacity() {
+        SyntheticTasks source = new SyntheticTasks(1_000_000);
+        int[] largest = new int[1];
+        TaskPager pager = newPager(source, window -> largest[0] = Math.max(largest[0], window.size()));
+        pager.start();
+        scrollForward(pager, 20_000);
+
+        assertEquals(PAGE_SIZE * MAX_PAGES, pager.getCapacity());
+        assertTrue(largest[0] <= pager.getCapacity());
+        // Only pages touched by the scroll were ever requested
+        assertTrue(source.rowsServed < 20_000 + 2 * PAGE_SIZE * MAX_PAGES);
+    }
+
+    @Test
+    public void scrollingBack_reloadsDroppedPages() {
+        SyntheticTasks source = new SyntheticTasks(10_000);
+        TaskPager pager = newPager(source, window -> { });
+        pager.start();
+        scrollForward(pager, 1_000);
+        assertNotEquals(1, pager.getWindow().get(0).getId());
+
+        // Keep showing the first rows of the window until the pager has walked back to the start
+        for (int i = 0; i < 100 && pager.getWindow().get(0).getId() != 1; i++) {
+            pager.onVisibleRangeChanged(0, 5);
+        }
+        List<Task> window = pager.getWindow();
+        assertEquals(1, window.get(0).getId());
+        for (int i = 1; i < window.size(); i++) {
+            assertEquals(window.get(i - 1).getId() + 1, window.get(i).getId());
+        }
+    }
+
+    @Test
+    public void refresh_keepsTheWindowStart() {
+        SyntheticTasks source = new SyntheticTasks(10_000);
+        TaskPager pager = newPager(source, window -> { });
+        pager.start();
+        scrollForward(pager, 1_000);
+        List<Task> before = pager.getWindow();
+
+        pager.refresh();
+
+        assertEquals(before.get(0).getId(), pager.getWindow().get(0).getId());
+        assertEquals(before.size(), pager.getWindow().size());
+    }
+
+    @Test
+    public void peakAllocations_stayFlatFrom1kTo1MFutureRows() {
+        // Warm up so JIT compilation does not skew the first measurement
+        measureAllocatedBytes(1_000);
+        measureAllocatedBytes(1_000_000);
+
+        long small = measureAllocatedBytes(1_000);
+        long large = measureAllocatedBytes(1_000_000);
+
+        assertTrue("1k rows: " + small + " bytes, 1M rows: " + large + " bytes", large < small * 2 + 64 * 1024);
+    }
+
+    // Bytes allocated by this thread to open the future list and scroll 900 rows into it, the pages coming
+    // from the store's (day, id) index as they do from SQLite's; seeding the store is not measured
+    private static long measureAllocatedBytes(int rows) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        StoredTasks source = new StoredTasks(rows);
+        long start = threads.getThreadAllocatedBytes(threadId);
+        TaskPager pager = new TaskPager(TODAY, PAGE_SIZE, MAX_PAGES, PREFETCH, source, window -> { });
+        pager.start();
+        scrollForward(pager, 900);
+        return threads.getThreadAllocatedBytes(threadId) - start;
+    }
+
+    private static TaskPager newPager(SyntheticTasks source, TaskPager.Listener listener) {
+        return new TaskPager(TODAY, PAGE_SIZE, MAX_PAGES, PREFETCH, source, listener);
+    }
+
+    // Simulates the user scrolling forward until roughly the given number of rows has gone by
+    private static void scrollForward(TaskPager pager, int rows) {
+        long target = pager.getWindow().get(0).getId() + rows;
+        for (int i = 0; i < rows && pager.getWindow().get(pager.getWindow().size() - 1).getId() < target; i++) {
+            int last = pager.getWindow().size() - 1;
+            pager.onVisibleRangeChanged(Math.max(0, last - 10), last);
+        }
+    }
+
+    // Future tasks in an InMemoryTaskStore, TASKS_PER_DAY a day from tomorrow on, paged through the
+    // store's keyset queries; pages are answered synchronously
+    private static class StoredTasks implements TaskPager.PageLoader {
+        private static final int TASKS_PER_DAY = 1_000;
+        private final InMemoryTaskStore store = new InMemoryTaskStore();
+
+        StoredTasks(int rows) {
+            List<String> texts = new ArrayList<>(TASKS_PER_DAY);
+            for (int i = 0; i < TASKS_PER_DAY; i++) texts.add("task " + i);
+            for (int d = 0; d < rows / TASKS_PER_DAY; d++) store.addTasks(texts, TODAY + 1 + d);
+        }
+
+        @Override
+        public void loadAfter(long day, long id, int limit, TaskRepository.Callback<List<Task>> callback) {
+            callback.onResult(store.loadTasksAfter(day, id, limit));
+        }
+
+        @Override
+        public void loadBefore(long day, long id, int limit, TaskRepository.Callback<List<Task>> callback) {
+            callback.onResult(store.loadTasksBefore(TODAY, day, id, limit));
+        }
+    }
+
+    // Future tasks computed from their position, so a table of any size costs nothing to hold:
+    // task i (0-based) has id i + 1 and is scheduled 1 + i / 10 days after today.
+    // Pages are answered synchronously, like a loader whose callback runs immediately.
+    private static class SyntheticTasks implements TaskPager.PageLoader {
+        private final int rows;
+        int rowsServed;
+
+        SyntheticTasks(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public void loadAfter(long day, long id, int limit, TaskRepository.Callback<List<Task>> callback) {
+            // The first page starts at (today, Long.MAX_VALUE): every row comes after it
+            long first = day == TODAY ? 0 : id;
+            List<Task> page = new ArrayList<>();
+            for (long i = first; i < rows && page.size() < limit; i++) {
+                page.add(task(i));
+            }
+            rowsServed += page.size();
+            callback.onResult(page);
+        }
+
+        @Override
+        public void loadBefore(long day, long id, int limit, TaskRepository.Callback<List<Task>> callback) {
+            long end = id - 1; // index of the key row
+            List<Task> page = new ArrayList<>();
+            for (long i = Math.max(0, end - limit); i < end; i++) {
+                page.add(task(i));
+            }
+            rowsServed += page.size();
+            callback.onResult(page);
+        }
+
+        private static Task task(long index) {
+            return new Task(index + 1, "task", TODAY + 1 + index / 10);
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.todo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TaskRepository}: writes are serialized in submission order,
+ * the store is never touched from the calling thread and callbacks go through the callback executor.
+ */
+public class TaskRepositoryTest {
+    private static final long DAY = 20089; // 2025-01-01
+
+    private RecordingTaskStore store;
+    private TaskRepository repository;
+
+    @Before
+    public void setUp() {
+        store = new RecordingTaskStore();
+        repository = new TaskRepository(store, Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void writes_runInSubmissionOrder() throws Exception {
+        Future<?> last = null;
+        for (int i = 0; i < 500; i++) {
+            if (i % 3 == 0) {
+                last = repository.addTask("task " + i, DAY, null);
+            } else if (i % 3 == 1) {
+                last = repository.completeTask(new Task(i, "task " + i, DAY), null);
+            } else {
+                last = repository.cancelTask(new Task(i, "task " + i, DAY), null);
+            }
+        }
+        last.get(5, TimeUnit.SECONDS);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            expected.add(i % 3 == 0 ? "add task " + i : (i % 3 == 1 ? "complete " : "cancel ") + i);
+        }
+        assertEquals(expected, store.writes);
+    }
+
+    @Test
+    public void writes_neverOverlap() throws Exception {
+        Future<Long> last = null;
+        for (int i = 0; i < 200; i++) {
+            last = repository.addTask("task " + i, DAY, null);
+        }
+        last.get(5, TimeUnit.SECONDS);
+        assertEquals(1, store.maxConcurrentWrites);
+    }
+
+    @Test
+    public void store_isNeverCalledFromCallingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+        repository.addTask("a", DAY, null).get(5, TimeUnit.SECONDS);
+        repository.completeTask(new Task(1, "a", DAY), null).get(5, TimeUnit.SECONDS);
+        repository.cancelTask(new Task(2, "a", DAY), null).get(5, TimeUnit.SECONDS);
+        repository.addTasks(List.of("b", "c"), DAY, null).get(5, TimeUnit.SECONDS);
+        repository.completeTasks(List.of(new Task(3, "b", DAY)), null).get(5, TimeUnit.SECONDS);
+        repository.cancelTasks(List.of(new Task(4, "c", DAY)), null).get(5, TimeUnit.SECONDS);
+        repository.archivePastTasks(DAY, null).get(5, TimeUnit.SECONDS);
+        repository.loadArchivedTasks(Long.MAX_VALUE, Long.MAX_VALUE, 50, null).get(5, TimeUnit.SECONDS);
+        repository.loadTasks(DAY, null).get(5, TimeUnit.SECONDS);
+        repository.loadTasksAfter(DAY, 0, 50, null).get(5, TimeUnit.SECONDS);
+        repository.loadTasksBefore(DAY, DAY + 1, 0, 50, null).get(5, TimeUnit.SECONDS);
+        repository.countTasks(DAY, null).get(5, TimeUnit.SECONDS);
+        repository.searchTasks("a*", Long.MIN_VALUE, Long.MIN_VALUE, 50, new QueryCancellation(), null)
+                .get(5, TimeUnit.SECONDS);
+        repository.loadStats(DAY, null).get(5, TimeUnit.SECONDS);
+        repository.loadStatsBetween(DAY - 7, DAY, null).get(5, TimeUnit.SECONDS);
+
+        assertEquals(15, store.callingThreads.size());
+        for (Thread thread : store.callingThreads) {
+            assertNotSame(caller, thread);
+        }
+    }
+
+    @Test
+    public void dueTimes_areWrittenByTheInsert() throws Exception {
+        repository.addTask("a", DAY, 5_000, null).get(5, TimeUnit.SECONDS);
+        repository.addTasks(List.of("b", "c"), DAY, 6_000, null).get(5, TimeUnit.SECONDS);
+
+        // One store write per add, and no separate setDueAt that a crash could lose
+        assertEquals(List.of("addAll 1 to " + TaskList.DEFAULT_ID + " due 5000",
+                "addAll 2 to " + TaskList.DEFAULT_ID + " due 6000"), store.writes);
+    }
+
+    @Test
+    public void callbacks_areDeliveredThroughCallbackExecutor() throws Exception {
+        List<Runnable> posted = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch delivered = new CountDownLatch(1);
+        Executor recording = command -> {
+            posted.add(command);
+            command.run();
+        };
+        TaskRepository repo = new TaskRepository(store, recording);
+        store.addTasks(List.of("a", "b", "c"), DAY, TaskList.DEFAULT_ID, Reminder.NO_DUE);
+
+        int[] result = new int[1];
+        repo.countTasks(DAY, count -> {
+            result[0] = count;
+            delivered.countDown();
+        });
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, posted.size());
+        assertEquals(3, result[0]);
+        repo.shutdown();
+    }
+
+    @Test
+    public void archivePastTasks_letsWritesRunBetweenChunks() throws Exception {
+        store.addPastTasks(100_000);
+        store.archiveGate = new CountDownLatch(1);
+        Future<Integer> sweep = repository.archivePastTasks(DAY, null);
+        // Submitted while the first chunk is running
+        repository.addTask("during", DAY, null);
+        store.archiveGate.countDown();
+
+        assertEquals(100_000, sweep.get(5, TimeUnit.SECONDS).intValue());
+        assertEquals(0, store.countTasks(DAY - 1));
+        // The add did not wait for the whole sweep: chunks ran after it
+        int add = store.writes.indexOf("add during");
+        assertTrue(store.writes.subList(add + 1, store.writes.size()).stream().anyMatch(w -> w.startsWith("archive")));
+    }
+
+    @Test
+    public void archivePastTasks_stopsAtShutdownWithoutTouchingTheClosedStore() throws Exception {
+        store.addPastTasks(100_000);
+        store.archiveGate = new CountDownLatch(1);
+        Future<Integer> sweep = repository.archivePastTasks(DAY, null);
+        repository.shutdown();
+        store.archiveGate.countDown();
+
+        assertTrue(store.closed.await(5, TimeUnit.SECONDS));
+        assertTrue(sweep.get(5, TimeUnit.SECONDS) < 100_000);
+        assertFalse(store.usedAfterClose);
+    }
+
+    @Test
+    public void searchTasks_dropsTheCallbackOnceCancelled() throws Exception {
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.cancel();
+        boolean[] delivered = new boolean[1];
+
+        repository.searchTasks("a*", Long.MIN_VALUE, Long.MIN_VALUE, 50, cancellation, result -> delivered[0] = true)
+                .get(5, TimeUnit.SECONDS);
+
+        assertFalse(delivered[0]);
+    }
+
+    @Test
+    public void importTasks_reportsAMalformedFileAndClosesTheChannel() throws Exception {
+        ReadableByteChannel file = Channels.newChannel(new ByteArrayInputStream(
+                "{\"format\":\"todo-tasks\",\"version\":1}\n{\"task\":\"a\",\"day\":1}\nnot json\n"
+                        .getBytes(StandardCharsets.UTF_8)));
+        Exception[] failure = new Exception[1];
+        boolean[] delivered = new boolean[1];
+
+        try {
+            repository.importTasks(file, result -> delivered[0] = true, error -> failure[0] = error)
+                    .get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(failure[0], e.getCause());
+        }
+
+        assertFalse(delivered[0]);
+        assertEquals("Line 3: expected '{'", failure[0].getMessage());
+        assertFalse(file.isOpen());
+        // Only full batches are stored, so the task before the error in the same batch was not
+        assertTrue(store.writes.isEmpty());
+    }
+
+    @Test
+    public void importTasks_reportsAStoreFailure() throws Exception {
+        ReadableByteChannel file = Channels.newChannel(new ByteArrayInputStream(
+                "{\"format\":\"todo-tasks\",\"version\":1}\n{\"task\":\"a\",\"day\":1}\n"
+                        .getBytes(StandardCharsets.UTF_8)));
+        store.importFailure = new IllegalStateException("disk full");
+        Exception[] failure = new Exception[1];
+
+        try {
+            repository.importTasks(file, null, error -> failure[0] = error).get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(store.importFailure, e.getCause());
+        }
+
+        assertSame(store.importFailure, failure[0]);
+        assertFalse(file.isOpen());
+    }
+
+    @Test
+    public void fireReminders_runsWhenDoneAndIsRejectedAfterShutdown() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        repository.fireReminders(done::countDown).get(5, TimeUnit.SECONDS);
+        assertEquals(0, done.getCount());
+
+        repository.shutdown();
+        try {
+            repository.fireReminders(() -> { });
+            fail();
+        } catch (RejectedExecutionException expected) {
+            // The receiver finishes its broadcast itself
+        }
+    }
+
+    @Test
+    public void shutdown_closesStoreAfterPendingWrites() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            repository.addTask("task " + i, DAY, null);
+        }
+        repository.shutdown();
+        assertTrue(store.closed.await(5, TimeUnit.SECONDS));
+        assertEquals(50, store.writes.size());
+    }
+
+    // In-memory store recording which thread performed each call and in which order writes arrived
+    private static class RecordingTaskStore extends InMemoryTaskStore {
+        final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> callingThreads = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile boolean isClosed;
+        volatile boolean usedAfterClose;
+        // When set, importing throws it
+        volatile RuntimeException importFailure;
+        // When set, archiving waits for it to open
+        volatile CountDownLatch archiveGate;
+        private int activeWrites;
+        int maxConcurrentWrites;
+
+        // Stores tasks on the day before DAY without recording them
+        void addPastTasks(int count) {
+            List<String> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) tasks.add("past " + i);
+            super.addTasks(tasks, DAY - 1, TaskList.DEFAULT_ID, Reminder.NO_DUE);
+        }
+
+        @Override
+        public long addTask(String task, long day) {
+            write("add " + task);
+            return super.addTask(task, day);
+        }
+
+        @Override
+        public List<Long> addTasks(List<String> tasks, long day, long listId, long dueAt) {
+            write("addAll " + tasks.size() + " to " + listId + (dueAt == Reminder.NO_DUE ? "" : " due " + dueAt));
+            return super.addTasks(tasks, day, listId, dueAt);
+        }
+
+        @Override
+        public int importTasks(List<TaskBackup.Entry> entries) {
+            if (importFailure != null) throw importFailure;
+            write("import " + entries.size());
+            return super.importTasks(entries);
+        }
+
+        @Override
+        public void completeTasks(List<Long> ids) {
+            write("completeAll " + ids);
+            super.completeTasks(ids);
+        }
+
+        @Override
+        public void cancelTasks(List<Long> ids) {
+            write("cancelAll " + ids);
+            super.cancelTasks(ids);
+        }
+
+        @Override
+        public void completeTask(long id) {
+            write("complete " + id);
+            super.completeTask(id);
+        }
+
+        @Override
+        public void cancelTask(long id) {
+            write("cancel " + id);
+            super.cancelTask(id);
+        }
+
+        @Override
+        public int archivePastTasks(long today, int limit) {
+            if (isClosed) usedAfterClose = true;
+            if (archiveGate != null) {
+                try {
+                    archiveGate.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            int moved = super.archivePastTasks(today, limit);
+            write("archive " + moved);
+            return moved;
+        }
+
+        @Override
+        public List<Task> loadArchivedTasks(long beforeDay, long beforeId, int limit) {
+            callingThreads.add(Thread.currentThread());
+            return super.loadArchivedTasks(beforeDay, beforeId, limit);
+        }
+
+        @Override
+        public List<Task> loadTasks(long day) {
+            callingThreads.add(Thread.currentThread());
+            return super.loadTasks(day);
+        }
+
+        // The unfiltered pages read through these
+        @Override
+        public List<Task> loadTasksAfter(TaskFilter filter, long afterDay, long afterId, int limit) {
+            callingThreads.add(Thread.currentThread());
+            return super.loadTasksAfter(filter, afterDay, afterId, limit);
+        }
+
+        @Override
+        public List<Task> loadTasksBefore(TaskFilter filter, long today, long beforeDay, long beforeId, int limit) {
+            callingThreads.add(Thread.currentThread());
+            return super.loadTasksBefore(filter, today, beforeDay, beforeId, limit);
+        }
+
+        @Override
+        public List<Task> searchTasks(String match, long afterDay, long afterId, int limit, QueryCancellation cancellation) {
+            callingThreads.add(Thread.currentThread());
+            return super.searchTasks(match, afterDay, afterId, limit, cancellation);
+        }
+
+        @Override
+        public int countTasks(long day) {
+            callingThreads.add(Thread.currentThread());
+            return super.countTasks(day);
+        }
+
+        @Override
+        public DailyStats loadStats(long day) {
+            callingThreads.add(Thread.currentThread());
+            return super.loadStats(day);
+        }
+
+        @Override
+        public List<DailyStats> loadStatsBetween(long fromDay, long toDay) {
+            callingThreads.add(Thread.currentThread());
+            return super.loadStatsBetween(fromDay, toDay);
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+            closed.countDown();
+        }
+
+        private void write(String operation) {
+            synchronized (this) {
+                activeWrites++;
+                maxConcurrentWrites = Math.max(maxConcurrentWrites, activeWrites);
+            }
+            callingThreads.add(Thread.currentThread());
+            writes.add(operation);
+            synchronized (this) {
+                activeWrites--;
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.todo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TaskSearch}: typing is debounced, stale queries are cancelled,
+ * pages are appended in date order and clearing the text ends the search.
+ */
+public class TaskSearchTest {
+    private static final long DEBOUNCE = 200;
+    private static final int PAGE = 10;
+
+    private ManualScheduler scheduler;
+    private List<Request> requests;
+    private List<List<Task>> shown;
+    private int ended;
+    private TaskSearch search;
+
+    @Before
+    public void setUp() {
+        scheduler = new ManualScheduler();
+        requests = new ArrayList<>();
+        shown = new ArrayList<>();
+        search = new TaskSearch(DEBOUNCE, PAGE, scheduler,
+                (match, afterDay, afterId, limit, cancellation, callback) ->
+                        requests.add(new Request(match, afterDay, afterId, cancellation, callback)),
+                new TaskSearch.Listener() {
+                    @Override
+                    public void onResults(List<Task> results) {
+                        shown.add(results);
+                    }
+
+                    @Override
+                    public void onSearchEnded() {
+                        ended++;
+                    }
+                });
+    }
+
+    @Test
+    public void matchExpression_prefixesEveryWord() {
+        assertEquals("gro* mil*", TaskSearch.toMatchExpression("  Gro, MIL!"));
+        assertEquals("or* not*", TaskSearch.toMatchExpression("OR NOT"));
+        assertNull(TaskSearch.toMatchExpression(" -*\" "));
+    }
+
+    @Test
+    public void typing_runsOneQueryAfterThePause() {
+        search.setQuery("g");
+        search.setQuery("gr");
+        search.setQuery("gro");
+        assertTrue(requests.isEmpty());
+        assertEquals(DEBOUNCE, scheduler.delay);
+
+        scheduler.runPending();
+        assertEquals(1, requests.size());
+        assertEquals("gro*", requests.get(0).match);
+        assertEquals(Long.MIN_VALUE, requests.get(0).afterDay);
+    }
+
+    @Test
+    public void typingAgain_cancelsTheQueryInFlight() {
+        search.setQuery("gro");
+        scheduler.runPending();
+        Request stale = requests.get(0);
+
+        search.setQuery("groc");
+        assertTrue(stale.cancellation.isCanceled());
+        // A late answer to the stale query is ignored
+        stale.callback.onResult(tasks(0, 3));
+        assertTrue(shown.isEmpty());
+
+        scheduler.runPending();
+        requests.get(1).callback.onResult(tasks(0, 2));
+        assertEquals(1, shown.size());
+        assertEquals(2, shown.get(0).size());
+    }
+
+    @Test
+    public void loadMore_appendsTheNextPageAfterTheLastKey() {
+        search.setQuery("task");
+        scheduler.runPending();
+        requests.get(0).callback.onResult(tasks(0, PAGE));
+
+        search.loadMore();
+        search.loadMore(); // Already loading: ignored
+        assertEquals(2, requests.size());
+        assertEquals(PAGE - 1, requests.get(1).afterId);
+        requests.get(1).callback.onResult(tasks(PAGE, 4));
+
+        assertEquals(PAGE + 4, shown.get(1).size());
+        // The last page was short: nothing more to load
+        search.loadMore();
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void clearingTheText_endsTheSearch() {
+        search.setQuery("task");
+        scheduler.runPending();
+        search.setQuery(" ");
+
+        assertFalse(search.isActive());
+        assertTrue(requests.get(0).cancellation.isCanceled());
+        assertEquals(1, ended);
+        // Punctuation-only changes do not start a new query either
+        search.setQuery("!!");
+        assertNull(scheduler.pending);
+        assertEquals(1, ended);
+    }
+
+    // Tasks with ids from..from+count-1, one per day
+    private static List<Task> tasks(int from, int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = from; i < from + count; i++) tasks.add(new Task(i, "task " + i, 20089 + i));
+        return tasks;
+    }
+
+    private static class Request {
+        final String match;
+        final long afterDay;
+        final long afterId;
+        final QueryCancellation cancellation;
+        final TaskRepository.Callback<List<Task>> callback;
+
+        Request(String match, long afterDay, long afterId, QueryCancellation cancellation,
+                TaskRepository.Callback<List<Task>> callback) {
+            this.match = match;
+            this.afterDay = afterDay;
+            this.afterId = afterId;
+            this.cancellation = cancellation;
+            this.callback = callback;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.todo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measures the task list's hot paths on InMemoryTaskStore at 1k, 100k and 1M rows, spread evenly over
+// DAYS days centred on today. Run with ./gradlew :benchmark:jmh; the gc profiler adds the allocation
+// rate of every benchmark next to its ops/s. The mutations are paired with their inverse so the store
+// keeps its size over millions of invocations, and are named after both halves since both are timed.
+// Only the in-memory store runs on the JVM: these numbers compare algorithms and allocations, not SQLite
+// I/O. SqliteTaskStore needs the Android framework and is measured on a device by the benchmark tests in
+// app/src/androidTest (TaskDatabaseBenchmarkTest, TaskListBenchmarkTest and the others).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TaskStoreBenchmark {
+    static final long TODAY = 20089; // 2025-01-01
+    static final int DAYS = 1_000;
+    // Same page size as the future list in the app
+    static final int PAGE_SIZE = 50;
+    // Same chunk budget as TaskRepository
+    static final long SWEEP_BUDGET_MS = 16;
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"1000", "100000", "1000000"})
+        int rows;
+
+        InMemoryTaskStore store;
+        // A task of today that completeThenAdd finishes next
+        long nextToComplete;
+
+        @Setup(Level.Trial)
+        public void seed() {
+            store = seeded(rows);
+            nextToComplete = store.addTask("next", TODAY);
+        }
+    }
+
+    // The sweep empties the past, so every invocation gets a freshly seeded store
+    @State(Scope.Benchmark)
+    public static class PastStore {
+        @Param({"1000", "100000", "1000000"})
+        int rows;
+
+        InMemoryTaskStore store;
+
+        @Setup(Level.Invocation)
+        public void seed() {
+            store = seeded(rows);
+        }
+    }
+
+    @Benchmark
+    public long addThenCancel(Store state) {
+        long id = state.store.addTask("benchmark task", TODAY);
+        state.store.cancelTask(id);
+        return id;
+    }
+
+    @Benchmark
+    public long completeThenAdd(Store state) {
+        state.store.completeTask(state.nextToComplete);
+        state.nextToComplete = state.store.addTask("next", TODAY);
+        return state.nextToComplete;
+    }
+
+    @Benchmark
+    public List<Task> todayLoad(Store state) {
+        return state.store.loadTasks(TODAY);
+    }
+
+    @Benchmark
+    public List<Task> futureLoad(Store state) {
+        return state.store.loadTasksAfter(TODAY, Long.MAX_VALUE, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public int completionRate(Store state) {
+        return state.store.loadStats(TODAY).getCompletionPercent();
+    }
+
+    // Archives the past half of the rows the way the app does it at idle time
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int pastSweep(PastStore state) {
+        ArchiveSweep sweep = new ArchiveSweep(state.store, TODAY,
+                TimeUnit.MILLISECONDS.toNanos(SWEEP_BUDGET_MS), System::nanoTime);
+        while (sweep.runChunk()) {
+            // Next chunk
+        }
+        return sweep.getArchivedCount();
+    }
+
+    static InMemoryTaskStore seeded(int rows) {
+        InMemoryTaskStore store = new InMemoryTaskStore();
+        long firstDay = TODAY - DAYS / 2;
+        for (int d = 0; d < DAYS; d++) {
+            // Spreads the remainder over the first days
+            int count = rows / DAYS + (d < rows % DAYS ? 1 : 0);
+            List<String> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) tasks.add("task " + d + "-" + i);
+            store.addTasks(tasks, firstDay + d);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,13 @@
+plugins {
+    `java-library`
+}
+
+// Task model and persistence logic with no Android dependency, shared by the app and the benchmarks
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
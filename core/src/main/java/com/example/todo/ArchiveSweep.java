@@ -0,0 +1,75 @@
+package com.example.todo;
+
+import java.util.function.LongSupplier;
+
+// Moves the tasks whose day has passed into the archive, one bounded chunk at a time.
+// Each chunk is its own transaction, so other writes can run between chunks and the database
+// write lock is never held for long. The chunk size adapts to keep every chunk within the time
+// budget: it halves after a slow chunk and doubles after a fast one, between MIN_CHUNK and MAX_CHUNK.
+// Nothing needs to be remembered between runs: whatever a killed process did not move is still
+// in the tasks table and is picked up by the next sweep. Not thread-safe: run on the writer thread.
+public class ArchiveSweep {
+    static final int MIN_CHUNK = 50;
+    static final int INITIAL_CHUNK = 500;
+    static final int MAX_CHUNK = 10_000;
+
+    private final TaskStore store;
+    private final long today;
+    private final long budgetNanos;
+    // Monotonic time source, System::nanoTime in the app
+    private final LongSupplier nanoTime;
+    private int chunkSize = INITIAL_CHUNK;
+    private int archived;
+    private int chunks;
+    private long longestChunkNanos;
+    private boolean done;
+
+    public ArchiveSweep(TaskStore store, long today, long budgetNanos, LongSupplier nanoTime) {
+        this.store = store;
+        this.today = today;
+        this.budgetNanos = budgetNanos;
+        this.nanoTime = nanoTime;
+    }
+
+    // Archives one chunk; returns true while past tasks may remain
+    public boolean runChunk() {
+        if (done) return false;
+        int requested = chunkSize;
+        long start = nanoTime.getAsLong();
+        int moved = store.archivePastTasks(today, requested);
+        long elapsed = nanoTime.getAsLong() - start;
+        archived += moved;
+        chunks++;
+        longestChunkNanos = Math.max(longestChunkNanos, elapsed);
+        if (elapsed > budgetNanos) {
+            chunkSize = Math.max(MIN_CHUNK, chunkSize / 2);
+        } else if (elapsed < budgetNanos / 2) {
+            chunkSize = Math.min(MAX_CHUNK, chunkSize * 2);
+        }
+        done = moved < requested;
+        return !done;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    // Number of tasks moved so far
+    public int getArchivedCount() {
+        return archived;
+    }
+
+    public int getChunkCount() {
+        return chunks;
+    }
+
+    // Size of the next chunk
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // Duration of the slowest chunk so far, i.e. the longest the sweep held the write lock
+    public long getLongestChunkNanos() {
+        return longestChunkNanos;
+    }
+}
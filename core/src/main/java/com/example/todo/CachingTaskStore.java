@@ -0,0 +1,433 @@
+package com.example.todo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Write-through, in-memory cache in front of another TaskStore, indexed by day.
+// The cache covers one contiguous range of days [coveredFrom, coveredTo): for every day in that range
+// it holds all of the day's tasks, so today's list, per-day counts and future pages that stay inside
+// the range are answered from the sorted map in O(log n + k) without touching the database.
+// The range grows as days and future pages are read, and all mutations go through the cache
+// (write-through) so it never goes stale. When more than maxTasks tasks are cached, the
+// furthest-future days are evicted and the range shrinks accordingly.
+// The cache holds every task whatever its list; lists filtered by task list or tag are index seeks
+// in the delegate and are not cached.
+// Thread-safe: reads from the reader pool and writes from the writer thread may interleave;
+// database I/O happens outside the lock.
+public class CachingTaskStore implements TaskStore {
+    private final TaskStore delegate;
+    private final int maxTasks;
+
+    // Tasks per day, each list ordered by id; days without tasks have no entry
+    private final TreeMap<Long, List<Task>> buckets = new TreeMap<>();
+    // Day of every cached task, to find its bucket on delete
+    private final Map<Long, Long> dayById = new HashMap<>();
+    // Covered range of days; empty when coveredFrom == coveredTo. Long.MAX_VALUE means "up to the last task"
+    private long coveredFrom;
+    private long coveredTo;
+    // Number of cached tasks
+    private int size;
+    // Incremented by every write, so that a read racing with a write does not install stale rows
+    private long writeVersion;
+    private long hits;
+    private long misses;
+
+    public CachingTaskStore(TaskStore delegate, int maxTasks) {
+        this.delegate = delegate;
+        this.maxTasks = maxTasks;
+    }
+
+    @Override
+    public long addTask(String task, long day) {
+        long id = delegate.addTask(task, day);
+        cacheAdded(Collections.singletonList(task), Collections.singletonList(id), day);
+        return id;
+    }
+
+    @Override
+    public List<Long> addTasks(List<String> tasks, long day) {
+        List<Long> ids = delegate.addTasks(tasks, day);
+        cacheAdded(tasks, ids, day);
+        return ids;
+    }
+
+    @Override
+    public List<Long> addTasks(List<String> tasks, long day, long listId, long dueAt) {
+        List<Long> ids = delegate.addTasks(tasks, day, listId, dueAt);
+        cacheAdded(tasks, ids, day);
+        return ids;
+    }
+
+    // Appends newly inserted tasks to their day's bucket if the day is covered. New ids are always greater
+    // than existing ones, so appending keeps the bucket ordered. A read that missed the cache between the
+    // delegate's commit and this call may already have installed them: like install(), only tasks not
+    // cached yet are added.
+    private void cacheAdded(List<String> tasks, List<Long> ids, long day) {
+        synchronized (this) {
+            writeVersion++;
+            if (isCovered(day)) {
+                List<Task> bucket = buckets.computeIfAbsent(day, d -> new ArrayList<>());
+                for (int i = 0; i < ids.size(); i++) {
+                    if (dayById.put(ids.get(i), day) == null) {
+                        bucket.add(new Task(ids.get(i), tasks.get(i), day));
+                        size++;
+                    }
+                }
+                evictIfNeeded();
+            }
+        }
+    }
+
+    @Override
+    public long addList(String name) {
+        return delegate.addList(name);
+    }
+
+    @Override
+    public List<TaskList> loadLists(long day) {
+        return delegate.loadLists(day);
+    }
+
+    @Override
+    public List<String> loadTags() {
+        return delegate.loadTags();
+    }
+
+    // A rule adds or removes occurrences on any number of days, so the whole cache is dropped
+    @Override
+    public List<Long> addRecurrences(List<RecurrenceRule> rules) {
+        List<Long> ids = delegate.addRecurrences(rules);
+        clear();
+        return ids;
+    }
+
+    @Override
+    public void endRecurrence(long ruleId, long lastDay) {
+        delegate.endRecurrence(ruleId, lastDay);
+        clear();
+    }
+
+    // An import may add tasks on any number of days, so the whole cache is dropped
+    @Override
+    public int importTasks(List<TaskBackup.Entry> entries) {
+        int imported = delegate.importTasks(entries);
+        if (imported > 0) clear();
+        return imported;
+    }
+
+    // An export streams every stored task once, so it bypasses the cache
+    @Override
+    public void exportTasks(TaskBackup.Writer writer) throws IOException {
+        delegate.exportTasks(writer);
+    }
+
+    @Override
+    public void completeTask(long id) {
+        delegate.completeTask(id);
+        forget(id);
+    }
+
+    @Override
+    public void cancelTask(long id) {
+        delegate.cancelTask(id);
+        forget(id);
+    }
+
+    @Override
+    public void completeTasks(List<Long> ids) {
+        delegate.completeTasks(ids);
+        forgetAll(ids);
+    }
+
+    @Override
+    public void cancelTasks(List<Long> ids) {
+        delegate.cancelTasks(ids);
+        forgetAll(ids);
+    }
+
+    private synchronized void forgetAll(List<Long> ids) {
+        for (long id : ids) forget(id);
+    }
+
+    // Empties the cache; it fills again as days are read
+    private synchronized void clear() {
+        writeVersion++;
+        buckets.clear();
+        dayById.clear();
+        size = 0;
+        coveredFrom = coveredTo = 0;
+    }
+
+    // Drops a deleted task (or a completed or skipped occurrence) from its bucket
+    private synchronized void forget(long id) {
+        writeVersion++;
+        Long day = dayById.remove(id);
+        if (day != null) {
+            List<Task> bucket = buckets.get(day);
+            for (int i = 0; i < bucket.size(); i++) {
+                if (bucket.get(i).getId() == id) {
+                    bucket.remove(i);
+                    size--;
+                    break;
+                }
+            }
+            if (bucket.isEmpty()) buckets.remove(day);
+        }
+    }
+
+    @Override
+    public int archivePastTasks(long today, int limit) {
+        int moved = delegate.archivePastTasks(today, limit);
+        synchronized (this) {
+            writeVersion++;
+            // A chunk may leave some past tasks behind, so past days are dropped from the cache
+            // rather than assumed empty; the screens never read them
+            NavigableMap<Long, List<Task>> past = buckets.headMap(today, false);
+            for (List<Task> bucket : past.values()) {
+                for (Task task : bucket) dayById.remove(task.getId());
+                size -= bucket.size();
+            }
+            past.clear();
+            if (coveredFrom < today && coveredTo > today) {
+                coveredFrom = today;
+            } else if (coveredTo <= today) {
+                coveredFrom = coveredTo = 0;
+            }
+        }
+        return moved;
+    }
+
+    // Due times are not part of the cached rows
+    @Override
+    public void setDueAt(long id, long dueAt) {
+        delegate.setDueAt(id, dueAt);
+    }
+
+    @Override
+    public List<Reminder> loadRemindersAfter(long afterMillis, long afterId, int limit) {
+        return delegate.loadRemindersAfter(afterMillis, afterId, limit);
+    }
+
+    // Search results depend on the text, not the day, so they always come from the full-text index
+    @Override
+    public List<Task> searchTasks(String match, long afterDay, long afterId, int limit, QueryCancellation cancellation) {
+        return delegate.searchTasks(match, afterDay, afterId, limit, cancellation);
+    }
+
+    // The archive is only read on demand and is not cached
+    @Override
+    public List<Task> loadArchivedTasks(long beforeDay, long beforeId, int limit) {
+        return delegate.loadArchivedTasks(beforeDay, beforeId, limit);
+    }
+
+    @Override
+    public List<Task> loadTasks(long day) {
+        long version;
+        synchronized (this) {
+            if (isCovered(day)) {
+                hits++;
+                List<Task> bucket = buckets.get(day);
+                return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
+            }
+            misses++;
+            version = writeVersion;
+        }
+        List<Task> loaded = delegate.loadTasks(day);
+        synchronized (this) {
+            // Only adopt the day if it extends the covered range and no write happened meanwhile
+            if (version == writeVersion) {
+                if (coveredFrom == coveredTo) {
+                    coveredFrom = day;
+                    coveredTo = day + 1;
+                    install(loaded);
+                } else if (day == coveredTo) {
+                    coveredTo = day + 1;
+                    install(loaded);
+                } else if (day == coveredFrom - 1) {
+                    coveredFrom = day;
+                    install(loaded);
+                }
+                evictIfNeeded();
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public List<Task> loadTasks(TaskFilter filter, long day) {
+        return filter.isAll() ? loadTasks(day) : delegate.loadTasks(filter, day);
+    }
+
+    @Override
+    public List<Task> loadTasksAfter(TaskFilter filter, long afterDay, long afterId, int limit) {
+        return filter.isAll() ? loadTasksAfter(afterDay, afterId, limit)
+                : delegate.loadTasksAfter(filter, afterDay, afterId, limit);
+    }
+
+    @Override
+    public List<Task> loadTasksBefore(TaskFilter filter, long today, long beforeDay, long beforeId, int limit) {
+        return filter.isAll() ? loadTasksBefore(today, beforeDay, beforeId, limit)
+                : delegate.loadTasksBefore(filter, today, beforeDay, beforeId, limit);
+    }
+
+    @Override
+    public List<Task> loadTasksAfter(long afterDay, long afterId, int limit) {
+        long version;
+        boolean extendsRange;
+        synchronized (this) {
+            extendsRange = afterDay >= coveredFrom && afterDay < coveredTo;
+            if (extendsRange) {
+                List<Task> page = new ArrayList<>(limit);
+                for (List<Task> bucket : buckets.subMap(afterDay, true, coveredTo, false).values()) {
+                    for (Task task : bucket) {
+                        if (task.getDay() > afterDay || task.getId() > afterId) {
+                            page.add(task);
+                            if (page.size() == limit) break;
+                        }
+                    }
+                    if (page.size() == limit) break;
+                }
+                // Served from memory if the page is full or the range reaches the last task
+                if (page.size() == limit || coveredTo == Long.MAX_VALUE) {
+                    hits++;
+                    return page;
+                }
+            }
+            misses++;
+            version = writeVersion;
+        }
+        List<Task> page = delegate.loadTasksAfter(afterDay, afterId, limit);
+        if (!extendsRange) return page;
+        // A page starting inside the range continues it. The last day of a full page may continue
+        // past the page, so that day is read whole to let the range grow through it.
+        List<Task> lastDayTasks = null;
+        if (page.size() == limit) {
+            lastDayTasks = delegate.loadTasks(page.get(page.size() - 1).getDay());
+        }
+        synchronized (this) {
+            // Another read may have moved the range meanwhile, so check the key is still inside it
+            if (version == writeVersion && afterDay >= coveredFrom && afterDay < coveredTo) {
+                long lastDay = page.isEmpty() ? coveredTo : page.get(page.size() - 1).getDay();
+                long newCoveredTo = lastDayTasks == null ? Long.MAX_VALUE : lastDay + 1;
+                if (newCoveredTo > coveredTo) {
+                    List<Task> adopted = new ArrayList<>();
+                    for (Task task : page) {
+                        if (task.getDay() >= coveredTo && (lastDayTasks == null || task.getDay() < lastDay)) {
+                            adopted.add(task);
+                        }
+                    }
+                    if (lastDayTasks != null && lastDay >= coveredTo) adopted.addAll(lastDayTasks);
+                    coveredTo = newCoveredTo;
+                    install(adopted);
+                    evictIfNeeded();
+                }
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<Task> loadTasksBefore(long today, long beforeDay, long beforeId, int limit) {
+        synchronized (this) {
+            if (beforeDay >= coveredFrom && beforeDay < coveredTo) {
+                List<Task> page = new ArrayList<>(limit);
+                long lowest = Math.max(coveredFrom, today + 1);
+                if (beforeDay >= lowest) {
+                    for (List<Task> bucket : buckets.subMap(lowest, true, beforeDay, true).descendingMap().values()) {
+                        for (int i = bucket.size() - 1; i >= 0; i--) {
+                            Task task = bucket.get(i);
+                            if (task.getDay() < beforeDay || task.getId() < beforeId) {
+                                page.add(task);
+                                if (page.size() == limit) break;
+                            }
+                        }
+                        if (page.size() == limit) break;
+                    }
+                }
+                // Served from memory if the page is full or the range reaches back to tomorrow
+                if (page.size() == limit || coveredFrom <= today + 1) {
+                    hits++;
+                    Collections.reverse(page);
+                    return page;
+                }
+            }
+            misses++;
+        }
+        return delegate.loadTasksBefore(today, beforeDay, beforeId, limit);
+    }
+
+    @Override
+    public int countTasks(long day) {
+        synchronized (this) {
+            if (isCovered(day)) {
+                hits++;
+                List<Task> bucket = buckets.get(day);
+                return bucket == null ? 0 : bucket.size();
+            }
+            misses++;
+        }
+        return delegate.countTasks(day);
+    }
+
+    // Stats are a single-row lookup in the delegate and are not cached
+    @Override
+    public DailyStats loadStats(long day) {
+        return delegate.loadStats(day);
+    }
+
+    @Override
+    public List<DailyStats> loadStatsBetween(long fromDay, long toDay) {
+        return delegate.loadStatsBetween(fromDay, toDay);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    // Number of reads answered from memory
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    // Number of reads that went to the delegate store
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    // Number of tasks currently held in memory
+    public synchronized int getCachedTaskCount() {
+        return size;
+    }
+
+    private boolean isCovered(long day) {
+        return day >= coveredFrom && day < coveredTo;
+    }
+
+    // Adds tasks read from the delegate (ordered by day, then id) to their buckets
+    private void install(List<Task> tasks) {
+        for (Task task : tasks) {
+            if (dayById.put(task.getId(), task.getDay()) == null) {
+                buckets.computeIfAbsent(task.getDay(), d -> new ArrayList<>()).add(task);
+                size++;
+            }
+        }
+    }
+
+    // Drops the furthest-future days until the cache fits its cap, shrinking the covered range
+    private void evictIfNeeded() {
+        while (size > maxTasks && !buckets.isEmpty()) {
+            Map.Entry<Long, List<Task>> last = buckets.pollLastEntry();
+            for (Task task : last.getValue()) dayById.remove(task.getId());
+            size -= last.getValue().size();
+            coveredTo = last.getKey();
+            if (coveredTo <= coveredFrom) coveredFrom = coveredTo = 0;
+        }
+    }
+}
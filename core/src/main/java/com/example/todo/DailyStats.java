@@ -0,0 +1,45 @@
+package com.example.todo;
+
+// Counters of one day, read from the daily_stats table: tasks scheduled for the day (created),
+// and how many of them were completed or cancelled
+public final class DailyStats {
+    private final long day;
+    private final int created;
+    private final int completed;
+    private final int cancelled;
+
+    public DailyStats(long day, int created, int completed, int cancelled) {
+        this.day = day;
+        this.created = created;
+        this.completed = completed;
+        this.cancelled = cancelled;
+    }
+
+    public long getDay() {
+        return day;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    // Tasks of the day still to be done
+    public int getOpen() {
+        return Math.max(0, created - completed - cancelled);
+    }
+
+    // Share of the day's (non-cancelled) tasks that are completed, from 0 to 100; 0 when there are none
+    public int getCompletionPercent() {
+        int planned = created - cancelled;
+        if (planned <= 0) return 0;
+        return Math.min(100, completed * 100 / planned);
+    }
+}
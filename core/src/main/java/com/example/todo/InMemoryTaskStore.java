@@ -0,0 +1,507 @@
+package com.example.todo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// TaskStore held in plain JVM collections, with the same behaviour as SqliteTaskStore: the same
+// (day, id) ordering, stats counters, archive, recurring tasks, task lists, tags and reminder index, each
+// kept in a sorted map standing in for the table or index SQLite would use. It backs the JMH benchmarks and any test
+// that needs a real store off the device; nothing is persisted.
+// Thread-safe: every method holds the store's lock, like SQLite's single connection.
+public class InMemoryTaskStore implements TaskStore {
+    // Tasks per day, each ordered by id: the (day, id) index
+    private final TreeMap<Long, TreeMap<Long, Row>> tasksByDay = new TreeMap<>();
+    // The same per task list: the (list_id, day, id) index
+    private final Map<Long, TreeMap<Long, TreeMap<Long, Row>>> tasksByList = new HashMap<>();
+    // The same per tag: the (tag_id, day, task_id) key of task_tags
+    private final Map<String, TreeMap<Long, TreeMap<Long, Row>>> tasksByTag = new HashMap<>();
+    // Task list names by id
+    private final TreeMap<Long, String> lists = new TreeMap<>();
+    // Every task by id: the primary key
+    private final Map<Long, Row> tasksById = new HashMap<>();
+    // Tasks with a due time, ordered by (due_at, id): the partial reminder index
+    private final TreeSet<Row> reminders = new TreeSet<>((a, b) -> a.dueAt != b.dueAt
+            ? Long.compare(a.dueAt, b.dueAt) : Long.compare(a.id, b.id));
+    // Counters per day and task list: created, completed, cancelled
+    private final TreeMap<Long, TreeMap<Long, int[]>> stats = new TreeMap<>();
+    // Archived tasks ordered by (day, id)
+    private final TreeMap<Long, TreeMap<Long, Task>> archive = new TreeMap<>();
+    private final List<RecurrenceRule> rules = new ArrayList<>();
+    // Occurrence ids completed or skipped, by day: the (day, rule_id) key of recurrence_exceptions
+    private final TreeMap<Long, Set<Long>> exceptions = new TreeMap<>();
+    private long nextId = 1;
+    private long nextListId = TaskList.DEFAULT_ID + 1;
+    private long nextArchiveId = 1;
+    private long nextRuleId = 1;
+
+    private static final int CREATED = 0;
+    private static final int COMPLETED = 1;
+    private static final int CANCELLED = 2;
+
+    // A stored task, its list, tags and due time
+    private static final class Row {
+        final Task task;
+        final long id;
+        final long listId;
+        final List<String> tags;
+        long dueAt = Reminder.NO_DUE;
+
+        Row(Task task, long listId) {
+            this.task = task;
+            this.id = task.getId();
+            this.listId = listId;
+            this.tags = task.getText() == null ? Collections.<String>emptyList() : TaskTags.parse(task.getText());
+        }
+    }
+
+    public InMemoryTaskStore() {
+        lists.put(TaskList.DEFAULT_ID, TaskList.DEFAULT_NAME);
+    }
+
+    @Override
+    public synchronized long addTask(String task, long day) {
+        long id = insert(task, day, TaskList.DEFAULT_ID, Reminder.NO_DUE);
+        bumpStats(day, TaskList.DEFAULT_ID, CREATED, 1);
+        return id;
+    }
+
+    @Override
+    public synchronized List<Long> addTasks(List<String> tasks, long day) {
+        return addTasks(tasks, day, TaskList.DEFAULT_ID, Reminder.NO_DUE);
+    }
+
+    @Override
+    public synchronized List<Long> addTasks(List<String> tasks, long day, long listId, long dueAt) {
+        List<Long> ids = new ArrayList<>(tasks.size());
+        for (String task : tasks) ids.add(insert(task, day, listId, dueAt));
+        bumpStats(day, listId, CREATED, tasks.size());
+        return ids;
+    }
+
+    @Override
+    public synchronized long addList(String name) {
+        long id = nextListId++;
+        lists.put(id, name);
+        return id;
+    }
+
+    @Override
+    public synchronized List<TaskList> loadLists(long day) {
+        TreeMap<Long, int[]> counters = stats.get(day);
+        List<TaskList> result = new ArrayList<>(lists.size());
+        for (Map.Entry<Long, String> list : lists.entrySet()) {
+            DailyStats row = statsOf(day, counters == null ? null : counters.get(list.getKey()));
+            if (list.getKey() == TaskList.DEFAULT_ID) row = withOccurrences(row, expander());
+            result.add(new TaskList(list.getKey(), list.getValue(), row.getOpen(), row.getCompleted()));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<String> loadTags() {
+        return new ArrayList<>(new TreeSet<>(tasksByTag.keySet()));
+    }
+
+    @Override
+    public synchronized List<Long> addRecurrences(List<RecurrenceRule> rules) {
+        List<Long> ids = new ArrayList<>(rules.size());
+        for (RecurrenceRule rule : rules) {
+            long id = nextRuleId++;
+            this.rules.add(new RecurrenceRule(id, rule.getText(), rule.getStartDay(), rule.getEndDay(),
+                    rule.getFrequency(), rule.getInterval(), rule.getWeekdays()));
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override
+    public synchronized void endRecurrence(long ruleId, long lastDay) {
+        for (Set<Long> ids : exceptions.tailMap(lastDay, false).values()) {
+            ids.removeIf(id -> RecurrenceRule.ruleIdOf(id) == ruleId);
+        }
+        for (int i = 0; i < rules.size(); i++) {
+            RecurrenceRule rule = rules.get(i);
+            if (rule.getId() != ruleId) continue;
+            if (rule.getStartDay() > lastDay) {
+                rules.remove(i);
+            } else {
+                rules.set(i, new RecurrenceRule(ruleId, rule.getText(), rule.getStartDay(), lastDay,
+                        rule.getFrequency(), rule.getInterval(), rule.getWeekdays()));
+            }
+            return;
+        }
+    }
+
+    @Override
+    public synchronized void setDueAt(long id, long dueAt) {
+        Row row = tasksById.get(id);
+        if (row == null) return;
+        if (row.dueAt != Reminder.NO_DUE) reminders.remove(row);
+        row.dueAt = dueAt;
+        if (dueAt != Reminder.NO_DUE) reminders.add(row);
+    }
+
+    @Override
+    public synchronized List<Reminder> loadRemindersAfter(long afterMillis, long afterId, int limit) {
+        Row key = new Row(new Task(afterId, null, 0), TaskList.DEFAULT_ID);
+        key.dueAt = afterMillis;
+        List<Reminder> page = new ArrayList<>();
+        for (Row row : reminders.tailSet(key, false)) {
+            if (page.size() == limit) break;
+            page.add(new Reminder(row.id, row.task.getText(), row.dueAt));
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized void completeTask(long id) {
+        finishTasks(Collections.singletonList(id), COMPLETED);
+    }
+
+    @Override
+    public synchronized void cancelTask(long id) {
+        finishTasks(Collections.singletonList(id), CANCELLED);
+    }
+
+    @Override
+    public synchronized void completeTasks(List<Long> ids) {
+        finishTasks(ids, COMPLETED);
+    }
+
+    @Override
+    public synchronized void cancelTasks(List<Long> ids) {
+        finishTasks(ids, CANCELLED);
+    }
+
+    // Removes the tasks (or records the occurrences) and bumps the counter of their days and lists
+    private void finishTasks(List<Long> ids, int counter) {
+        for (long id : ids) {
+            if (RecurrenceRule.isOccurrenceId(id)) {
+                long day = RecurrenceRule.dayOf(id);
+                if (exceptions.computeIfAbsent(day, d -> new HashSet<>()).add(id)) {
+                    bumpStats(day, TaskList.DEFAULT_ID, counter, 1);
+                }
+                continue;
+            }
+            Row row = remove(id);
+            if (row != null) bumpStats(row.task.getDay(), row.listId, counter, 1);
+        }
+    }
+
+    @Override
+    public synchronized int archivePastTasks(long today, int limit) {
+        // The oldest rows first, collected before removing them from every index
+        List<Row> oldest = new ArrayList<>();
+        for (TreeMap<Long, Row> rows : tasksByDay.headMap(today, false).values()) {
+            for (Row row : rows.values()) {
+                if (oldest.size() == limit) break;
+                oldest.add(row);
+            }
+            if (oldest.size() == limit) break;
+        }
+        for (Row row : oldest) {
+            remove(row.id);
+            long archiveId = nextArchiveId++;
+            archive.computeIfAbsent(row.task.getDay(), d -> new TreeMap<>())
+                    .put(archiveId, new Task(archiveId, row.task.getText(), row.task.getDay()));
+        }
+        int moved = oldest.size();
+        if (moved < limit) {
+            // Occurrences are never archived: past exceptions and rules that have ended are dropped
+            exceptions.headMap(today, false).clear();
+            rules.removeIf(rule -> rule.getEndDay() < today);
+        }
+        return moved;
+    }
+
+    @Override
+    public synchronized List<Task> loadArchivedTasks(long beforeDay, long beforeId, int limit) {
+        List<Task> page = new ArrayList<>();
+        for (Map.Entry<Long, TreeMap<Long, Task>> day : archive.headMap(beforeDay, true).descendingMap().entrySet()) {
+            NavigableMap<Long, Task> rows = day.getKey() == beforeDay
+                    ? day.getValue().headMap(beforeId, false) : day.getValue();
+            for (Task task : rows.descendingMap().values()) {
+                if (page.size() == limit) return page;
+                page.add(task);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized List<Task> loadTasks(long day) {
+        List<Task> stored = tasksOf(tasksByDay.get(day));
+        RecurrenceExpander expander = expander();
+        if (expander.isEmpty()) return stored;
+        List<Task> tasks = expander.onDay(day);
+        tasks.addAll(stored);
+        return tasks;
+    }
+
+    @Override
+    public synchronized List<Task> loadTasks(TaskFilter filter, long day) {
+        List<Task> stored = tasksOf(indexOf(filter).get(day));
+        RecurrenceExpander expander = expander();
+        if (!filter.includesOccurrences() || expander.isEmpty()) return stored;
+        List<Task> tasks = expander.onDay(day);
+        tasks.addAll(stored);
+        return tasks;
+    }
+
+    @Override
+    public synchronized List<Task> loadTasksAfter(long afterDay, long afterId, int limit) {
+        return loadTasksAfter(TaskFilter.ALL, afterDay, afterId, limit);
+    }
+
+    @Override
+    public synchronized List<Task> loadTasksAfter(TaskFilter filter, long afterDay, long afterId, int limit) {
+        List<Task> stored = new ArrayList<>();
+        for (Map.Entry<Long, TreeMap<Long, Row>> day : indexOf(filter).tailMap(afterDay, true).entrySet()) {
+            NavigableMap<Long, Row> rows = day.getKey() == afterDay
+                    ? day.getValue().tailMap(afterId, false) : day.getValue();
+            for (Row row : rows.values()) {
+                if (stored.size() == limit) break;
+                stored.add(row.task);
+            }
+            if (stored.size() == limit) break;
+        }
+        return filter.includesOccurrences() ? expander().after(stored, afterDay, afterId, limit) : stored;
+    }
+
+    @Override
+    public synchronized List<Task> loadTasksBefore(long today, long beforeDay, long beforeId, int limit) {
+        return loadTasksBefore(TaskFilter.ALL, today, beforeDay, beforeId, limit);
+    }
+
+    @Override
+    public synchronized List<Task> loadTasksBefore(TaskFilter filter, long today, long beforeDay, long beforeId,
+                                                   int limit) {
+        List<Task> stored = new ArrayList<>();
+        for (Map.Entry<Long, TreeMap<Long, Row>> day
+                : indexOf(filter).subMap(today, false, beforeDay, true).descendingMap().entrySet()) {
+            NavigableMap<Long, Row> rows = day.getKey() == beforeDay
+                    ? day.getValue().headMap(beforeId, false) : day.getValue();
+            for (Row row : rows.descendingMap().values()) {
+                if (stored.size() == limit) break;
+                stored.add(row.task);
+            }
+            if (stored.size() == limit) break;
+        }
+        Collections.reverse(stored);
+        return filter.includesOccurrences() ? expander().before(stored, today, beforeDay, beforeId, limit) : stored;
+    }
+
+    // Matches like the full-text index: every term of the expression must prefix a word of the task
+    @Override
+    public synchronized List<Task> searchTasks(String match, long afterDay, long afterId, int limit,
+                                               QueryCancellation cancellation) {
+        List<String> prefixes = new ArrayList<>();
+        for (String term : match.split(" ")) {
+            if (!term.isEmpty()) prefixes.add(term.endsWith("*") ? term.substring(0, term.length() - 1) : term);
+        }
+        List<Task> page = new ArrayList<>();
+        for (Map.Entry<Long, TreeMap<Long, Row>> day : tasksByDay.tailMap(afterDay, true).entrySet()) {
+            if (cancellation.isCanceled()) return new ArrayList<>();
+            NavigableMap<Long, Row> rows = day.getKey() == afterDay
+                    ? day.getValue().tailMap(afterId, false) : day.getValue();
+            for (Row row : rows.values()) {
+                if (!matches(row.task.getText(), prefixes)) continue;
+                page.add(row.task);
+                if (page.size() == limit) return page;
+            }
+        }
+        return page;
+    }
+
+    private static boolean matches(String text, List<String> prefixes) {
+        String[] words = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized int countTasks(long day) {
+        TreeMap<Long, Row> rows = tasksByDay.get(day);
+        int stored = rows == null ? 0 : rows.size();
+        RecurrenceExpander expander = expander();
+        return expander.isEmpty() ? stored : stored + expander.onDay(day).size();
+    }
+
+    @Override
+    public synchronized DailyStats loadStats(long day) {
+        return withOccurrences(statsOf(day, sum(stats.get(day))), expander());
+    }
+
+    @Override
+    public synchronized List<DailyStats> loadStatsBetween(long fromDay, long toDay) {
+        RecurrenceExpander expander = expander();
+        List<DailyStats> result = new ArrayList<>();
+        if (expander.isEmpty()) {
+            for (Map.Entry<Long, TreeMap<Long, int[]>> row : stats.subMap(fromDay, true, toDay, true).entrySet()) {
+                result.add(statsOf(row.getKey(), sum(row.getValue())));
+            }
+            return result;
+        }
+        // Days with occurrences but no counters yet are listed too
+        for (long day = fromDay; day <= toDay; day++) {
+            DailyStats row = withOccurrences(statsOf(day, sum(stats.get(day))), expander);
+            if (row.getCreated() > 0 || row.getCompleted() > 0 || row.getCancelled() > 0) result.add(row);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void exportTasks(TaskBackup.Writer writer) throws IOException {
+        for (TreeMap<Long, Row> rows : tasksByDay.values()) {
+            for (Row row : rows.values()) {
+                String list = row.listId == TaskList.DEFAULT_ID ? null : lists.get(row.listId);
+                writer.write(row.task.getText(), row.task.getDay(), row.dueAt, list);
+            }
+        }
+    }
+
+    @Override
+    public synchronized int importTasks(List<TaskBackup.Entry> entries) {
+        int imported = 0;
+        for (TaskBackup.Entry entry : entries) {
+            if (containsText(entry.getDay(), entry.getText())) continue;
+            long listId = listNamed(entry.getList());
+            insert(entry.getText(), entry.getDay(), listId, entry.getDueAt());
+            bumpStats(entry.getDay(), listId, CREATED, 1);
+            imported++;
+        }
+        return imported;
+    }
+
+    // The first list with the name, created if there is none; the default list for null
+    private long listNamed(String name) {
+        if (name == null) return TaskList.DEFAULT_ID;
+        for (Map.Entry<Long, String> list : lists.entrySet()) {
+            if (list.getValue().equals(name)) return list.getKey();
+        }
+        return addList(name);
+    }
+
+    @Override
+    public synchronized void close() {
+    }
+
+    private long insert(String text, long day, long listId, long dueAt) {
+        long id = nextId++;
+        Row row = new Row(new Task(id, text, day), listId);
+        addToIndex(tasksByDay, row);
+        addToIndex(tasksByList.computeIfAbsent(listId, l -> new TreeMap<>()), row);
+        for (String tag : row.tags) addToIndex(tasksByTag.computeIfAbsent(tag, t -> new TreeMap<>()), row);
+        tasksById.put(id, row);
+        if (dueAt != Reminder.NO_DUE) {
+            row.dueAt = dueAt;
+            reminders.add(row);
+        }
+        return id;
+    }
+
+    // Removes a stored task by id; null if it is already gone
+    private Row remove(long id) {
+        Row row = tasksById.remove(id);
+        if (row == null) return null;
+        removeFromIndex(tasksByDay, row);
+        removeFromIndex(tasksByList.get(row.listId), row);
+        for (String tag : row.tags) {
+            TreeMap<Long, TreeMap<Long, Row>> index = tasksByTag.get(tag);
+            removeFromIndex(index, row);
+            if (index.isEmpty()) tasksByTag.remove(tag);
+        }
+        if (row.dueAt != Reminder.NO_DUE) reminders.remove(row);
+        return row;
+    }
+
+    private boolean containsText(long day, String text) {
+        TreeMap<Long, Row> rows = tasksByDay.get(day);
+        if (rows == null) return false;
+        for (Row row : rows.values()) {
+            if (row.task.getText().equals(text)) return true;
+        }
+        return false;
+    }
+
+    private static void addToIndex(TreeMap<Long, TreeMap<Long, Row>> index, Row row) {
+        index.computeIfAbsent(row.task.getDay(), d -> new TreeMap<>()).put(row.id, row);
+    }
+
+    private static void removeFromIndex(TreeMap<Long, TreeMap<Long, Row>> index, Row row) {
+        TreeMap<Long, Row> day = index.get(row.task.getDay());
+        day.remove(row.id);
+        if (day.isEmpty()) index.remove(row.task.getDay());
+    }
+
+    // The (day, id) index holding the tasks that pass the filter
+    private TreeMap<Long, TreeMap<Long, Row>> indexOf(TaskFilter filter) {
+        TreeMap<Long, TreeMap<Long, Row>> index = filter.isList() ? tasksByList.get(filter.getListId())
+                : filter.isTag() ? tasksByTag.get(filter.getTag()) : tasksByDay;
+        return index == null ? new TreeMap<>() : index;
+    }
+
+    private void bumpStats(long day, long listId, int counter, int amount) {
+        stats.computeIfAbsent(day, d -> new TreeMap<>()).computeIfAbsent(listId, l -> new int[3])[counter] += amount;
+    }
+
+    // The counters of a day summed over its task lists; null if it has none
+    private static int[] sum(TreeMap<Long, int[]> perList) {
+        if (perList == null) return null;
+        int[] total = new int[3];
+        for (int[] counters : perList.values()) {
+            for (int i = 0; i < total.length; i++) total[i] += counters[i];
+        }
+        return total;
+    }
+
+    private static DailyStats statsOf(long day, int[] counters) {
+        return counters == null ? new DailyStats(day, 0, 0, 0)
+                : new DailyStats(day, counters[CREATED], counters[COMPLETED], counters[CANCELLED]);
+    }
+
+    // Counts the occurrences scheduled on the stats' day as created, since they have no row of their own
+    private static DailyStats withOccurrences(DailyStats stats, RecurrenceExpander expander) {
+        int scheduled = expander.countScheduled(stats.getDay());
+        if (scheduled == 0) return stats;
+        return new DailyStats(stats.getDay(), stats.getCreated() + scheduled, stats.getCompleted(), stats.getCancelled());
+    }
+
+    // Expands the current recurring tasks; only used while holding the store's lock
+    private RecurrenceExpander expander() {
+        return new RecurrenceExpander(rules, this::loadExceptions);
+    }
+
+    private Set<Long> loadExceptions(long fromDay, long toDay) {
+        Set<Long> ids = new HashSet<>();
+        for (Set<Long> day : exceptions.subMap(fromDay, true, toDay, true).values()) ids.addAll(day);
+        return ids;
+    }
+
+    private static List<Task> tasksOf(TreeMap<Long, Row> rows) {
+        List<Task> tasks = new ArrayList<>(rows == null ? 0 : rows.size());
+        if (rows != null) {
+            for (Row row : rows.values()) tasks.add(row.task);
+        }
+        return tasks;
+    }
+}
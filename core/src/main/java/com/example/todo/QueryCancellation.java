@@ -0,0 +1,34 @@
+package com.example.todo;
+
+// Lets the caller of a long-running query abandon it. The store links the token to the database's own
+// cancellation (a CancellationSignal), so a cancelled query stops running instead of just being ignored.
+// Thread-safe: cancelled from the main thread while the query runs on a reader thread.
+public final class QueryCancellation {
+    private boolean canceled;
+    private Runnable onCancel;
+
+    public synchronized boolean isCanceled() {
+        return canceled;
+    }
+
+    // Cancels the query; the listener, if any, runs on the calling thread. Further calls do nothing.
+    public void cancel() {
+        Runnable listener;
+        synchronized (this) {
+            if (canceled) return;
+            canceled = true;
+            listener = onCancel;
+        }
+        if (listener != null) listener.run();
+    }
+
+    // Registers the action that stops the query; runs it right away if already cancelled
+    public void setOnCancelListener(Runnable listener) {
+        boolean alreadyCanceled;
+        synchronized (this) {
+            onCancel = listener;
+            alreadyCanceled = canceled;
+        }
+        if (alreadyCanceled && listener != null) listener.run();
+    }
+}
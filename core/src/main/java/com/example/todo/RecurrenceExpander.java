@@ -0,0 +1,125 @@
+package com.example.todo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+// Merges the occurrences of recurring tasks into the lists read from the tasks table.
+// Only the date window a list actually covers is expanded: a stored page that is full bounds the
+// window by its own first or last day; otherwise the window starts one month wide and doubles until
+// the page is full or no rule has an occurrence left in that direction. Occurrences that were
+// completed or skipped (recurrence_exceptions) are left out. Results keep the (day, id) order of the
+// stored lists, so keyset pagination works unchanged; occurrence ids are negative and come first in a day.
+public class RecurrenceExpander {
+    // Reads the occurrence ids (see RecurrenceRule.occurrenceId) completed or skipped within [fromDay, toDay]
+    public interface Exceptions {
+        Set<Long> between(long fromDay, long toDay);
+    }
+
+    // First window expanded when the stored page does not bound it
+    static final int INITIAL_SPAN_DAYS = 31;
+
+    static final Comparator<Task> BY_DAY_AND_ID = (a, b) -> a.getDay() != b.getDay()
+            ? Long.compare(a.getDay(), b.getDay()) : Long.compare(a.getId(), b.getId());
+
+    private final List<RecurrenceRule> rules;
+    private final Exceptions exceptions;
+
+    public RecurrenceExpander(List<RecurrenceRule> rules, Exceptions exceptions) {
+        this.rules = rules;
+        this.exceptions = exceptions;
+    }
+
+    // Whether there is anything to expand; when not, the stored lists are returned as they are
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    // Open occurrences on a day, ordered by id
+    public List<Task> onDay(long day) {
+        return expand(day, day);
+    }
+
+    // Number of occurrences scheduled on a day, including the completed and skipped ones
+    public int countScheduled(long day) {
+        int count = 0;
+        for (RecurrenceRule rule : rules) {
+            if (rule.nextOccurrence(day - 1) == day) count++;
+        }
+        return count;
+    }
+
+    // Merges occurrences into a page of stored tasks strictly after (afterDay, afterId).
+    // stored is the stored page for the same key and limit.
+    public List<Task> after(List<Task> stored, long afterDay, long afterId, int limit) {
+        if (rules.isEmpty()) return stored;
+        long from = afterDay;
+        long to;
+        if (stored.size() == limit) {
+            // Anything after the last stored row would not make it into the page
+            to = stored.get(stored.size() - 1).getDay();
+        } else {
+            long lastStored = stored.isEmpty() ? from : stored.get(stored.size() - 1).getDay();
+            to = Math.max(from, lastStored) + INITIAL_SPAN_DAYS - 1;
+        }
+        while (true) {
+            List<Task> merged = new ArrayList<>(stored);
+            for (Task task : expand(from, to)) {
+                if (task.getDay() > afterDay || task.getId() > afterId) merged.add(task);
+            }
+            merged.sort(BY_DAY_AND_ID);
+            if (merged.size() >= limit) return new ArrayList<>(merged.subList(0, limit));
+            // The page is short: every stored row is in it, so look further ahead unless the rules ended
+            if (stored.size() == limit || nextOccurrence(to) == RecurrenceRule.NONE) return merged;
+            to += Math.max(INITIAL_SPAN_DAYS, to - from + 1);
+        }
+    }
+
+    // Merges occurrences into a page of stored tasks after today and strictly before (beforeDay, beforeId),
+    // in ascending order. stored is the stored page for the same key and limit.
+    public List<Task> before(List<Task> stored, long today, long beforeDay, long beforeId, int limit) {
+        if (rules.isEmpty()) return stored;
+        long to = beforeDay;
+        long from;
+        if (stored.size() == limit) {
+            from = stored.get(0).getDay();
+        } else {
+            long firstStored = stored.isEmpty() ? to : stored.get(0).getDay();
+            from = Math.max(today + 1, Math.min(to, firstStored) - INITIAL_SPAN_DAYS + 1);
+        }
+        while (true) {
+            List<Task> merged = new ArrayList<>(stored);
+            for (Task task : expand(from, to)) {
+                if (task.getDay() < beforeDay || task.getId() < beforeId) merged.add(task);
+            }
+            merged.sort(BY_DAY_AND_ID);
+            if (merged.size() >= limit) return new ArrayList<>(merged.subList(merged.size() - limit, merged.size()));
+            if (stored.size() == limit || from <= today + 1) return merged;
+            from = Math.max(today + 1, from - Math.max(INITIAL_SPAN_DAYS, to - from + 1));
+        }
+    }
+
+    // Open occurrences in [fromDay, toDay], ordered by (day, id)
+    private List<Task> expand(long fromDay, long toDay) {
+        List<Task> occurrences = new ArrayList<>();
+        for (RecurrenceRule rule : rules) {
+            for (long day = rule.nextOccurrence(fromDay - 1); day <= toDay; day = rule.nextOccurrence(day)) {
+                occurrences.add(rule.occurrence(day));
+            }
+        }
+        if (occurrences.isEmpty()) return occurrences;
+        Set<Long> done = exceptions.between(fromDay, toDay);
+        if (!done.isEmpty()) occurrences.removeIf(task -> done.contains(task.getId()));
+        Collections.sort(occurrences, BY_DAY_AND_ID);
+        return occurrences;
+    }
+
+    // Earliest occurrence of any rule after the given day, or RecurrenceRule.NONE
+    private long nextOccurrence(long afterDay) {
+        long next = RecurrenceRule.NONE;
+        for (RecurrenceRule rule : rules) next = Math.min(next, rule.nextOccurrence(afterDay));
+        return next;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.todo;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+// A repeating task, stored once in recurrence_rules instead of as one row per date.
+// Its occurrences are computed when a date window is displayed: nextOccurrence() jumps straight to
+// the first matching day after a given one in constant time, so expanding a window costs time
+// proportional to the occurrences in that window, however long ago the rule started or far it runs.
+// An occurrence is shown as a Task with a synthetic negative id packing the rule id and the day,
+// so it can be completed or skipped like any other row; see occurrenceId().
+public final class RecurrenceRule {
+    public enum Frequency { DAILY, WEEKLY, MONTHLY }
+
+    // Returned by nextOccurrence() when the rule has no occurrence after the given day
+    public static final long NONE = Long.MAX_VALUE;
+    // End day of a rule that repeats forever
+    public static final long NO_END = Long.MAX_VALUE;
+
+    private final long id;
+    private final String text;
+    private final long startDay;
+    private final long endDay;
+    private final Frequency frequency;
+    private final int interval;
+    // Days of the week of a weekly rule, bit 0 for Monday to bit 6 for Sunday
+    private final int weekdays;
+
+    // A weekly rule without weekdays repeats on the weekday of its start day; interval is at least 1
+    public RecurrenceRule(long id, String text, long startDay, long endDay, Frequency frequency, int interval,
+                          int weekdays) {
+        this.id = id;
+        this.text = text;
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.frequency = frequency;
+        this.interval = Math.max(1, interval);
+        this.weekdays = frequency == Frequency.WEEKLY && (weekdays & 0x7f) == 0
+                ? 1 << dayOfWeek(startDay) : weekdays & 0x7f;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getStartDay() {
+        return startDay;
+    }
+
+    public long getEndDay() {
+        return endDay;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public int getWeekdays() {
+        return weekdays;
+    }
+
+    // Bit of a weekday in getWeekdays(), for the day of the week of an epoch day
+    public static int weekdayBit(long day) {
+        return 1 << dayOfWeek(day);
+    }
+
+    // First occurrence strictly after the given day, or NONE
+    public long nextOccurrence(long afterDay) {
+        if (afterDay >= endDay) return NONE;
+        long from = Math.max(afterDay + 1, startDay);
+        long day;
+        switch (frequency) {
+            case DAILY:
+                day = startDay + ceilDiv(from - startDay, interval) * interval;
+                break;
+            case WEEKLY:
+                day = nextWeekly(from);
+                break;
+            default:
+                day = nextMonthly(from);
+                break;
+        }
+        return day > endDay ? NONE : day;
+    }
+
+    // Id of the occurrence of a rule on a day: negative, so it never collides with a task row id.
+    // Rule ids stay below 2^31 and days within [0, 2^32), i.e. 1970 to far beyond any real date.
+    public static long occurrenceId(long ruleId, long day) {
+        return -((ruleId << 32) | day);
+    }
+
+    public static boolean isOccurrenceId(long taskId) {
+        return taskId < 0;
+    }
+
+    public static long ruleIdOf(long occurrenceId) {
+        return -occurrenceId >>> 32;
+    }
+
+    public static long dayOf(long occurrenceId) {
+        return -occurrenceId & 0xffffffffL;
+    }
+
+    // The occurrence of this rule on a day, as a task row
+    Task occurrence(long day) {
+        return new Task(occurrenceId(id, day), text, day);
+    }
+
+    // Weeks are counted from the Monday of the start week; only every interval-th week is active
+    private long nextWeekly(long from) {
+        long firstMonday = startDay - dayOfWeek(startDay);
+        long week = Math.floorDiv(from - firstMonday, 7);
+        long day = from;
+        // At most two active weeks need to be looked at, since every active week has a matching day
+        while (true) {
+            if (week % interval != 0) {
+                week = ceilDiv(week, interval) * interval;
+                day = firstMonday + week * 7;
+            }
+            long weekEnd = firstMonday + week * 7 + 6;
+            for (; day <= weekEnd; day++) {
+                if ((weekdays & weekdayBit(day)) != 0) return day;
+            }
+            week += interval;
+            day = firstMonday + week * 7;
+        }
+    }
+
+    // Repeats on the start day's day of the month, or on the last day of shorter months
+    private long nextMonthly(long from) {
+        LocalDate start = LocalDate.ofEpochDay(startDay);
+        YearMonth startMonth = YearMonth.from(start);
+        LocalDate fromDate = LocalDate.ofEpochDay(from);
+        long months = startMonth.until(YearMonth.from(fromDate), ChronoUnit.MONTHS);
+        months = ceilDiv(months, interval) * interval;
+        while (true) {
+            YearMonth month = startMonth.plusMonths(months);
+            long day = month.atDay(Math.min(start.getDayOfMonth(), month.lengthOfMonth())).toEpochDay();
+            if (day >= from) return day;
+            months += interval;
+        }
+    }
+
+    // 0 for Monday to 6 for Sunday; epoch day 0 was a Thursday
+    private static int dayOfWeek(long day) {
+        return (int) Math.floorMod(day + 3, 7L);
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.todo;
+
+// A task's reminder: the task and the instant (epoch milliseconds) it is due, read from the
+// due-time index of the tasks table
+public final class Reminder {
+    // Due time of a task without a reminder
+    public static final long NO_DUE = Long.MIN_VALUE;
+
+    private final long taskId;
+    private final String text;
+    private final long dueAt;
+
+    public Reminder(long taskId, String text, long dueAt) {
+        this.taskId = taskId;
+        this.text = text;
+        this.dueAt = dueAt;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getDueAt() {
+        return dueAt;
+    }
+}
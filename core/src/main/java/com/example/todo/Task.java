@@ -0,0 +1,29 @@
+package com.example.todo;
+
+// Immutable model of a single task row: its row id, the task description and the day it is scheduled for
+public final class Task {
+    // Row id (INTEGER PRIMARY KEY), unique even when two tasks share the same text and day
+    private final long id;
+    // Description entered by the user
+    private final String text;
+    // Scheduled day as an epoch day (days since 1970-01-01, see LocalDate.toEpochDay())
+    private final long day;
+
+    public Task(long id, String text, long day) {
+        this.id = id;
+        this.text = text;
+        this.day = day;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getDay() {
+        return day;
+    }
+}
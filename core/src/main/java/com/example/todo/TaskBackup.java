@@ -0,0 +1,434 @@
+package com.example.todo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Export and import of the tasks as a JSON Lines file: a header line, then one small object per task,
+//   {"format":"todo-tasks","version":1}
+//   {"task":"Buy milk","day":20089,"due_at":1735718400000,"list":"Errands"}
+// where day is an epoch day, due_at (optional) the reminder instant in epoch milliseconds and list
+// (optional, absent for the default list) the name of the task's list. Lists go by name because ids
+// differ between installs: the import puts a task in the first list of that name, creating it if needed.
+// Both directions stream through a fixed-size buffer on an NIO channel: the export writes rows as the
+// store's cursor yields them, and the import parses one line at a time and hands the store batches of
+// BATCH_SIZE, so memory stays constant whatever the number of tasks.
+public final class TaskBackup {
+    // Tasks inserted per import transaction
+    static final int BATCH_SIZE = 1_000;
+    // Size of the channel buffer in both directions
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final String FORMAT = "todo-tasks";
+    private static final int VERSION = 1;
+
+    // One task of the file
+    public static final class Entry {
+        private final String text;
+        private final long day;
+        // Reminder instant, or Reminder.NO_DUE
+        private final long dueAt;
+        // Name of the task's list, or null for the default list
+        private final String list;
+
+        public Entry(String text, long day, long dueAt) {
+            this(text, day, dueAt, null);
+        }
+
+        public Entry(String text, long day, long dueAt, String list) {
+            this.text = text;
+            this.day = day;
+            this.dueAt = dueAt;
+            this.list = list;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public long getDay() {
+            return day;
+        }
+
+        public long getDueAt() {
+            return dueAt;
+        }
+
+        public String getList() {
+            return list;
+        }
+    }
+
+    // Outcome of an import: tasks read from the file, and how many of them were new
+    public static final class Result {
+        private final long read;
+        private final long imported;
+
+        public Result(long read, long imported) {
+            this.read = read;
+            this.imported = imported;
+        }
+
+        public long getRead() {
+            return read;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        // Tasks already stored with the same text on the same day, which were left out
+        public long getDuplicates() {
+            return read - imported;
+        }
+    }
+
+    private TaskBackup() {
+    }
+
+    // Writes every stored task to the channel and returns how many were written; the channel is left open
+    public static long export(TaskStore store, WritableByteChannel out) throws IOException {
+        Writer writer = new Writer(out);
+        store.exportTasks(writer);
+        writer.flush();
+        return writer.getCount();
+    }
+
+    // Reads the tasks of the channel and stores those not already present, BATCH_SIZE per transaction.
+    // A malformed file stops the import with an IOException; the batches before it stay imported.
+    public static Result importFrom(ReadableByteChannel in, TaskStore store) throws IOException {
+        Reader reader = new Reader(in);
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        long read = 0;
+        long imported = 0;
+        for (Entry entry = reader.next(); entry != null; entry = reader.next()) {
+            batch.add(entry);
+            read++;
+            if (batch.size() == BATCH_SIZE) {
+                imported += store.importTasks(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) imported += store.importTasks(batch);
+        return new Result(read, imported);
+    }
+
+    // Encodes tasks as lines into a buffer, writing it to the channel whenever it fills up
+    public static final class Writer implements Closeable {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        // Reused for every line
+        private final StringBuilder line = new StringBuilder(128);
+        private long count;
+
+        public Writer(WritableByteChannel channel) throws IOException {
+            this.channel = channel;
+            line.append("{\"format\":\"").append(FORMAT).append("\",\"version\":").append(VERSION).append("}\n");
+            put(line);
+        }
+
+        // Appends one task of the default list; dueAt is Reminder.NO_DUE for a task without a reminder
+        public void write(String text, long day, long dueAt) throws IOException {
+            write(text, day, dueAt, null);
+        }
+
+        // Appends one task; list is the name of its list, or null for the default list
+        public void write(String text, long day, long dueAt, String list) throws IOException {
+            line.setLength(0);
+            line.append("{\"task\":");
+            quote(text, line);
+            line.append(",\"day\":").append(day);
+            if (dueAt != Reminder.NO_DUE) line.append(",\"due_at\":").append(dueAt);
+            if (list != null) {
+                line.append(",\"list\":");
+                quote(list, line);
+            }
+            line.append("}\n");
+            put(line);
+            count++;
+        }
+
+        // Number of tasks written so far
+        public long getCount() {
+            return count;
+        }
+
+        // Writes out whatever is buffered
+        public void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+
+        private void put(CharSequence text) throws IOException {
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > buffer.remaining()) flush();
+            if (bytes.length > buffer.capacity()) {
+                // A line longer than the whole buffer goes out on its own
+                ByteBuffer large = ByteBuffer.wrap(bytes);
+                while (large.hasRemaining()) channel.write(large);
+            } else {
+                buffer.put(bytes);
+            }
+        }
+
+        private static void quote(String text, StringBuilder out) {
+            out.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.append('\\').append(c);
+                } else if (c == '\n') {
+                    out.append("\\n");
+                } else if (c == '\r') {
+                    out.append("\\r");
+                } else if (c == '\t') {
+                    out.append("\\t");
+                } else if (c < 0x20) {
+                    out.append(String.format("\\u%04x", (int) c));
+                } else {
+                    out.append(c);
+                }
+            }
+            out.append('"');
+        }
+    }
+
+    // Splits the channel's bytes into lines and parses each into an Entry, one line in memory at a time
+    public static final class Reader implements Closeable {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        // Bytes of the current line; grows only for a line longer than anything seen before
+        private byte[] line = new byte[256];
+        private int lineLength;
+        private int lineNumber;
+        private boolean endOfInput;
+        private boolean headerRead;
+
+        public Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.flip(); // Empty until the first read
+        }
+
+        // The next task, or null at the end of the file
+        public Entry next() throws IOException {
+            if (!headerRead) {
+                readHeader();
+                headerRead = true;
+            }
+            while (readLine()) {
+                if (isBlank()) continue;
+                return new Parser(decode(), lineNumber).entry();
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void readHeader() throws IOException {
+            if (!readLine()) throw new IOException("Empty backup file");
+            Parser header = new Parser(decode(), lineNumber);
+            header.header();
+        }
+
+        // Fills line with the next line, without its terminator; false at the end of the input
+        private boolean readLine() throws IOException {
+            lineLength = 0;
+            while (true) {
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b == '\n') {
+                        lineNumber++;
+                        return true;
+                    }
+                    if (lineLength == line.length) line = Arrays.copyOf(line, line.length * 2);
+                    line[lineLength++] = b;
+                }
+                if (endOfInput) {
+                    if (lineLength == 0) return false;
+                    lineNumber++;
+                    return true; // Last line without a terminator
+                }
+                buffer.clear();
+                endOfInput = channel.read(buffer) < 0;
+                buffer.flip();
+            }
+        }
+
+        private boolean isBlank() {
+            for (int i = 0; i < lineLength; i++) {
+                if (line[i] != ' ' && line[i] != '\t' && line[i] != '\r') return false;
+            }
+            return true;
+        }
+
+        private String decode() {
+            return new String(line, 0, lineLength, StandardCharsets.UTF_8);
+        }
+    }
+
+    // Parses the single flat object of a line; unknown keys are skipped so newer files stay readable
+    private static final class Parser {
+        private final String text;
+        private final int lineNumber;
+        private int position;
+
+        Parser(String text, int lineNumber) {
+            this.text = text;
+            this.lineNumber = lineNumber;
+        }
+
+        void header() throws IOException {
+            String format = null;
+            long version = -1;
+            expect('{');
+            if (!consume('}')) {
+                do {
+                    String key = string();
+                    expect(':');
+                    if (key.equals("format")) {
+                        format = string();
+                    } else if (key.equals("version")) {
+                        version = number();
+                    } else {
+                        skipValue();
+                    }
+                } while (consume(','));
+                expect('}');
+            }
+            if (!FORMAT.equals(format)) throw error("not a task backup");
+            if (version != VERSION) throw error("unsupported version " + version);
+        }
+
+        Entry entry() throws IOException {
+            String task = null;
+            long day = 0;
+            boolean hasDay = false;
+            long dueAt = Reminder.NO_DUE;
+            String list = null;
+            expect('{');
+            if (!consume('}')) {
+                do {
+                    String key = string();
+                    expect(':');
+                    if (key.equals("task")) {
+                        task = string();
+                    } else if (key.equals("day")) {
+                        day = number();
+                        hasDay = true;
+                    } else if (key.equals("due_at")) {
+                        if (!consumeLiteral("null")) dueAt = number();
+                    } else if (key.equals("list")) {
+                        if (!consumeLiteral("null")) list = string();
+                    } else {
+                        skipValue();
+                    }
+                } while (consume(','));
+                expect('}');
+            }
+            skipWhitespace();
+            if (position != text.length()) throw error("unexpected text after the task");
+            if (task == null || !hasDay) throw error("a task needs \"task\" and \"day\"");
+            return new Entry(task, day, dueAt, list);
+        }
+
+        private String string() throws IOException {
+            expect('"');
+            StringBuilder out = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') return out.toString();
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                if (position == text.length()) break;
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n': out.append('\n'); break;
+                    case 'r': out.append('\r'); break;
+                    case 't': out.append('\t'); break;
+                    case 'b': out.append('\b'); break;
+                    case 'f': out.append('\f'); break;
+                    case 'u':
+                        if (position + 4 > text.length()) throw error("truncated \\u escape");
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("bad \\u escape");
+                        }
+                        position += 4;
+                        break;
+                    default: out.append(escaped); break; // \" \\ \/
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private long number() throws IOException {
+            skipWhitespace();
+            int start = position;
+            if (position < text.length() && text.charAt(position) == '-') position++;
+            while (position < text.length() && Character.isDigit(text.charAt(position))) position++;
+            try {
+                return Long.parseLong(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("expected an integer");
+            }
+        }
+
+        // Skips a scalar value of an unknown key; nested objects and arrays are not part of the format
+        private void skipValue() throws IOException {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == '"') {
+                string();
+            } else if (!consumeLiteral("true") && !consumeLiteral("false") && !consumeLiteral("null")) {
+                int start = position;
+                while (position < text.length() && "+-.eE0123456789".indexOf(text.charAt(position)) >= 0) position++;
+                if (position == start) throw error("unsupported value");
+            }
+        }
+
+        private boolean consumeLiteral(String literal) {
+            skipWhitespace();
+            if (!text.startsWith(literal, position)) return false;
+            position += literal.length();
+            return true;
+        }
+
+        private boolean consume(char c) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) throws IOException {
+            if (!consume(c)) throw error("expected '" + c + "'");
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+        }
+
+        private IOException error(String message) {
+            return new IOException("Line " + lineNumber + ": " + message);
+        }
+    }
+}
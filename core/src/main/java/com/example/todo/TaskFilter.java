@@ -0,0 +1,74 @@
+package com.example.todo;
+
+import java.util.Objects;
+
+// Which tasks a list shows: all of them, those of one task list, or those carrying one tag (see TaskTags).
+// Occurrences of recurring tasks belong to the default list and carry no tag.
+public final class TaskFilter {
+    // Every task, whatever its list and tags
+    public static final TaskFilter ALL = new TaskFilter(0, null);
+
+    // Id of the task list, or 0
+    private final long listId;
+    // Normalized tag, or null
+    private final String tag;
+
+    private TaskFilter(long listId, String tag) {
+        this.listId = listId;
+        this.tag = tag;
+    }
+
+    // The tasks of one task list
+    public static TaskFilter list(long listId) {
+        return new TaskFilter(listId, null);
+    }
+
+    // The tasks carrying a tag, given with or without its '#'
+    public static TaskFilter tag(String tag) {
+        return new TaskFilter(0, TaskTags.normalize(tag));
+    }
+
+    public boolean isAll() {
+        return listId == 0 && tag == null;
+    }
+
+    public boolean isList() {
+        return listId != 0;
+    }
+
+    public boolean isTag() {
+        return tag != null;
+    }
+
+    public long getListId() {
+        return listId;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    // Whether the occurrences of recurring tasks pass the filter
+    public boolean includesOccurrences() {
+        return isAll() || listId == TaskList.DEFAULT_ID;
+    }
+
+    // Whether a stored task of the given list and text passes the filter
+    public boolean matches(long taskListId, String text) {
+        if (isList()) return taskListId == listId;
+        if (isTag()) return TaskTags.parse(text).contains(tag);
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TaskFilter)) return false;
+        TaskFilter filter = (TaskFilter) other;
+        return listId == filter.listId && Objects.equals(tag, filter.tag);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(listId) * 31 + Objects.hashCode(tag);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.todo;
+
+// A named list of tasks (work, home, errands...) with its badge counts for one day: tasks of the day
+// still open in the list, and tasks of the list completed that day
+public final class TaskList {
+    // List of the tasks created before lists existed, of the tasks added without choosing a list,
+    // and of the occurrences of recurring tasks; it always exists
+    public static final long DEFAULT_ID = 1;
+    // Name the default list is created with
+    public static final String DEFAULT_NAME = "Inbox";
+
+    private final long id;
+    private final String name;
+    private final int open;
+    private final int done;
+
+    public TaskList(long id, String name, int open, int done) {
+        this.id = id;
+        this.name = name;
+        this.open = open;
+        this.done = done;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getOpen() {
+        return open;
+    }
+
+    public int getDone() {
+        return done;
+    }
+}
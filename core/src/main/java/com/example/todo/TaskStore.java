@@ -0,0 +1,117 @@
+package com.example.todo;
+
+import java.io.IOException;
+import java.util.List;
+
+// Synchronous access to the persisted tasks. Days are epoch days (LocalDate.toEpochDay()).
+// Lists of tasks include the open occurrences of recurring tasks, expanded for the days they cover.
+// Every task belongs to one task list (TaskList.DEFAULT_ID unless added to another) and carries the tags
+// of its text (see TaskTags).
+// Implementations perform blocking I/O and must only be called from TaskRepository's executors.
+public interface TaskStore {
+    // Insert a new task scheduled for the given day, count it in the day's stats, and return its id
+    long addTask(String task, long day);
+
+    // Insert every task of the list for the given day in a single transaction and return their ids, in order
+    List<Long> addTasks(List<String> tasks, long day);
+
+    // Same as addTasks(tasks, day), into the given task list and each with a reminder at dueAt (epoch
+    // milliseconds, or Reminder.NO_DUE), written by the same insert so a task never exists without it
+    List<Long> addTasks(List<String> tasks, long day, long listId, long dueAt);
+
+    // Create a task list and return its id
+    long addList(String name);
+
+    // Return every task list in creation order, with its open and done counts on the given day,
+    // read in a single pass over that day's stats
+    List<TaskList> loadLists(long day);
+
+    // Return the tags of the stored tasks, in alphabetical order
+    List<String> loadTags();
+
+    // Store every recurring task of the list in a single transaction and return their ids, in order.
+    // The rules' own ids are ignored. Their occurrences appear in the task lists from then on.
+    List<Long> addRecurrences(List<RecurrenceRule> rules);
+
+    // Stop a recurring task after lastDay; a rule ending before its first occurrence is deleted
+    void endRecurrence(long ruleId, long lastDay);
+
+    // Set the instant (epoch milliseconds) a task is due, or clear it with Reminder.NO_DUE.
+    // Occurrences of recurring tasks have no due time and are ignored.
+    void setDueAt(long id, long dueAt);
+
+    // Return up to limit reminders of tasks with a due time strictly after the key (afterMillis, afterId),
+    // ordered by due time, then task id; see ReminderScheduler
+    List<Reminder> loadRemindersAfter(long afterMillis, long afterId, int limit);
+
+    // Delete a single task by id and count it as completed in its day's stats, in one transaction.
+    // For an occurrence of a recurring task (negative id), the occurrence is recorded as completed instead.
+    void completeTask(long id);
+
+    // Delete a single task by id and count it as cancelled in its day's stats, in one transaction.
+    // For an occurrence of a recurring task, the occurrence is recorded as skipped instead.
+    void cancelTask(long id);
+
+    // Complete every listed task in a single transaction; ids that no longer exist are ignored
+    void completeTasks(List<Long> ids);
+
+    // Cancel every listed task in a single transaction; ids that no longer exist are ignored
+    void cancelTasks(List<Long> ids);
+
+    // Move up to limit of the oldest tasks scheduled strictly before the given day into the archive,
+    // in one transaction, and return how many were moved (fewer than limit once none are left)
+    int archivePastTasks(long today, int limit);
+
+    // Return up to limit archived tasks that come strictly before the key (beforeDay, beforeId), most recent first.
+    // Passing (Long.MAX_VALUE, Long.MAX_VALUE) returns the latest archived tasks.
+    List<Task> loadArchivedTasks(long beforeDay, long beforeId, int limit);
+
+    // Return all tasks scheduled on the given day: the open occurrences of recurring tasks first,
+    // then the stored tasks in insertion order
+    List<Task> loadTasks(long day);
+
+    // Same as loadTasks(day), keeping only the tasks that pass the filter
+    List<Task> loadTasks(TaskFilter filter, long day);
+
+    // Return up to limit tasks ordered by (day, id) that come strictly after the key (afterDay, afterId).
+    // Passing (today, Long.MAX_VALUE) returns the first page of future tasks.
+    List<Task> loadTasksAfter(long afterDay, long afterId, int limit);
+
+    // Same as loadTasksAfter(afterDay, afterId, limit), keeping only the tasks that pass the filter
+    List<Task> loadTasksAfter(TaskFilter filter, long afterDay, long afterId, int limit);
+
+    // Return up to limit tasks scheduled after today that come strictly before the key (beforeDay, beforeId),
+    // in ascending (day, id) order
+    List<Task> loadTasksBefore(long today, long beforeDay, long beforeId, int limit);
+
+    // Same as loadTasksBefore(today, beforeDay, beforeId, limit), keeping only the tasks that pass the filter
+    List<Task> loadTasksBefore(TaskFilter filter, long today, long beforeDay, long beforeId, int limit);
+
+    // Return up to limit tasks matching the full-text expression (see TaskSearch.toMatchExpression),
+    // ordered by (day, id) and strictly after the key (afterDay, afterId); an empty list if cancelled.
+    // Passing (Long.MIN_VALUE, Long.MIN_VALUE) returns the first page.
+    List<Task> searchTasks(String match, long afterDay, long afterId, int limit, QueryCancellation cancellation);
+
+    // Return the number of tasks scheduled on the given day, open occurrences included
+    int countTasks(long day);
+
+    // Return the counters of the given day (all zero if nothing happened on it), over every task list.
+    // Occurrences of recurring tasks scheduled on the day count as created.
+    DailyStats loadStats(long day);
+
+    // Return the counters of every day in [fromDay, toDay] that has any, ordered by day
+    List<DailyStats> loadStatsBetween(long fromDay, long toDay);
+
+    // Write every stored task, in (day, id) order, to the backup as it is read, with the name of its list
+    // unless it is in the default one; occurrences of recurring tasks and archived tasks are not included
+    void exportTasks(TaskBackup.Writer writer) throws IOException;
+
+    // Insert, in a single transaction, the entries not already stored with the same text on the same day
+    // (nor earlier in the list), count them in their days' stats and set their due times. Each goes to the
+    // first list with its entry's list name, created if there is none, or to the default list.
+    // Returns how many were inserted.
+    int importTasks(List<TaskBackup.Entry> entries);
+
+    // Release the underlying connection; no other method may be called afterwards
+    void close();
+}
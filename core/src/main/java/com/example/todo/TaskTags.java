@@ -0,0 +1,43 @@
+package com.example.todo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Tags are the #words of a task's text ("Buy milk #errands #home"). They are extracted when the task is
+// stored and indexed with its day, so filtering by tag is a range scan like filtering by date.
+// A tag is made of letters, digits, '_' and '-', and compared in lower case.
+public final class TaskTags {
+    private TaskTags() {
+    }
+
+    // The distinct tags of a text, normalized, in order of appearance
+    public static List<String> parse(String text) {
+        int hash = text.indexOf('#');
+        if (hash < 0) return Collections.emptyList();
+        List<String> tags = new ArrayList<>();
+        while (hash >= 0) {
+            int end = hash + 1;
+            while (end < text.length() && isTagChar(text.charAt(end))) end++;
+            // A '#' inside a word ("C#") or without a word after it is not a tag
+            boolean atWordStart = hash == 0 || !isTagChar(text.charAt(hash - 1));
+            if (atWordStart && end > hash + 1) {
+                String tag = text.substring(hash + 1, end).toLowerCase(Locale.ROOT);
+                if (!tags.contains(tag)) tags.add(tag);
+            }
+            hash = text.indexOf('#', end);
+        }
+        return tags;
+    }
+
+    // The tag in its stored form: without its '#', in lower case
+    public static String normalize(String tag) {
+        String name = tag.startsWith("#") ? tag.substring(1) : tag;
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isTagChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+    }
+}
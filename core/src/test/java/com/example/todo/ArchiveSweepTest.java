@@ -0,0 +1,111 @@
+package com.example.todo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ArchiveSweep} over an {@link InMemoryTaskStore} whose chunks take a
+ * simulated time proportional to their size: chunks adapt to the time budget and an interrupted
+ * sweep is resumed from what the store still holds.
+ */
+public class ArchiveSweepTest {
+    private static final long TODAY = 20089;
+    private static final long BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+    // Past tasks are spread over this many days before today
+    private static final int PAST_DAYS = 100;
+
+    private long now;
+
+    @Test
+    public void chunks_adaptToTheTimeBudget() {
+        // 20 microseconds per row: about 800 rows fit in the budget
+        PastTasks store = new PastTasks(200_000, 20_000);
+        ArchiveSweep sweep = newSweep(store);
+
+        while (sweep.runChunk()) {
+            assertTrue(sweep.getChunkSize() >= ArchiveSweep.MIN_CHUNK && sweep.getChunkSize() <= ArchiveSweep.MAX_CHUNK);
+        }
+
+        assertTrue(sweep.isDone());
+        assertEquals(200_000, sweep.getArchivedCount());
+        assertEquals(0, countPastTasks(store));
+        assertEquals(1, store.countTasks(TODAY));
+        // After the first chunk, no chunk is more than twice the budget
+        assertTrue(sweep.getLongestChunkNanos() <= Math.max(2 * BUDGET_NANOS, ArchiveSweep.INITIAL_CHUNK * 20_000L));
+        assertTrue(sweep.getChunkCount() > 200_000 / ArchiveSweep.MAX_CHUNK);
+    }
+
+    @Test
+    public void fastStore_growsChunksUpToTheCap() {
+        PastTasks store = new PastTasks(100_000, 10);
+        ArchiveSweep sweep = newSweep(store);
+
+        while (sweep.runChunk()) {
+            // keep going
+        }
+
+        assertEquals(ArchiveSweep.MAX_CHUNK, sweep.getChunkSize());
+        assertEquals(100_000, sweep.getArchivedCount());
+    }
+
+    @Test
+    public void interruptedSweep_isResumedByTheNextOne() {
+        PastTasks store = new PastTasks(10_000, 20_000);
+        ArchiveSweep first = newSweep(store);
+        first.runChunk();
+        first.runChunk();
+        // The process dies here; the next launch starts a new sweep with nothing carried over
+        int left = countPastTasks(store);
+        assertEquals(10_000 - first.getArchivedCount(), left);
+        assertTrue(left > 0);
+
+        ArchiveSweep second = newSweep(store);
+        while (second.runChunk()) {
+            // keep going
+        }
+
+        assertEquals(left, second.getArchivedCount());
+        assertEquals(0, countPastTasks(store));
+        assertEquals(10_000, store.loadArchivedTasks(Long.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE).size());
+        assertFalse(second.runChunk());
+    }
+
+    private ArchiveSweep newSweep(TaskStore store) {
+        return new ArchiveSweep(store, TODAY, BUDGET_NANOS, () -> now);
+    }
+
+    // Tasks still stored on the days before today
+    private static int countPastTasks(TaskStore store) {
+        int count = 0;
+        for (long day = TODAY - PAST_DAYS; day < TODAY; day++) count += store.countTasks(day);
+        return count;
+    }
+
+    // In-memory store seeded with past tasks and one task today; archiving a chunk advances the fake time
+    private class PastTasks extends InMemoryTaskStore {
+        private final long nanosPerRow;
+
+        PastTasks(int pastTasks, long nanosPerRow) {
+            this.nanosPerRow = nanosPerRow;
+            for (int d = 0; d < PAST_DAYS; d++) {
+                int perDay = pastTasks / PAST_DAYS + (d < pastTasks % PAST_DAYS ? 1 : 0);
+                List<String> tasks = new ArrayList<>(perDay);
+                for (int i = 0; i < perDay; i++) tasks.add("task " + d + "-" + i);
+                addTasks(tasks, TODAY - PAST_DAYS + d);
+            }
+            addTask("today", TODAY);
+        }
+
+        @Override
+        public synchronized int archivePastTasks(long today, int limit) {
+            int moved = super.archivePastTasks(today, limit);
+            now += 100_000 + moved * nanosPerRow;
+            return moved;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.todo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link CachingTaskStore}: reads inside the covered range are served from memory,
+ * writes go through to the delegate and keep the cache coherent, and the cap evicts far-future days.
+ */
+public class CachingTaskStoreTest {
+    private static final long TODAY = 20089;
+    private static final int PAGE = 20;
+
+    private CountingTaskStore delegate;
+    private CachingTaskStore cache;
+
+    @Before
+    public void setUp() {
+        delegate = new CountingTaskStore();
+        for (int i = 0; i < 300; i++) {
+            delegate.addTask("task " + i, TODAY + i % 30);
+        }
+        cache = new CachingTaskStore(delegate, 10_000);
+    }
+
+    @Test
+    public void switchingBetweenTodayAndFuture_isServedFromMemory() {
+        // First display of both lists fills the cache
+        List<Task> today = cache.loadTasks(TODAY);
+        List<Task> future = loadAllFuture();
+        int calls = delegate.calls;
+
+        for (int i = 0; i < 10; i++) {
+            assertIds(today, cache.loadTasks(TODAY));
+            assertIds(future, loadAllFuture());
+        }
+        assertEquals(calls, delegate.calls);
+        assertTrue(cache.getHitCount() > 10 * 2);
+    }
+
+    @Test
+    public void writes_goThroughAndKeepTheCacheCoherent() {
+        cache.loadTasks(TODAY);
+        loadAllFuture();
+
+        long added = cache.addTask("new", TODAY + 3);
+        Task removed = cache.loadTasks(TODAY).get(0);
+        cache.completeTask(removed.getId());
+        int calls = delegate.calls;
+
+        // Served from memory, without reading the delegate again
+        List<Task> today = cache.loadTasks(TODAY);
+        int count = cache.countTasks(TODAY + 3);
+        List<Task> day3 = cache.loadTasks(TODAY + 3);
+        assertEquals(calls, delegate.calls);
+
+        assertIds(delegate.loadTasks(TODAY), today);
+        assertEquals(delegate.countTasks(TODAY + 3), count);
+        assertTrue(day3.stream().anyMatch(task -> task.getId() == added));
+        assertFalse(today.stream().anyMatch(task -> task.getId() == removed.getId()));
+    }
+
+    @Test
+    public void batchWrites_keepTheCacheCoherent() {
+        cache.loadTasks(TODAY);
+        List<Long> added = cache.addTasks(List.of("a", "b", "c"), TODAY);
+        List<Long> finished = new ArrayList<>(added.subList(0, 2));
+        finished.add(cache.loadTasks(TODAY).get(0).getId());
+        cache.completeTasks(finished);
+        int calls = delegate.calls;
+
+        List<Task> today = cache.loadTasks(TODAY);
+        assertEquals(calls, delegate.calls);
+        assertIds(delegate.loadTasks(TODAY), today);
+        assertEquals(added.get(2).longValue(), today.get(today.size() - 1).getId());
+    }
+
+    @Test
+    public void readBetweenTheDelegatesCommitAndTheCacheUpdate_cachesTheNewTaskOnce() throws Exception {
+        // The delegate has committed the task but the writer has not updated the cache yet
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        CountingTaskStore pausing = new CountingTaskStore() {
+            @Override
+            public long addTask(String task, long day) {
+                long id = super.addTask(task, day);
+                committed.countDown();
+                await(resume);
+                return id;
+            }
+        };
+        cache = new CachingTaskStore(pausing, 10_000);
+        Thread writer = new Thread(() -> cache.addTask("new", TODAY + 10));
+        writer.start();
+        await(committed);
+
+        // A read of the uncovered day misses, loads the committed row and covers the day
+        assertEquals(1, cache.loadTasks(TODAY + 10).size());
+        resume.countDown();
+        writer.join(5_000);
+
+        assertEquals(1, cache.loadTasks(TODAY + 10).size());
+        assertEquals(1, cache.countTasks(TODAY + 10));
+        assertEquals(1, cache.getCachedTaskCount());
+    }
+
+    @Test
+    public void archivePastTasks_dropsPastDays() {
+        cache.loadTasks(TODAY);
+        loadAllFuture();
+
+        assertEquals(10, cache.archivePastTasks(TODAY + 1, 100));
+
+        assertEquals(0, cache.countTasks(TODAY));
+        assertEquals(delegate.countTasks(TODAY + 1), cache.countTasks(TODAY + 1));
+        assertEquals(290, cache.getCachedTaskCount());
+    }
+
+    @Test
+    public void recurringTasks_invalidateTheCacheAndKeepPagesOrdered() {
+        cache.loadTasks(TODAY);
+        loadAllFuture();
+
+        // Every other day for two months, on top of the stored tasks
+        long rule = cache.addRecurrences(List.of(new RecurrenceRule(0, "water plants", TODAY, TODAY + 60,
+                RecurrenceRule.Frequency.DAILY, 2, 0))).get(0);
+        List<Task> today = cache.loadTasks(TODAY);
+        assertEquals(RecurrenceRule.occurrenceId(rule, TODAY), today.get(0).getId());
+        assertEquals(delegate.countTasks(TODAY + 2), cache.countTasks(TODAY + 2));
+
+        cache.completeTask(today.get(0).getId());
+        assertIds(delegate.loadTasks(TODAY), cache.loadTasks(TODAY));
+        assertEquals(today.size() - 1, cache.loadTasks(TODAY).size());
+
+        List<Task> future = loadAllFuture();
+        assertEquals(290 + 30, future.size());
+        for (int i = 1; i < future.size(); i++) {
+            assertTrue(RecurrenceExpander.BY_DAY_AND_ID.compare(future.get(i - 1), future.get(i)) < 0);
+        }
+    }
+
+    @Test
+    public void cap_evictsFarFutureDaysFirst() {
+        cache = new CachingTaskStore(delegate, 100);
+        cache.loadTasks(TODAY);
+        loadAllFuture();
+
+        assertTrue(cache.getCachedTaskCount() <= 100);
+        // Today and the nearest days stay in memory
+        long misses = cache.getMissCount();
+        cache.loadTasks(TODAY);
+        cache.countTasks(TODAY + 1);
+        assertEquals(misses, cache.getMissCount());
+        // The last days were evicted and are read from the delegate again
+        assertEquals(delegate.countTasks(TODAY + 29), cache.countTasks(TODAY + 29));
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    public void randomOperations_matchTheDelegate() {
+        Random random = new Random(7);
+        cache = new CachingTaskStore(delegate, 150);
+        for (int i = 0; i < 2_000; i++) {
+            long day = TODAY + random.nextInt(40);
+            switch (random.nextInt(5)) {
+                case 0:
+                    cache.addTask("r" + i, day);
+                    break;
+                case 1:
+                    List<Task> tasks = delegate.loadTasks(day);
+                    delegate.calls--;
+                    if (!tasks.isEmpty()) cache.completeTask(tasks.get(random.nextInt(tasks.size())).getId());
+                    break;
+                case 2:
+                    assertIds(delegate.loadTasks(day), cache.loadTasks(day));
+                    break;
+                case 3:
+                    assertEquals(delegate.countTasks(day), cache.countTasks(day));
+                    break;
+                default:
+                    long afterId = random.nextInt(400);
+                    assertIds(delegate.loadTasksAfter(day, afterId, PAGE), cache.loadTasksAfter(day, afterId, PAGE));
+                    assertIds(delegate.loadTasksBefore(TODAY, day, afterId, PAGE),
+                            cache.loadTasksBefore(TODAY, day, afterId, PAGE));
+            }
+            assertTrue(cache.getCachedTaskCount() <= 150);
+        }
+    }
+
+    // Reads the whole future list page by page, like the pager does
+    private List<Task> loadAllFuture() {
+        List<Task> all = new ArrayList<>();
+        long day = TODAY;
+        long id = Long.MAX_VALUE;
+        while (true) {
+            List<Task> page = cache.loadTasksAfter(day, id, PAGE);
+            all.addAll(page);
+            if (page.size() < PAGE) return all;
+            day = page.get(page.size() - 1).getDay();
+            id = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void assertIds(List<Task> expected, List<Task> actual) {
+        List<Long> expectedIds = new ArrayList<>();
+        for (Task task : expected) expectedIds.add(task.getId());
+        List<Long> actualIds = new ArrayList<>();
+        for (Task task : actual) actualIds.add(task.getId());
+        assertEquals(expectedIds, actualIds);
+    }
+
+    // In-memory store counting the reads the cache is meant to save
+    private static class CountingTaskStore extends InMemoryTaskStore {
+        int calls;
+
+        @Override
+        public synchronized List<Task> loadTasks(long day) {
+            calls++;
+            return super.loadTasks(day);
+        }
+
+        @Override
+        public synchronized List<Task> loadTasks(TaskFilter filter, long day) {
+            calls++;
+            return super.loadTasks(filter, day);
+        }
+
+        // The unfiltered pages read through these
+        @Override
+        public synchronized List<Task> loadTasksAfter(TaskFilter filter, long afterDay, long afterId, int limit) {
+            calls++;
+            return super.loadTasksAfter(filter, afterDay, afterId, limit);
+        }
+
+        @Override
+        public synchronized List<Task> loadTasksBefore(TaskFilter filter, long today, long beforeDay, long beforeId,
+                                                       int limit) {
+            calls++;
+            return super.loadTasksBefore(filter, today, beforeDay, beforeId, limit);
+        }
+
+        @Override
+        public synchronized int countTasks(long day) {
+            calls++;
+            return super.countTasks(day);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.todo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link InMemoryTaskStore}: the same ordering, paging, stats, archive, reminder
+ * and import behaviour as the SQLite store, so the benchmarks measure the real access patterns.
+ */
+public class InMemoryTaskStoreTest {
+    private static final long TODAY = 20089;
+
+    private InMemoryTaskStore store;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryTaskStore();
+    }
+
+    @Test
+    public void mutations_updateTheDaysStats() {
+        List<Long> ids = store.addTasks(List.of("a", "b", "c", "d"), TODAY);
+        store.completeTask(ids.get(0));
+        store.completeTasks(List.of(ids.get(1), ids.get(0)));
+        store.cancelTask(ids.get(2));
+
+        DailyStats stats = store.loadStats(TODAY);
+        assertEquals(4, stats.getCreated());
+        assertEquals(2, stats.getCompleted());
+        assertEquals(1, stats.getCancelled());
+        assertEquals(List.of(ids.get(3)), ids(store.loadTasks(TODAY)));
+        assertEquals(1, store.countTasks(TODAY));
+    }
+
+    @Test
+    public void futurePages_walkTheDayAndIdKeyBothWays() {
+        for (int i = 0; i < 95; i++) store.addTask("task " + i, TODAY + 1 + i % 7);
+        store.addTask("past", TODAY - 1);
+        store.addTask("today", TODAY);
+
+        List<Task> forward = new ArrayList<>();
+        long day = TODAY;
+        long id = Long.MAX_VALUE;
+        while (true) {
+            List<Task> page = store.loadTasksAfter(day, id, 10);
+            forward.addAll(page);
+            if (page.size() < 10) break;
+            day = page.get(page.size() - 1).getDay();
+            id = page.get(page.size() - 1).getId();
+        }
+        assertEquals(95, forward.size());
+        for (int i = 1; i < forward.size(); i++) {
+            assertTrue(RecurrenceExpander.BY_DAY_AND_ID.compare(forward.get(i - 1), forward.get(i)) < 0);
+        }
+
+        // The page before the last one ends right before it
+        Task last = forward.get(forward.size() - 1);
+        assertEquals(ids(forward.subList(84, 94)), ids(store.loadTasksBefore(TODAY, last.getDay(), last.getId(), 10)));
+    }
+
+    @Test
+    public void archive_movesPastTasksOldestFirst() {
+        for (int i = 0; i < 30; i++) store.addTask("old " + i, TODAY - 1 - i % 3);
+        store.addTask("today", TODAY);
+
+        assertEquals(20, store.archivePastTasks(TODAY, 20));
+        assertEquals(10, store.archivePastTasks(TODAY, 20));
+        assertEquals(0, store.archivePastTasks(TODAY, 20));
+
+        assertEquals(1, store.loadTasksAfter(Long.MIN_VALUE, Long.MIN_VALUE, 100).size());
+        List<Task> archived = store.loadArchivedTasks(Long.MAX_VALUE, Long.MAX_VALUE, 100);
+        assertEquals(30, archived.size());
+        assertEquals(TODAY - 1, archived.get(0).getDay());
+        assertEquals(TODAY - 3, archived.get(archived.size() - 1).getDay());
+    }
+
+    @Test
+    public void reminders_areOrderedByDueTimeAndForgottenWithTheirTask() {
+        long late = store.addTask("late", TODAY);
+        long early = store.addTask("early", TODAY);
+        long gone = store.addTask("gone", TODAY);
+        store.setDueAt(late, 3_000);
+        store.setDueAt(early, 1_000);
+        store.setDueAt(gone, 2_000);
+        store.completeTask(gone);
+
+        List<Reminder> reminders = store.loadRemindersAfter(Long.MIN_VALUE, Long.MIN_VALUE, 10);
+        assertEquals(2, reminders.size());
+        assertEquals(early, reminders.get(0).getTaskId());
+        assertEquals(late, reminders.get(1).getTaskId());
+        assertEquals(1, store.loadRemindersAfter(1_000, early, 10).size());
+    }
+
+    @Test
+    public void search_matchesEveryTermAsAWordPrefix() {
+        store.addTask("Buy milk", TODAY);
+        store.addTask("buy bread and milk", TODAY + 1);
+        store.addTask("milkshake", TODAY + 2);
+
+        List<Task> results = store.searchTasks("mil* bu*", Long.MIN_VALUE, Long.MIN_VALUE,
+                10, new QueryCancellation());
+        assertEquals(2, results.size());
+        assertEquals("Buy milk", results.get(0).getText());
+    }
+
+    @Test
+    public void recurringTasks_areExpandedIntoTheLists() {
+        store.addRecurrences(List.of(new RecurrenceRule(0, "stretch", TODAY, RecurrenceRule.NO_END,
+                RecurrenceRule.Frequency.DAILY, 1, 0)));
+        store.addTask("stored", TODAY);
+
+        List<Task> today = store.loadTasks(TODAY);
+        assertEquals(2, today.size());
+        store.completeTask(today.get(0).getId());
+
+        assertEquals(1, store.loadTasks(TODAY).size());
+        assertEquals(2, store.loadStats(TODAY).getCreated());
+        assertEquals(1, store.loadStats(TODAY).getCompleted());
+        assertEquals(10, store.loadTasksAfter(TODAY, Long.MAX_VALUE, 10).size());
+    }
+
+    @Test
+    public void listsAndTags_filterTheTasksAndCountEachList() {
+        long work = store.addList("Work");
+        List<Long> ids = store.addTasks(List.of("Report #Q3", "Call Ana #q3 #phone", "Plan"), TODAY, work,
+                Reminder.NO_DUE);
+        store.addTask("Buy milk #errands", TODAY);
+        store.addTask("Review #q3", TODAY + 1);
+        store.completeTask(ids.get(2));
+
+        assertEquals(List.of(ids.get(0), ids.get(1)), ids(store.loadTasks(TaskFilter.list(work), TODAY)));
+        assertEquals(2, store.loadTasks(TaskFilter.tag("#Q3"), TODAY).size());
+        assertEquals(1, store.loadTasksAfter(TaskFilter.tag("q3"), TODAY, Long.MAX_VALUE, 10).size());
+        assertEquals(0, store.loadTasksAfter(TaskFilter.list(work), TODAY, Long.MAX_VALUE, 10).size());
+        assertEquals(List.of("errands", "phone", "q3"), store.loadTags());
+
+        List<TaskList> lists = store.loadLists(TODAY);
+        assertEquals(2, lists.size());
+        assertEquals(TaskList.DEFAULT_NAME, lists.get(0).getName());
+        assertEquals(1, lists.get(0).getOpen());
+        assertEquals(2, lists.get(1).getOpen());
+        assertEquals(1, lists.get(1).getDone());
+
+        // Archiving forgets the tags of the archived tasks
+        store.archivePastTasks(TODAY + 2, 10);
+        assertEquals(List.of(), store.loadTags());
+    }
+
+    @Test
+    public void import_skipsTasksAlreadyStoredOnTheSameDay() {
+        store.addTask("a", TODAY);
+
+        int imported = store.importTasks(List.of(new TaskBackup.Entry("a", TODAY, Reminder.NO_DUE),
+                new TaskBackup.Entry("a", TODAY + 1, 5_000), new TaskBackup.Entry("a", TODAY + 1, Reminder.NO_DUE)));
+
+        assertEquals(1, imported);
+        assertEquals(1, store.countTasks(TODAY + 1));
+        assertEquals(1, store.loadStats(TODAY + 1).getCreated());
+        assertEquals(1, store.loadRemindersAfter(Long.MIN_VALUE, Long.MIN_VALUE, 10).size());
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        List<Long> ids = new ArrayList<>();
+        for (Task task : tasks) ids.add(task.getId());
+        return ids;
+    }
+}
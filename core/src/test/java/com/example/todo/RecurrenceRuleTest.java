@@ -0,0 +1,138 @@
+package com.example.todo;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link RecurrenceRule} and {@link RecurrenceExpander}: occurrences of daily,
+ * weekly and monthly rules, occurrence ids, and merging occurrences into stored pages while only
+ * expanding the window a page covers.
+ */
+public class RecurrenceRuleTest {
+    // A Wednesday
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Test
+    public void daily_repeatsEveryIntervalDaysUntilTheEnd() {
+        RecurrenceRule rule = rule(RecurrenceRule.Frequency.DAILY, 3, 0, day(START.plusDays(9)));
+
+        assertEquals(List.of(START, START.plusDays(3), START.plusDays(6), START.plusDays(9)),
+                occurrences(rule, START.minusDays(10), START.plusDays(30)));
+        assertEquals(day(START.plusDays(6)), rule.nextOccurrence(day(START.plusDays(3))));
+        assertEquals(RecurrenceRule.NONE, rule.nextOccurrence(day(START.plusDays(9))));
+    }
+
+    @Test
+    public void weekly_repeatsOnTheGivenWeekdaysOfEveryOtherWeek() {
+        int mondayAndFriday = 1 << (DayOfWeek.MONDAY.getValue() - 1) | 1 << (DayOfWeek.FRIDAY.getValue() - 1);
+        RecurrenceRule rule = rule(RecurrenceRule.Frequency.WEEKLY, 2, mondayAndFriday, RecurrenceRule.NO_END);
+
+        // The start week has no Monday left, then every other week has both days
+        assertEquals(List.of(LocalDate.of(2025, 1, 3), LocalDate.of(2025, 1, 13), LocalDate.of(2025, 1, 17),
+                        LocalDate.of(2025, 1, 27), LocalDate.of(2025, 1, 31)),
+                occurrences(rule, START, LocalDate.of(2025, 2, 2)));
+    }
+
+    @Test
+    public void weekly_withoutWeekdaysRepeatsOnTheStartDay() {
+        RecurrenceRule rule = rule(RecurrenceRule.Frequency.WEEKLY, 1, 0, RecurrenceRule.NO_END);
+
+        assertEquals(RecurrenceRule.weekdayBit(day(START)), rule.getWeekdays());
+        assertEquals(day(START.plusWeeks(1)), rule.nextOccurrence(day(START)));
+    }
+
+    @Test
+    public void monthly_fallsBackToTheLastDayOfShortMonths() {
+        RecurrenceRule rule = new RecurrenceRule(1, "rent", day(LocalDate.of(2024, 1, 31)), RecurrenceRule.NO_END,
+                RecurrenceRule.Frequency.MONTHLY, 1, 0);
+
+        assertEquals(List.of(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31),
+                        LocalDate.of(2024, 4, 30)),
+                occurrences(rule, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 5, 1)));
+    }
+
+    @Test
+    public void nextOccurrence_jumpsStraightToALateWindow() {
+        RecurrenceRule rule = rule(RecurrenceRule.Frequency.MONTHLY, 1, 0, RecurrenceRule.NO_END);
+
+        assertEquals(day(LocalDate.of(2035, 7, 1)), rule.nextOccurrence(day(LocalDate.of(2035, 6, 15))));
+    }
+
+    @Test
+    public void occurrenceIds_packTheRuleAndTheDay() {
+        long id = RecurrenceRule.occurrenceId(12345, day(START));
+
+        assertTrue(RecurrenceRule.isOccurrenceId(id));
+        assertEquals(12345, RecurrenceRule.ruleIdOf(id));
+        assertEquals(day(START), RecurrenceRule.dayOf(id));
+        assertNotEquals(id, RecurrenceRule.occurrenceId(12345, day(START) + 1));
+    }
+
+    @Test
+    public void expander_onlyReadsTheWindowOfTheRequestedPage() {
+        // Ten years of a daily task, looked at one month in
+        RecurrenceRule rule = new RecurrenceRule(1, "stretch", day(START.minusYears(5)), day(START.plusYears(5)),
+                RecurrenceRule.Frequency.DAILY, 1, 0);
+        List<long[]> windows = new ArrayList<>();
+        RecurrenceExpander expander = new RecurrenceExpander(List.of(rule), (from, to) -> {
+            windows.add(new long[]{from, to});
+            return new HashSet<>();
+        });
+
+        List<Task> page = expander.after(new ArrayList<>(), day(START), Long.MAX_VALUE, 20);
+
+        assertEquals(20, page.size());
+        assertEquals(day(START) + 1, page.get(0).getDay());
+        assertEquals(1, windows.size());
+        assertTrue(windows.get(0)[1] - windows.get(0)[0] < RecurrenceExpander.INITIAL_SPAN_DAYS);
+    }
+
+    @Test
+    public void expander_mergesOccurrencesIntoStoredPages() {
+        RecurrenceRule rule = rule(RecurrenceRule.Frequency.DAILY, 1, 0, RecurrenceRule.NO_END);
+        Set<Long> skipped = new HashSet<>(List.of(RecurrenceRule.occurrenceId(1, day(START) + 2)));
+        RecurrenceExpander expander = new RecurrenceExpander(List.of(rule), (from, to) -> skipped);
+        List<Task> stored = List.of(new Task(7, "a", day(START) + 1), new Task(8, "b", day(START) + 3),
+                new Task(9, "c", day(START) + 3));
+
+        // A full stored page bounds the window by its last day
+        List<Task> page = expander.after(stored, day(START), Long.MAX_VALUE, 3);
+        assertEquals(List.of(RecurrenceRule.occurrenceId(1, day(START) + 1), 7L, RecurrenceRule.occurrenceId(1, day(START) + 3)),
+                ids(page));
+
+        // Backwards from the last stored task, the skipped occurrence is left out
+        List<Task> previous = expander.before(stored.subList(0, 2), day(START), day(START) + 3, 9, 4);
+        assertEquals(List.of(RecurrenceRule.occurrenceId(1, day(START) + 1), 7L, RecurrenceRule.occurrenceId(1, day(START) + 3), 8L),
+                ids(previous));
+    }
+
+    private static RecurrenceRule rule(RecurrenceRule.Frequency frequency, int interval, int weekdays, long endDay) {
+        return new RecurrenceRule(1, "task", day(START), endDay, frequency, interval, weekdays);
+    }
+
+    private static List<LocalDate> occurrences(RecurrenceRule rule, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (long day = rule.nextOccurrence(day(from) - 1); day <= day(to); day = rule.nextOccurrence(day)) {
+            dates.add(LocalDate.ofEpochDay(day));
+        }
+        return dates;
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        List<Long> ids = new ArrayList<>();
+        for (Task task : tasks) ids.add(task.getId());
+        return ids;
+    }
+
+    private static long day(LocalDate date) {
+        return date.toEpochDay();
+    }
+}
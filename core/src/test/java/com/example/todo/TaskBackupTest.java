@@ -0,0 +1,242 @@
+package com.example.todo;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TaskBackup}: a million tasks round-trip through a file in fixed-size
+ * batches, any text survives the JSON Lines encoding, tasks keep their list by name, duplicates are
+ * left out, and malformed files are rejected with their line number.
+ */
+public class TaskBackupTest {
+    private static final long DAY = 20089; // 2025-01-01
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void millionTasks_roundTripThroughAFileInBatches() throws IOException {
+        int tasks = 1_000_000;
+        File file = folder.newFile("tasks.jsonl");
+
+        long exported;
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            exported = TaskBackup.export(new GeneratedTasks(tasks), out);
+        }
+        assertEquals(tasks, exported);
+
+        // The importer only ever holds one batch: each is checked against the generator and dropped
+        GeneratedTasks imported = new GeneratedTasks(0);
+        TaskBackup.Result result;
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            result = TaskBackup.importFrom(in, imported);
+        }
+        assertEquals(tasks, result.getRead());
+        assertEquals(tasks, result.getImported());
+        assertEquals(tasks, imported.checked);
+        assertEquals(TaskBackup.BATCH_SIZE, imported.largestBatch);
+    }
+
+    @Test
+    public void anyText_survivesTheRoundTrip() throws IOException {
+        StringBuilder longText = new StringBuilder();
+        while (longText.length() < 3 * TaskBackup.BUFFER_SIZE) longText.append("a long line ");
+        List<TaskBackup.Entry> entries = List.of(
+                new TaskBackup.Entry("quote \" and backslash \\", DAY, Reminder.NO_DUE),
+                new TaskBackup.Entry("two\nlines\tand a tab\r", DAY + 1, 1_735_718_400_000L, "W\u00f6rk \"lists\""),
+                new TaskBackup.Entry("caf\u00e9 \uD83D\uDED2 \u0001", DAY - 3000, Reminder.NO_DUE),
+                new TaskBackup.Entry("", 0, 0),
+                new TaskBackup.Entry(longText.toString(), DAY, Reminder.NO_DUE));
+
+        StoredTasks store = new StoredTasks();
+        TaskBackup.Result result = TaskBackup.importFrom(channelOf(export(entries)), store);
+
+        assertEquals(entries.size(), result.getImported());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(entries.get(i).getText(), store.entries.get(i).getText());
+            assertEquals(entries.get(i).getDay(), store.entries.get(i).getDay());
+            assertEquals(entries.get(i).getDueAt(), store.entries.get(i).getDueAt());
+            assertEquals(entries.get(i).getList(), store.entries.get(i).getList());
+        }
+    }
+
+    @Test
+    public void tasks_keepTheirListsByNameAcrossStores() throws IOException {
+        InMemoryTaskStore source = new InMemoryTaskStore();
+        long work = source.addList("Work");
+        source.addTasks(List.of("report", "call"), DAY, work, Reminder.NO_DUE);
+        source.addTask("milk", DAY);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TaskBackup.export(source, Channels.newChannel(bytes));
+
+        // The target's list ids differ from the source's, and it already has a "Work" list to reuse
+        InMemoryTaskStore target = new InMemoryTaskStore();
+        target.addList("Home");
+        long targetWork = target.addList("Work");
+        TaskBackup.importFrom(channelOf(bytes.toByteArray()), target);
+
+        assertEquals(3, target.loadLists(DAY).size());
+        assertEquals(2, target.loadTasks(TaskFilter.list(targetWork), DAY).size());
+        assertEquals(List.of("milk"), texts(target.loadTasks(TaskFilter.list(TaskList.DEFAULT_ID), DAY)));
+        assertEquals(2, target.loadLists(DAY).get(2).getOpen());
+
+        // A list missing from the target is created
+        InMemoryTaskStore empty = new InMemoryTaskStore();
+        TaskBackup.importFrom(channelOf(bytes.toByteArray()), empty);
+        TaskList created = empty.loadLists(DAY).get(1);
+        assertEquals("Work", created.getName());
+        assertEquals(2, empty.loadTasks(TaskFilter.list(created.getId()), DAY).size());
+    }
+
+    @Test
+    public void import_leavesOutTasksAlreadyStored() throws IOException {
+        List<TaskBackup.Entry> entries = List.of(new TaskBackup.Entry("a", DAY, Reminder.NO_DUE),
+                new TaskBackup.Entry("a", DAY + 1, Reminder.NO_DUE), new TaskBackup.Entry("b", DAY, Reminder.NO_DUE));
+        byte[] file = export(entries);
+        StoredTasks store = new StoredTasks();
+
+        TaskBackup.importFrom(channelOf(file), store);
+        // Importing the same file again changes nothing
+        TaskBackup.Result again = TaskBackup.importFrom(channelOf(file), store);
+
+        assertEquals(3, store.entries.size());
+        assertEquals(3, again.getRead());
+        assertEquals(0, again.getImported());
+        assertEquals(3, again.getDuplicates());
+    }
+
+    @Test
+    public void import_readsHandWrittenLines() throws IOException {
+        String file = "{\"version\": 1, \"format\": \"todo-tasks\", \"exported_by\": null}\r\n"
+                + "\n"
+                + "{ \"day\" : 20089 , \"task\" : \"\\u0041\\/b\", \"note\": \"ignored\", \"done\": false }\r\n"
+                + "{\"task\":\"no newline at the end\",\"day\":20090,\"due_at\":null}";
+        StoredTasks store = new StoredTasks();
+
+        TaskBackup.importFrom(channelOf(file.getBytes(StandardCharsets.UTF_8)), store);
+
+        assertEquals(2, store.entries.size());
+        assertEquals("A/b", store.entries.get(0).getText());
+        assertEquals(DAY, store.entries.get(0).getDay());
+        assertEquals(Reminder.NO_DUE, store.entries.get(1).getDueAt());
+    }
+
+    @Test
+    public void malformedFiles_areRejectedWithTheLineNumber() throws IOException {
+        assertImportFails("", "Empty backup file");
+        assertImportFails("{\"format\":\"something-else\",\"version\":1}\n", "Line 1: not a task backup");
+        assertImportFails("{\"format\":\"todo-tasks\",\"version\":2}\n", "Line 1: unsupported version 2");
+        String header = "{\"format\":\"todo-tasks\",\"version\":1}\n";
+        assertImportFails(header + "{\"task\":\"a\",\"day\":1}\n{\"task\":\"b\"}\n", "Line 3: a task needs \"task\" and \"day\"");
+        assertImportFails(header + "{\"task\":\"a,\"day\":1}\n", "Line 2: expected '}'");
+        assertImportFails(header + "{\"task\":\"a\",\"day\":\"1\"}\n", "Line 2: expected an integer");
+    }
+
+    private static void assertImportFails(String file, String message) throws IOException {
+        try {
+            TaskBackup.importFrom(channelOf(file.getBytes(StandardCharsets.UTF_8)), new StoredTasks());
+            fail("imported: " + file);
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static byte[] export(List<TaskBackup.Entry> entries) throws IOException {
+        StoredTasks store = new StoredTasks();
+        store.entries.addAll(entries);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TaskBackup.export(store, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static List<String> texts(List<Task> tasks) {
+        List<String> texts = new ArrayList<>();
+        for (Task task : tasks) texts.add(task.getText());
+        return texts;
+    }
+
+    private static ReadableByteChannel channelOf(byte[] bytes) {
+        return Channels.newChannel(new ByteArrayInputStream(bytes));
+    }
+
+    // Tasks produced on the fly on export and checked on the fly on import, so none is ever kept
+    private static class GeneratedTasks extends InMemoryTaskStore {
+        private final int count;
+        int checked;
+        int largestBatch;
+
+        GeneratedTasks(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void exportTasks(TaskBackup.Writer writer) throws IOException {
+            for (int i = 0; i < count; i++) writer.write(text(i), day(i), dueAt(i));
+        }
+
+        @Override
+        public int importTasks(List<TaskBackup.Entry> entries) {
+            largestBatch = Math.max(largestBatch, entries.size());
+            for (TaskBackup.Entry entry : entries) {
+                assertEquals(text(checked), entry.getText());
+                assertEquals(day(checked), entry.getDay());
+                assertEquals(dueAt(checked), entry.getDueAt());
+                checked++;
+            }
+            return entries.size();
+        }
+
+        private static String text(int i) {
+            return "task \"" + i + "\"";
+        }
+
+        private static long day(int i) {
+            return DAY + i % 1500;
+        }
+
+        private static long dueAt(int i) {
+            return i % 7 == 0 ? day(i) * 86_400_000L + i : Reminder.NO_DUE;
+        }
+    }
+
+    // Keeps its tasks in a list, in import order, and leaves out those with the text and day of a stored one
+    private static class StoredTasks extends InMemoryTaskStore {
+        final List<TaskBackup.Entry> entries = new ArrayList<>();
+        private final Set<String> keys = new HashSet<>();
+
+        @Override
+        public void exportTasks(TaskBackup.Writer writer) throws IOException {
+            for (TaskBackup.Entry entry : entries) {
+                writer.write(entry.getText(), entry.getDay(), entry.getDueAt(), entry.getList());
+            }
+        }
+
+        @Override
+        public int importTasks(List<TaskBackup.Entry> batch) {
+            int imported = 0;
+            for (TaskBackup.Entry entry : batch) {
+                if (!keys.add(entry.getDay() + "\n" + entry.getText())) continue;
+                entries.add(entry);
+                imported++;
+            }
+            return imported;
+        }
+    }
+}
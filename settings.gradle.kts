@@ -21,3 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "Todo"
 include(":app")
+include(":core")
+include(":benchmark")